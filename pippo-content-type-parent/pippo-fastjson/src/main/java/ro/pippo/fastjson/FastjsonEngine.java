@@ -23,6 +23,11 @@ import ro.pippo.core.HttpConstants;
 
 import com.alibaba.fastjson.JSON;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
 /**
  * A JsonEngine based on Fastjson.
  *
@@ -50,4 +55,19 @@ public class FastjsonEngine implements ContentTypeEngine {
         return JSON.parseObject(content, classOfT);
     }
 
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        JSON.writeJSONString(output, object, SerializerFeature.UseISO8601DateFormat);
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        JSON.writeJSONString(writer, object, SerializerFeature.UseISO8601DateFormat);
+    }
+
+    @Override
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        return JSON.parseObject(input, classOfT);
+    }
+
 }
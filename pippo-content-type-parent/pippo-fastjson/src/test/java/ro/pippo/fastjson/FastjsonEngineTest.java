@@ -18,6 +18,9 @@ package ro.pippo.fastjson;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -55,6 +58,18 @@ public class FastjsonEngineTest extends Assert {
         assertTrue(test.date.equals(result.date));
     }
 
+    @Test
+    public void testStreams() throws IOException {
+        MyTest test = new MyTest();
+
+        FastjsonEngine engine = new FastjsonEngine();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        engine.write(test, output);
+
+        MyTest result = engine.read(new ByteArrayInputStream(output.toByteArray()), MyTest.class);
+        assertEquals(test.message, result.message);
+    }
+
     public static class MyTest {
 
         public String message = "Hooray!";
@@ -29,7 +29,14 @@ import ro.pippo.core.Application;
 import ro.pippo.core.ContentTypeEngine;
 import ro.pippo.core.HttpConstants;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.sql.Time;
 import java.text.DateFormat;
 import java.text.ParseException;
@@ -71,6 +78,23 @@ public class GsonEngine implements ContentTypeEngine {
         return gson.fromJson(content, classOfT);
     }
 
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        write(object, writer);
+        writer.flush();
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        gson.toJson(object, writer);
+    }
+
+    @Override
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        return gson.fromJson(new InputStreamReader(input, StandardCharsets.UTF_8), classOfT);
+    }
+
     public static class ISO8601DateTypeAdapter implements JsonSerializer<java.sql.Date>, JsonDeserializer<java.sql.Date> {
         private final DateFormat dateFormat;
 
@@ -15,6 +15,7 @@
  */
 package ro.pippo.jackson;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -27,6 +28,9 @@ import ro.pippo.core.HttpConstants;
 import ro.pippo.core.PippoRuntimeException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.TimeZone;
 
 /**
@@ -68,4 +72,32 @@ public abstract class JacksonBaseEngine implements ContentTypeEngine {
         }
     }
 
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        try {
+            // the output belongs to the caller
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(output, object);
+        } catch (JsonProcessingException e) {
+            throw new PippoRuntimeException(e, "Error serializing object to {}", getContentType());
+        }
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        try {
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(writer, object);
+        } catch (JsonProcessingException e) {
+            throw new PippoRuntimeException(e, "Error serializing object to {}", getContentType());
+        }
+    }
+
+    @Override
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        try {
+            return objectMapper.readValue(input, classOfT);
+        } catch (JsonParseException | JsonMappingException e) {
+            throw new PippoRuntimeException(e, "Error deserializing {}", getContentType());
+        }
+    }
+
 }
@@ -18,6 +18,9 @@ package ro.pippo.jackson;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -61,6 +64,22 @@ public abstract class JacksonBaseEngineTest extends Assert {
         assertTrue(test.date.equals(result.date));
     }
 
+    @Test
+    public void testStreams() throws IOException {
+        MyTest test = new MyTest();
+
+        JacksonBaseEngine engine = getEngine();
+        engine.init(null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        engine.write(test, output);
+        // the output stream is left open
+        output.write(' ');
+
+        MyTest result = engine.read(new ByteArrayInputStream(output.toByteArray()), MyTest.class);
+        assertEquals(test.message, result.message);
+    }
+
     public static class MyTest {
 
         public String message = "Hooray!";
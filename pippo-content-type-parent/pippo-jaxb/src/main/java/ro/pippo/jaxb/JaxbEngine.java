@@ -28,8 +28,13 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 
 /**
  * An XmlEngine based on JAXB.
@@ -64,12 +69,8 @@ public class JaxbEngine implements ContentTypeEngine {
     @Override
     public String toString(Object object) {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(object.getClass());
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, prettyPrint);
-
             StringWriter writer = new StringWriter();
-            jaxbMarshaller.marshal(object, writer);
+            createMarshaller(object).marshal(object, writer);
 
             return writer.toString();
         } catch (JAXBException e) {
@@ -93,6 +94,66 @@ public class JaxbEngine implements ContentTypeEngine {
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T read(Reader reader, Class<T> classOfT) throws IOException {
+        try {
+            JAXBContext jaxbContext = JAXBContext.newInstance(classOfT);
+
+            // the content is already decoded, the encoding of the XML declaration is ignored
+            XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(reader);
+
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+
+            return (T) unmarshaller.unmarshal(xmlStreamReader);
+        } catch (JAXBException | XMLStreamException e) {
+            throw new PippoRuntimeException(e, "Failed to deserialize content to '{}'", classOfT.getName());
+        }
+    }
+
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        try {
+            createMarshaller(object).marshal(object, output);
+        } catch (JAXBException e) {
+            throw new PippoRuntimeException(e, "Failed to serialize '{}' to XML", object.getClass().getName());
+        }
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        try {
+            createMarshaller(object).marshal(object, writer);
+        } catch (JAXBException e) {
+            throw new PippoRuntimeException(e, "Failed to serialize '{}' to XML", object.getClass().getName());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        try {
+            JAXBContext jaxbContext = JAXBContext.newInstance(classOfT);
+
+            // the parser detects the encoding from the XML declaration
+            XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(input);
+
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+
+            return (T) unmarshaller.unmarshal(xmlStreamReader);
+        } catch (JAXBException | XMLStreamException e) {
+            throw new PippoRuntimeException(e, "Failed to deserialize content to '{}'", classOfT.getName());
+        }
+    }
+
+    private Marshaller createMarshaller(Object object) throws JAXBException {
+        JAXBContext jaxbContext = JAXBContext.newInstance(object.getClass());
+        Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
+        jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, prettyPrint);
+
+        return jaxbMarshaller;
+    }
+
     /**
      * Create a new instance of the factory with some configurations.
      *
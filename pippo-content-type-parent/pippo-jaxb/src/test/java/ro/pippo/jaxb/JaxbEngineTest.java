@@ -22,7 +22,11 @@ import ro.pippo.core.util.IoUtils;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.isA;
@@ -87,6 +91,38 @@ public class JaxbEngineTest {
         assertThat(exception.getMessage(), startsWith("Failed to deserialize content to '"));
     }
 
+    @Test
+    public void test_read_BillionLaughsAttack() {
+        PippoRuntimeException exception = assertThrows(PippoRuntimeException.class, () -> {
+            try (InputStream input = getClass().getResourceAsStream("/attack_BillionLaughsAttack.xml")) {
+                jaxbEngine.read(input, Person.class);
+            }
+        });
+
+        assertThat(exception.getMessage(), startsWith("Failed to deserialize content to '"));
+    }
+
+    @Test
+    public void test_writeAndRead() throws IOException {
+        Person person = new Person();
+        person.name = "Pippo";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jaxbEngine.write(person, output);
+
+        Person p = jaxbEngine.read(new ByteArrayInputStream(output.toByteArray()), Person.class);
+        assertEquals("Pippo", p.name);
+    }
+
+    @Test
+    public void test_read_decodedLatin1() throws IOException {
+        String payload = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><PERSON><NAME>café</NAME></PERSON>";
+
+        // a body that is not UTF-8 encoded is given decoded, the declared encoding must not be applied again
+        Person p = jaxbEngine.read(new StringReader(payload), Person.class);
+        assertEquals("café", p.name);
+    }
+
     @XmlRootElement(name = "PERSON")
     public static class Person {
 
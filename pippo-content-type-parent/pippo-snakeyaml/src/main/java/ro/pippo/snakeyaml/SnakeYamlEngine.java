@@ -21,6 +21,13 @@ import ro.pippo.core.Application;
 import ro.pippo.core.ContentTypeEngine;
 import ro.pippo.core.HttpConstants;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * An YAML content-type engine based on SnakeYAML.
  *
@@ -50,4 +57,21 @@ public class SnakeYamlEngine implements ContentTypeEngine {
         return new Yaml().loadAs(content, classOfT);
     }
 
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        write(object, writer);
+        writer.flush();
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        new Yaml().dump(object, writer);
+    }
+
+    @Override
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        return new Yaml().loadAs(input, classOfT);
+    }
+
 }
@@ -22,6 +22,12 @@ import ro.pippo.core.ContentTypeEngine;
 import ro.pippo.core.HttpConstants;
 import ro.pippo.core.util.WhitelistObjectInputStream;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
 /**
  * An XmlEngine based on XStream.
  *
@@ -69,4 +75,26 @@ public class XstreamEngine implements ContentTypeEngine {
         return (T) xstream().fromXML(content);
     }
 
+    @Override
+    public void write(Object object, OutputStream output) throws IOException {
+        xstream().toXML(object, output);
+    }
+
+    @Override
+    public void write(Object object, Writer writer) throws IOException {
+        xstream().toXML(object, writer);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        return (T) xstream().fromXML(input);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T read(Reader reader, Class<T> classOfT) throws IOException {
+        return (T) xstream().fromXML(reader);
+    }
+
 }
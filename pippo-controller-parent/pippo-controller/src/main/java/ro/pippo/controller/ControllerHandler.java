@@ -17,6 +17,7 @@ package ro.pippo.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ro.pippo.controller.extractor.ExtractionPlan;
 import ro.pippo.controller.extractor.MethodParameterExtractor;
 import ro.pippo.controller.util.ClassUtils;
 import ro.pippo.controller.util.ControllerUtils;
@@ -36,7 +37,6 @@ import ro.pippo.core.util.StringUtils;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -59,6 +59,8 @@ public class ControllerHandler implements RouteHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ControllerHandler.class);
 
+    private static final Object[] NO_VALUES = new Object[0];
+
     private final Class<? extends Controller> controllerClass;
     private final Method controllerMethod;
 
@@ -71,6 +73,9 @@ public class ControllerHandler implements RouteHandler {
     private List<RouteHandler<?>> interceptors;
     private List<MethodParameterExtractor> availableExtractors;
     private MethodParameterExtractor[] extractors;
+    private MethodParameter[] parameters;
+    private ExtractionPlan[] extractionPlans;
+    private final MethodInvoker invoker;
 
     private Controller controller;
 
@@ -89,6 +94,8 @@ public class ControllerHandler implements RouteHandler {
 
         initInterceptors();
         initExtractors();
+
+        this.invoker = MethodInvoker.create(controllerMethod);
     }
 
     @Override
@@ -129,7 +136,7 @@ public class ControllerHandler implements RouteHandler {
             specifyCacheControls(routeContext);
             specifyContentType(routeContext);
 
-            Object result = controllerMethod.invoke(controller, values);
+            Object result = invoke(controller, values);
 
             if (routeContext.getResponse().isCommitted()) {
                 log.debug("Response committed in {}", LangUtils.toString(controllerMethod));
@@ -230,12 +237,14 @@ public class ControllerHandler implements RouteHandler {
     }
 
     /**
-     * Init extractors from controller method.
+     * Init extractors and their extraction plans from controller method.
      */
     protected void initExtractors() {
-        Parameter[] parameters = controllerMethod.getParameters();
-        extractors = new MethodParameterExtractor[parameters.length];
-        for (int i = 0; i < parameters.length; i++) {
+        int count = controllerMethod.getParameterCount();
+        extractors = new MethodParameterExtractor[count];
+        parameters = new MethodParameter[count];
+        extractionPlans = new ExtractionPlan[count];
+        for (int i = 0; i < count; i++) {
             MethodParameter parameter = new MethodParameter(controllerMethod, i);
             MethodParameterExtractor extractor = getMethodParameterExtractors().stream()
                 .filter(e -> e.isApplicable(parameter))
@@ -249,6 +258,9 @@ public class ControllerHandler implements RouteHandler {
             }
 
             extractors[i] = extractor;
+            parameters[i] = parameter;
+            // the annotations, names and types are resolved once, here
+            extractionPlans[i] = extractor.prepare(parameter);
         }
     }
 
@@ -403,19 +415,16 @@ public class ControllerHandler implements RouteHandler {
     }
 
     protected Object[] prepareMethodParameters(RouteContext routeContext) {
-        Parameter[] parameters = controllerMethod.getParameters();
-
         if (parameters.length == 0) {
-            return new Object[0];
+            return NO_VALUES;
         }
 
         Object[] values = new Object[parameters.length];
         for (int i = 0; i < values.length; i++) {
-            MethodParameter parameter = new MethodParameter(controllerMethod, i);
+            MethodParameter parameter = parameters[i];
             Class<?> type = parameter.getParameterType();
 
-            MethodParameterExtractor extractor = extractors[i];
-            Object value = extractor.extract(parameter, routeContext);
+            Object value = extractionPlans[i].extract(routeContext);
 
             if (value == null || ClassUtils.isAssignable(value, type)) {
                 values[i] = value;
@@ -429,6 +438,19 @@ public class ControllerHandler implements RouteHandler {
         return values;
     }
 
+    /**
+     * Invokes the controller method with a generated invoker (see {@link MethodInvoker}).
+     *
+     * @throws InvocationTargetException if the controller method throws an exception
+     */
+    protected Object invoke(Controller controller, Object[] values) throws InvocationTargetException {
+        try {
+            return invoker.invoke(controller, values);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
     /**
      * Specify Response cache controls.
      *
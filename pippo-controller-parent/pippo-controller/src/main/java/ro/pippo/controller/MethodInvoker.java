@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.controller;
+
+import org.slf4j.LoggerFactory;
+import ro.pippo.core.PippoRuntimeException;
+import ro.pippo.core.util.LangUtils;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Invokes a controller method without {@link Method#invoke(Object, Object...)}.
+ * For a method with up to three parameters a class that calls the method directly is generated
+ * with {@link LambdaMetafactory}; the other methods go through a {@link MethodHandle}.
+ * The exceptions thrown by the method are not wrapped.
+ */
+@FunctionalInterface
+interface MethodInvoker {
+
+    Object invoke(Object target, Object[] args) throws Throwable;
+
+    /**
+     * Returns {@code true} if the method is called from a generated class,
+     * {@code false} if it goes through a {@link MethodHandle}.
+     */
+    default boolean isGenerated() {
+        return !(this instanceof MethodHandleInvoker);
+    }
+
+    static MethodInvoker create(Method method) {
+        MethodHandles.Lookup lookup;
+        MethodHandle handle;
+        try {
+            // a lookup in the controller class, so the generated class is defined in its class loader
+            lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new PippoRuntimeException(e, "Cannot access '{}'", LangUtils.toString(method));
+        }
+
+        if (!Modifier.isStatic(method.getModifiers()) && method.getParameterCount() <= 3) {
+            try {
+                return generate(lookup, handle, method);
+            } catch (Throwable t) {
+                LoggerFactory.getLogger(MethodInvoker.class).warn("Cannot generate an invoker for '{}', use a method handle",
+                    LangUtils.toString(method), t);
+            }
+        }
+
+        MethodHandle invoker = handle.asSpreader(Object[].class, method.getParameterCount());
+        if (Modifier.isStatic(method.getModifiers())) {
+            invoker = MethodHandles.dropArguments(invoker, 0, Object.class);
+        }
+
+        return new MethodHandleInvoker(invoker.asType(MethodType.methodType(Object.class, Object.class, Object[].class)));
+    }
+
+    private static MethodInvoker generate(MethodHandles.Lookup lookup, MethodHandle handle, Method method) throws Throwable {
+        int count = method.getParameterCount();
+        boolean isVoid = method.getReturnType() == void.class;
+        Class<?> functionType = isVoid
+            ? new Class<?>[] { VoidFunction0.class, VoidFunction1.class, VoidFunction2.class, VoidFunction3.class }[count]
+            : new Class<?>[] { Function0.class, Function1.class, Function2.class, Function3.class }[count];
+        Class<?>[] parameterTypes = new Class<?>[count + 1];
+        Arrays.fill(parameterTypes, Object.class);
+        MethodType samType = MethodType.methodType(isVoid ? void.class : Object.class, parameterTypes);
+        // the types of the method, boxed, so that the generated class casts and unboxes the arguments
+        MethodType instantiatedType = handle.type().wrap().changeReturnType(isVoid ? void.class : Object.class);
+
+        Object function = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(functionType),
+            samType, handle, instantiatedType).getTarget().invoke();
+
+        switch (count) {
+            case 0:
+                if (isVoid) {
+                    VoidFunction0 f = (VoidFunction0) function;
+                    return (target, args) -> {
+                        f.invoke(target);
+                        return null;
+                    };
+                }
+                Function0 f0 = (Function0) function;
+                return (target, args) -> f0.invoke(target);
+            case 1:
+                if (isVoid) {
+                    VoidFunction1 f = (VoidFunction1) function;
+                    return (target, args) -> {
+                        f.invoke(target, args[0]);
+                        return null;
+                    };
+                }
+                Function1 f1 = (Function1) function;
+                return (target, args) -> f1.invoke(target, args[0]);
+            case 2:
+                if (isVoid) {
+                    VoidFunction2 f = (VoidFunction2) function;
+                    return (target, args) -> {
+                        f.invoke(target, args[0], args[1]);
+                        return null;
+                    };
+                }
+                Function2 f2 = (Function2) function;
+                return (target, args) -> f2.invoke(target, args[0], args[1]);
+            default:
+                if (isVoid) {
+                    VoidFunction3 f = (VoidFunction3) function;
+                    return (target, args) -> {
+                        f.invoke(target, args[0], args[1], args[2]);
+                        return null;
+                    };
+                }
+                Function3 f3 = (Function3) function;
+                return (target, args) -> f3.invoke(target, args[0], args[1], args[2]);
+        }
+    }
+
+    /**
+     * Invokes the method through a method handle that takes the target and the arguments array.
+     */
+    final class MethodHandleInvoker implements MethodInvoker {
+
+        private final MethodHandle handle;
+
+        private MethodHandleInvoker(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            return handle.invokeExact(target, args);
+        }
+
+    }
+
+    /*
+     * The interfaces implemented by the generated classes, by number of parameters.
+     * They are public (the generated class is defined next to the controller class).
+     */
+
+    interface Function0 {
+
+        Object invoke(Object target) throws Throwable;
+
+    }
+
+    interface Function1 {
+
+        Object invoke(Object target, Object arg0) throws Throwable;
+
+    }
+
+    interface Function2 {
+
+        Object invoke(Object target, Object arg0, Object arg1) throws Throwable;
+
+    }
+
+    interface Function3 {
+
+        Object invoke(Object target, Object arg0, Object arg1, Object arg2) throws Throwable;
+
+    }
+
+    interface VoidFunction0 {
+
+        void invoke(Object target) throws Throwable;
+
+    }
+
+    interface VoidFunction1 {
+
+        void invoke(Object target, Object arg0) throws Throwable;
+
+    }
+
+    interface VoidFunction2 {
+
+        void invoke(Object target, Object arg0, Object arg1) throws Throwable;
+
+    }
+
+    interface VoidFunction3 {
+
+        void invoke(Object target, Object arg0, Object arg1, Object arg2) throws Throwable;
+
+    }
+
+}
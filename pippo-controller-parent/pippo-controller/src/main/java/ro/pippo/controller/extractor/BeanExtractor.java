@@ -33,9 +33,14 @@ public class BeanExtractor implements MethodParameterExtractor {
 
     @Override
     public Object extract(MethodParameter parameter, RouteContext routeContext) {
+        return prepare(parameter).extract(routeContext);
+    }
+
+    @Override
+    public ExtractionPlan prepare(MethodParameter parameter) {
         Class<?> parameterType = parameter.getParameterType();
 
-        return routeContext.createEntityFromParameters(parameterType);
+        return routeContext -> routeContext.createEntityFromParameters(parameterType);
     }
 
 }
@@ -34,17 +34,22 @@ public class BodyExtractor implements MethodParameterExtractor {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object extract(MethodParameter parameter, RouteContext routeContext) {
+        return prepare(parameter).extract(routeContext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExtractionPlan prepare(MethodParameter parameter) {
         Class<?> parameterType = parameter.getParameterType();
         if (Collection.class.isAssignableFrom(parameterType)) {
             Class<? extends Collection> collectionType = (Class<? extends Collection>) parameterType;
 
             // TODO improve body collection support
-            return routeContext.createEntityFromBody(collectionType);
+            return routeContext -> routeContext.createEntityFromBody(collectionType);
         }
 
-        return routeContext.createEntityFromBody(parameterType);
+        return routeContext -> routeContext.createEntityFromBody(parameterType);
     }
 
 }
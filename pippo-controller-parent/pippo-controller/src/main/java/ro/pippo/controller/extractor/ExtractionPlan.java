@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.controller.extractor;
+
+import ro.pippo.controller.MethodParameter;
+import ro.pippo.core.route.RouteContext;
+
+/**
+ * Extracts the value of a method parameter, with everything that doesn't depend on the request
+ * (annotation, name, type, pattern) resolved in advance.
+ *
+ * @see MethodParameterExtractor#prepare(MethodParameter)
+ */
+@FunctionalInterface
+public interface ExtractionPlan {
+
+    Object extract(RouteContext routeContext);
+
+}
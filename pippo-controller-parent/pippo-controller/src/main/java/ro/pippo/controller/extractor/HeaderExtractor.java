@@ -38,23 +38,30 @@ public class HeaderExtractor implements MethodParameterExtractor {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object extract(MethodParameter parameter, RouteContext routeContext) {
+        return prepare(parameter).extract(routeContext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExtractionPlan prepare(MethodParameter parameter) {
         Header annotation = parameter.getAnnotation(Header.class);
         String name = getParameterName(parameter, annotation);
         String pattern = annotation.pattern();
 
-        ParameterValue parameterValue = new ParameterValue(routeContext.getRequest().getLocale(), routeContext.getHeader(name));
-
         Class<?> parameterType = parameter.getParameterType();
         if (Collection.class.isAssignableFrom(parameterType)) {
             Class<? extends Collection> collectionType = (Class<? extends Collection>) parameterType;
             Class<?> objectType = parameter.getParameterGenericType();
 
-            return parameterValue.toCollection(collectionType, objectType, pattern);
+            return routeContext -> getHeader(routeContext, name).toCollection(collectionType, objectType, pattern);
         }
 
-        return parameterValue.to(parameterType, pattern);
+        return routeContext -> getHeader(routeContext, name).to(parameterType, pattern);
+    }
+
+    private ParameterValue getHeader(RouteContext routeContext, String name) {
+        return new ParameterValue(routeContext.getRequest().getLocale(), routeContext.getHeader(name));
     }
 
     private String getParameterName(MethodParameter parameter, Header annotation) {
@@ -44,4 +44,16 @@ public interface MethodParameterExtractor {
      */
     Object extract(MethodParameter parameter, RouteContext routeContext);
 
+    /**
+     * Resolves once, when the controller method is registered, what {@link #extract(MethodParameter, RouteContext)}
+     * would look up for each request.
+     * The default implementation calls {@link #extract(MethodParameter, RouteContext)}.
+     *
+     * @param parameter
+     * @return the extraction plan of the parameter
+     */
+    default ExtractionPlan prepare(MethodParameter parameter) {
+        return routeContext -> extract(parameter, routeContext);
+    }
+
 }
@@ -18,7 +18,6 @@ package ro.pippo.controller.extractor;
 import org.kohsuke.MetaInfServices;
 import ro.pippo.controller.MethodParameter;
 import ro.pippo.core.FileItem;
-import ro.pippo.core.ParameterValue;
 import ro.pippo.core.PippoRuntimeException;
 import ro.pippo.core.route.RouteContext;
 import ro.pippo.core.util.LangUtils;
@@ -39,25 +38,28 @@ public class ParamExtractor implements MethodParameterExtractor {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object extract(MethodParameter parameter, RouteContext routeContext) {
+        return prepare(parameter).extract(routeContext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExtractionPlan prepare(MethodParameter parameter) {
         Param annotation = parameter.getAnnotation(Param.class);
         String name = getParameterName(parameter, annotation);
         String pattern = annotation.pattern();
 
-        ParameterValue parameterValue = routeContext.getParameter(name);
-
         Class<?> parameterType = parameter.getParameterType();
         if (Collection.class.isAssignableFrom(parameterType)) {
             Class<? extends Collection> collectionType = (Class<? extends Collection>) parameterType;
             Class<?> objectType = parameter.getParameterGenericType();
 
-            return parameterValue.toCollection(collectionType, objectType, pattern);
+            return routeContext -> routeContext.getParameter(name).toCollection(collectionType, objectType, pattern);
         } else if (FileItem.class.isAssignableFrom(parameterType)) {
-            return routeContext.getRequest().getFile(name);
+            return routeContext -> routeContext.getRequest().getFile(name);
         }
 
-        return parameterValue.to(parameterType, pattern);
+        return routeContext -> routeContext.getParameter(name).to(parameterType, pattern);
     }
 
     private String getParameterName(MethodParameter parameter, Param annotation) {
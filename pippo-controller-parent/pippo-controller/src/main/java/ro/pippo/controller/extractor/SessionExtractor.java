@@ -36,10 +36,15 @@ public class SessionExtractor implements MethodParameterExtractor {
 
     @Override
     public Object extract(MethodParameter parameter, RouteContext routeContext) {
+        return prepare(parameter).extract(routeContext);
+    }
+
+    @Override
+    public ExtractionPlan prepare(MethodParameter parameter) {
         Session annotation = parameter.getAnnotation(Session.class);
         String name = getParameterName(parameter, annotation);
 
-        return routeContext.getSession(name);
+        return routeContext -> routeContext.getSession(name);
     }
 
     private String getParameterName(MethodParameter parameter, Session annotation) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ro.pippo.controller.extractor.ExtractionPlan;
+import ro.pippo.controller.extractor.MethodParameterExtractor;
+import ro.pippo.controller.extractor.Param;
+import ro.pippo.controller.extractor.ParamExtractor;
+import ro.pippo.core.ParameterValue;
+import ro.pippo.core.route.RouteContext;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective invocation of a controller method (a {@link MethodParameter} and the annotation
+ * lookups for each request, then {@link Method#invoke(Object, Object...)}) with the extraction plans
+ * and the generated invoker used by {@link ControllerHandler}.
+ *
+ * Run it from the IDE (it has a main method) or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ro.pippo.controller.ControllerHandlerBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerHandlerBenchmark {
+
+    private BenchmarkController controller;
+    private Method method;
+    private RouteContext routeContext;
+    private MethodParameterExtractor extractor;
+
+    private ExtractionPlan[] extractionPlans;
+    private MethodInvoker invoker;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        controller = new BenchmarkController();
+        method = BenchmarkController.class.getMethod("hello", String.class, int.class);
+        routeContext = stubRouteContext();
+        extractor = new ParamExtractor();
+
+        extractionPlans = new ExtractionPlan[method.getParameterCount()];
+        for (int i = 0; i < extractionPlans.length; i++) {
+            extractionPlans[i] = extractor.prepare(new MethodParameter(method, i));
+        }
+        invoker = MethodInvoker.create(method);
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        Object[] values = new Object[method.getParameterCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = extractor.extract(new MethodParameter(method, i), routeContext);
+        }
+
+        return method.invoke(controller, values);
+    }
+
+    @Benchmark
+    public Object generated() throws Throwable {
+        Object[] values = new Object[extractionPlans.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = extractionPlans[i].extract(routeContext);
+        }
+
+        return invoker.invoke(controller, values);
+    }
+
+    @Benchmark
+    public Object reflectiveInvokeOnly() throws Exception {
+        return method.invoke(controller, "pippo", 10);
+    }
+
+    @Benchmark
+    public Object generatedInvokeOnly() throws Throwable {
+        return invoker.invoke(controller, new Object[] { "pippo", 10 });
+    }
+
+    private static RouteContext stubRouteContext() {
+        ParameterValue name = new ParameterValue("pippo");
+        ParameterValue age = new ParameterValue("10");
+
+        return (RouteContext) Proxy.newProxyInstance(RouteContext.class.getClassLoader(), new Class<?>[] { RouteContext.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("getParameter")) {
+                    return "name".equals(args[0]) ? name : age;
+                }
+
+                return null;
+            });
+    }
+
+    public static class BenchmarkController extends Controller {
+
+        public String hello(@Param("name") String name, @Param("age") int age) {
+            return name;
+        }
+
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ControllerHandlerBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodInvokerTest {
+
+    @Test
+    public void testInvoke() throws Throwable {
+        TestController controller = new TestController();
+
+        assertEquals("hello", invoker("hello").invoke(controller, new Object[0]));
+        assertEquals("a-2", invoker("concat", String.class, int.class).invoke(controller, new Object[] { "a", 2 }));
+        assertEquals(10L, invoker("sum", int.class, int.class, int.class, int.class)
+            .invoke(controller, new Object[] { 1, 2, 3, 4 }));
+    }
+
+    @Test
+    public void testGeneratedInvoker() throws Exception {
+        // up to three parameters the method is called from a generated class
+        assertTrue(invoker("hello").isGenerated());
+        assertTrue(invoker("concat", String.class, int.class).isGenerated());
+        assertTrue(invoker("store", String.class).isGenerated());
+        assertTrue(invoker("fail", RuntimeException.class).isGenerated());
+        assertFalse(invoker("sum", int.class, int.class, int.class, int.class).isGenerated());
+    }
+
+    @Test
+    public void testInvokeVoidMethod() throws Throwable {
+        TestController controller = new TestController();
+
+        assertNull(invoker("store", String.class).invoke(controller, new Object[] { "value" }));
+        assertEquals("value", controller.stored);
+    }
+
+    @Test
+    public void testExceptionIsNotWrapped() throws Exception {
+        IllegalStateException e = new IllegalStateException();
+        MethodInvoker invoker = invoker("fail", RuntimeException.class);
+
+        assertSame(e, assertThrows(IllegalStateException.class, () -> invoker.invoke(new TestController(), new Object[] { e })));
+    }
+
+    private static MethodInvoker invoker(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        Method method = TestController.class.getDeclaredMethod(name, parameterTypes);
+
+        return MethodInvoker.create(method);
+    }
+
+    public static class TestController extends Controller {
+
+        private String stored;
+
+        public String hello() {
+            return "hello";
+        }
+
+        public String concat(String value, int count) {
+            return value + "-" + count;
+        }
+
+        // more parameters than the generated invokers
+        public long sum(int a, int b, int c, int d) {
+            return a + b + c + d;
+        }
+
+        public void store(String value) {
+            stored = value;
+        }
+
+        void fail(RuntimeException e) {
+            throw e;
+        }
+
+    }
+
+}
@@ -15,16 +15,23 @@
  */
 package ro.pippo.core;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.pippo.core.util.VirtualThreadUtils;
+
 import jakarta.servlet.MultipartConfigElement;
 import java.util.EventListener;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Decebal Suiu
  */
 public abstract class AbstractWebServer<T extends WebServerSettings> implements WebServer<T> {
 
+    private static final Logger log = LoggerFactory.getLogger(AbstractWebServer.class);
+
     private PippoFilter pippoFilter;
     protected String pippoFilterPath;
 
@@ -131,4 +138,23 @@ public abstract class AbstractWebServer<T extends WebServerSettings> implements
                 getSettings().getUploadFileSizeThreshold());
     }
 
+    /**
+     * Returns a virtual thread per task executor for the request handling
+     * if {@link WebServerSettings#isVirtualThreads()} is on and the runtime has virtual threads, else {@code null}.
+     */
+    protected ExecutorService createVirtualThreadExecutor() {
+        if (!getSettings().isVirtualThreads()) {
+            return null;
+        }
+
+        if (!VirtualThreadUtils.isSupported()) {
+            log.warn("Virtual threads require Java 21 or later, using the platform threads of the server");
+            return null;
+        }
+
+        log.info("Handling the requests on virtual threads");
+
+        return VirtualThreadUtils.newVirtualThreadPerTaskExecutor();
+    }
+
 }
@@ -60,12 +60,15 @@ public class Application implements ResourceRouting {
     private Messages messages;
     private MimeTypes mimeTypes;
     private HttpCacheToolkit httpCacheToolkit;
+    private List<FileChannelTransfer> fileChannelTransfers;
     private TemplateEngine templateEngine;
     private ContentTypeEngines engines;
     private EntityRequestEngine entityRequestEngine;
     protected Router router;
     private ErrorHandler errorHandler;
     private RequestResponseFactory requestResponseFactory;
+    private int responseBufferSize = -1;
+    private long requestMaxBodySize = -1;
     private ServletContext servletContext;
 
     private List<Initializer> initializers;
@@ -88,6 +91,7 @@ public class Application implements ResourceRouting {
         this.messages = new Messages(languages);
         this.mimeTypes = new MimeTypes(settings);
         this.httpCacheToolkit = new HttpCacheToolkit(settings);
+        this.fileChannelTransfers = ServiceLocator.locateAll(FileChannelTransfer.class);
         this.engines = new ContentTypeEngines();
         this.initializers = new ArrayList<>();
         this.webSocketRouter = new WebSocketRouter();
@@ -174,6 +178,14 @@ public class Application implements ResourceRouting {
         return httpCacheToolkit;
     }
 
+    /**
+     * Returns the file transfers (zero-copy) used by the file responses.
+     * The list contains the {@link FileChannelTransfer} services and it can be modified.
+     */
+    public List<FileChannelTransfer> getFileChannelTransfers() {
+        return fileChannelTransfers;
+    }
+
     /**
      * Registers a template engine if no other engine has been registered.
      *
@@ -236,7 +248,9 @@ public class Application implements ResourceRouting {
 
     public Router getRouter() {
         if (router == null) {
-            router = new DefaultRouter();
+            DefaultRouter defaultRouter = new DefaultRouter();
+            defaultRouter.setRouteMatchCacheSize(pippoSettings.getInteger(PippoConstants.SETTING_ROUTER_MATCH_CACHE_SIZE, 0));
+            router = defaultRouter;
         }
 
         return router;
@@ -282,11 +296,50 @@ public class Application implements ResourceRouting {
     public final RequestResponseFactory getRequestResponseFactory() {
         if (requestResponseFactory == null) {
             requestResponseFactory = createRequestResponseFactory();
+            requestResponseFactory.setRecycling(isRecycling());
         }
 
         return requestResponseFactory;
     }
 
+    /**
+     * Returns {@code true} if each worker thread reuses its Request, Response and RouteContext instances
+     * (setting {@code application.recycling}).
+     * The recycling is off if the requests are dispatched on virtual threads (setting {@code application.virtualThreads}),
+     * because a virtual thread serves only one request.
+     */
+    public boolean isRecycling() {
+        return pippoSettings.getBoolean(PippoConstants.SETTING_APPLICATION_RECYCLING, false)
+            && !pippoSettings.getBoolean(PippoConstants.SETTING_APPLICATION_VIRTUAL_THREADS, false);
+    }
+
+    /**
+     * Returns the maximum size of a response body that is buffered to send it with a {@code Content-Length}
+     * (setting {@code response.bufferSize}, 32 KB by default). A bigger body is streamed.
+     */
+    public int getResponseBufferSize() {
+        if (responseBufferSize == -1) {
+            responseBufferSize = pippoSettings.getInteger(PippoConstants.SETTING_RESPONSE_BUFFER_SIZE,
+                Response.DEFAULT_BUFFER_SIZE);
+        }
+
+        return responseBufferSize;
+    }
+
+    /**
+     * Returns the maximum size of a request body read by {@link Request#getBody()} and the other body methods
+     * (setting {@code request.maxBodySize}, no limit by default). A bigger body is rejected with {@code 413}.
+     * Zero or a negative value disables the limit.
+     */
+    public long getRequestMaxBodySize() {
+        if (requestMaxBodySize == -1) {
+            requestMaxBodySize = Math.max(0, pippoSettings.getLong(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE,
+                Request.DEFAULT_MAX_BODY_SIZE));
+        }
+
+        return requestMaxBodySize;
+    }
+
     /**
      * Override this method if you want a custom RequestResponseFactory.
      *
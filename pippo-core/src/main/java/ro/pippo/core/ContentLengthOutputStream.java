@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes a response body to the servlet output stream.
+ * The first bytes are buffered (up to the buffer size) so that a small body is sent with a {@code Content-Length};
+ * a bigger body is streamed as it's written, without a copy of the whole body in memory.
+ */
+class ContentLengthOutputStream extends OutputStream {
+
+    private final HttpServletResponse response;
+    private final int bufferSize;
+
+    private byte[] buffer;
+    private int count;
+
+    // not null after the buffer overflowed
+    private OutputStream output;
+
+    private boolean closed;
+
+    ContentLengthOutputStream(HttpServletResponse response, int bufferSize) {
+        this.response = response;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        if (output == null) {
+            if (count + len <= bufferSize) {
+                ensureCapacity(count + len);
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+
+                return;
+            }
+
+            // too big, stream it
+            output = response.getOutputStream();
+            if (count > 0) {
+                output.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+
+        output.write(b, off, len);
+    }
+
+    /**
+     * Does nothing while the body is buffered.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (output != null) {
+            output.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (output == null) {
+            response.setContentLength(count);
+            output = response.getOutputStream();
+            if (count > 0) {
+                output.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+
+        output.close();
+    }
+
+    /**
+     * Drops the buffered bytes if the body wasn't streamed yet.
+     * The response stays uncommitted in that case.
+     */
+    void discard() {
+        if (output == null) {
+            closed = true;
+            buffer = null;
+            count = 0;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the body is written straight to the servlet output stream,
+     * so a part of it can already be sent and {@link #discard()} does nothing.
+     */
+    boolean isStreaming() {
+        return !closed && (output != null);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (buffer == null) {
+            buffer = new byte[Math.min(bufferSize, Math.max(minCapacity, 1024))];
+        } else if (minCapacity > buffer.length) {
+            int capacity = Math.min(bufferSize, Math.max(minCapacity, buffer.length * 2));
+            buffer = Arrays.copyOf(buffer, capacity);
+        }
+    }
+
+}
@@ -15,6 +15,15 @@
  */
 package ro.pippo.core;
 
+import ro.pippo.core.util.IoUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author James Moger
@@ -29,4 +38,46 @@ public interface ContentTypeEngine {
 
     <T> T fromString(String content, Class<T> classOfT);
 
+    /**
+     * Writes the object to the output stream, encoded as UTF-8.
+     * The default implementation goes through {@link #toString(Object)}; engines that can
+     * serialize directly to a stream should override it.
+     * The output stream is not closed.
+     */
+    default void write(Object object, OutputStream output) throws IOException {
+        output.write(toString(object).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the object to the writer.
+     * The default implementation goes through {@link #toString(Object)}; engines that can
+     * serialize directly to a writer should override it.
+     * The writer is not closed.
+     */
+    default void write(Object object, Writer writer) throws IOException {
+        writer.write(toString(object));
+    }
+
+    /**
+     * Reads an object from an UTF-8 encoded input stream.
+     * The default implementation goes through {@link #fromString(String, Class)}; engines that can
+     * deserialize directly from a stream should override it.
+     */
+    default <T> T read(InputStream input, Class<T> classOfT) throws IOException {
+        return fromString(IoUtils.toString(input), classOfT);
+    }
+
+    /**
+     * Reads an object from a character stream (a body that is not UTF-8 encoded is decoded
+     * with the charset of the request).
+     * The default implementation goes through {@link #fromString(String, Class)}; engines that can
+     * deserialize directly from a reader should override it.
+     */
+    default <T> T read(Reader reader, Class<T> classOfT) throws IOException {
+        StringWriter writer = new StringWriter();
+        IoUtils.copy(reader, writer);
+
+        return fromString(writer.toString(), classOfT);
+    }
+
 }
@@ -21,11 +21,14 @@ import org.slf4j.LoggerFactory;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,15 +48,20 @@ public class DefaultUriMatcher implements UriMatcher {
     private static final String VARIABLE_ROUTES_DEFAULT_REGEX = "(?<%s>[^/]+)";
 
     // This regex works for both {myParam} AND {myParam: .*}
-    private static final String VARIABLE_PART_PATTERN_WITH_PLACEHOLDER = "\\{(%s)(:\\s([^}]*))?\\}";
+    // group(1) extracts the name of the parameter
+    private static final Pattern VARIABLE_PART_PATTERN_WITH_PLACEHOLDER = Pattern.compile("\\{([^}]*?)(:\\s([^}]*))?\\}");
 
     private static final String PATH_PARAMETER_REGEX_GROUP_NAME_PREFIX = "param";
 
     // key = uri pattern
     private Map<String, UriPatternBinding> bindings;
 
+    // key = uri pattern
+    private Map<String, UriTemplate> templates;
+
     public DefaultUriMatcher() {
-        bindings = new HashMap<>();
+        bindings = new ConcurrentHashMap<>();
+        templates = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -64,7 +72,7 @@ public class DefaultUriMatcher implements UriMatcher {
             throw new PippoRuntimeException("No binding for '{}'. Create binding with 'addUriPattern'.", uriPattern);
         }
 
-        return binding.getPattern().matcher(requestUri).matches() ? getParameters(binding, requestUri) : null;
+        return binding.match(requestUri);
     }
 
     @Override
@@ -76,7 +84,13 @@ public class DefaultUriMatcher implements UriMatcher {
         String regex = getRegex(uriPattern);
         Pattern pattern = Pattern.compile(regex);
         List<String> parameterNames = getParameterNames(uriPattern);
-        UriPatternBinding binding = new UriPatternBinding(uriPattern, pattern, parameterNames);
+        int[] groupIndexes = getGroupIndexes(regex, parameterNames.size());
+        if (pattern.matcher("").groupCount() != groupIndexes[groupIndexes.length - 1]) {
+            throw new PippoRuntimeException("Cannot resolve the regex groups of '{}'", uriPattern);
+        }
+        UriPatternBinding binding = new UriPatternBinding(uriPattern, pattern, parameterNames,
+            Arrays.copyOf(groupIndexes, parameterNames.size()));
+        templates.put(uriPattern, new UriTemplate(uriPattern));
         bindings.put(uriPattern, binding);
         log.trace("Add binding '{}'", binding);
 
@@ -85,6 +99,8 @@ public class DefaultUriMatcher implements UriMatcher {
 
     @Override
     public UriPatternBinding removeUriPattern(String uriPattern) {
+        templates.remove(uriPattern);
+
         return bindings.remove(uriPattern);
     }
 
@@ -101,34 +117,33 @@ public class DefaultUriMatcher implements UriMatcher {
             log.error("You must provide values for all path parameters. {} vs {}", parameterNames, parameters.keySet());
         }
 
-        Map<String, Object> queryParameters = new HashMap<>(parameters.size());
-
-        // create a uri starting from uriPattern (that can contains path params placeholders)
-        String uri = binding.getUriPattern();
-
-        // replace path params placeholders from uri pattern
-        for (Map.Entry<String, Object> parameterPair : parameters.entrySet()) {
-            boolean foundAsPathParameter = false;
-
-            StringBuffer sb = new StringBuffer();
-            String regex = String.format(VARIABLE_PART_PATTERN_WITH_PLACEHOLDER, parameterPair.getKey());
-            Pattern pattern = Pattern.compile(regex);
-            Matcher matcher = pattern.matcher(uri);
-            while (matcher.find()) {
-                matcher.appendReplacement(sb, getPathParameterValue(uriPattern, parameterPair.getKey(), parameterPair.getValue()));
-                foundAsPathParameter = true;
+        // create a uri starting from uriPattern, with the values of path parameters in place of placeholders
+        UriTemplate template = templates.get(uriPattern);
+        StringBuilder uri = new StringBuilder(uriPattern.length() + 16);
+        for (int i = 0; i < template.names.length; i++) {
+            uri.append(template.literals[i]);
+            String name = template.names[i];
+            if (parameters.containsKey(name)) {
+                uri.append(getPathParameterValue(uriPattern, name, parameters.get(name)));
+            } else {
+                // no value, keep the placeholder
+                uri.append(template.placeholders[i]);
             }
+        }
+        uri.append(template.literals[template.names.length]);
 
-            matcher.appendTail(sb);
-            uri = sb.toString();
-
-            if (!foundAsPathParameter) {
+        Map<String, Object> queryParameters = null;
+        for (Map.Entry<String, Object> parameterPair : parameters.entrySet()) {
+            if (!template.nameSet.contains(parameterPair.getKey())) {
+                if (queryParameters == null) {
+                    queryParameters = new HashMap<>(parameters.size());
+                }
                 queryParameters.put(parameterPair.getKey(), parameterPair.getValue());
             }
         }
 
         // prepare the query string for this url if we got some query params
-        if (!queryParameters.isEmpty()) {
+        if (queryParameters != null) {
             // add remaining parameters as query parameters
             StringBuilder query = new StringBuilder();
             Iterator<Map.Entry<String, Object>> iterator = queryParameters.entrySet().iterator();
@@ -149,34 +164,78 @@ public class DefaultUriMatcher implements UriMatcher {
                 }
             }
 
-            uri += "?" + query;
+            uri.append('?').append(query);
         }
 
-        return uri;
+        return uri.toString();
     }
 
     protected String getPathParameterValue(String uriPattern, String parameterName, Object parameterValue) {
         return parameterValue.toString();
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, String> getParameters(UriPatternBinding binding, String requestUri) {
-        List<String> parameterNames = binding.getParameterNames();
-        if (parameterNames.isEmpty()) {
-            return Collections.EMPTY_MAP;
-        }
-
-        Map<String, String> parameters = new HashMap<>();
-        Matcher matcher = binding.getPattern().matcher(requestUri);
-        matcher.matches(); // always true
-        int groupCount = matcher.groupCount();
-        if (groupCount > 0) {
-            for (int i = 0; i < parameterNames.size(); i++) {
-                parameters.put(parameterNames.get(i), matcher.group(getPathParameterRegexGroupName(i)));
+    /**
+     * Finds the index of the group that captures each path parameter, so the values can be
+     * extracted by index from the first match.
+     * The custom regex of a path parameter or the uri pattern itself can contain capturing groups,
+     * so the groups are counted while walking the regex.
+     *
+     * @param regex
+     * @param parameterCount
+     * @return an array with {@code parameterCount + 1} items; the last one is the total number of groups
+     */
+    private int[] getGroupIndexes(String regex, int parameterCount) {
+        int[] groupIndexes = new int[parameterCount + 1];
+        int groupCount = 0;
+        int classDepth = 0;
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if ((i + 1 < length) && (regex.charAt(i + 1) == 'Q')) {
+                    // skip the quoted sequence
+                    int end = regex.indexOf("\\E", i + 2);
+                    i = (end == -1) ? length : end + 1;
+                } else {
+                    i++;
+                }
+            } else if (classDepth > 0) {
+                if (c == '[') {
+                    classDepth++;
+                } else if (c == ']') {
+                    classDepth--;
+                }
+            } else if (c == '[') {
+                classDepth++;
+                // a ']' right after '[' or '[^' is a literal
+                if ((i + 1 < length) && (regex.charAt(i + 1) == '^')) {
+                    i++;
+                }
+                if ((i + 1 < length) && (regex.charAt(i + 1) == ']')) {
+                    i++;
+                }
+            } else if (c == '(') {
+                if ((i + 1 < length) && (regex.charAt(i + 1) == '?')) {
+                    boolean namedGroup = regex.startsWith("(?<", i) && (i + 3 < length)
+                        && (regex.charAt(i + 3) != '=') && (regex.charAt(i + 3) != '!');
+                    if (namedGroup) {
+                        groupCount++;
+                        String name = regex.substring(i + 3, regex.indexOf('>', i + 3));
+                        for (int j = 0; j < parameterCount; j++) {
+                            if (name.equals(getPathParameterRegexGroupName(j))) {
+                                groupIndexes[j] = groupCount;
+                                break;
+                            }
+                        }
+                    }
+                } else {
+                    groupCount++;
+                }
             }
         }
+        groupIndexes[parameterCount] = groupCount;
 
-        return parameters;
+        return groupIndexes;
     }
 
     /**
@@ -264,4 +323,40 @@ public class DefaultUriMatcher implements UriMatcher {
         return list;
     }
 
+    /**
+     * An uri pattern split in literal parts and placeholders (slots) of path parameters.
+     * For example {@code /user/{id: [0-9]+}/edit} has the literals {@code /user/} and {@code /edit}
+     * and the slot {@code id}.
+     */
+    private static class UriTemplate {
+
+        // literals.length = names.length + 1
+        private final String[] literals;
+        private final String[] names;
+        private final String[] placeholders;
+        private final Set<String> nameSet;
+
+        UriTemplate(String uriPattern) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+
+            Matcher matcher = VARIABLE_PART_PATTERN_WITH_PLACEHOLDER.matcher(uriPattern);
+            int start = 0;
+            while (matcher.find()) {
+                literals.add(uriPattern.substring(start, matcher.start()));
+                names.add(matcher.group(1));
+                placeholders.add(matcher.group());
+                start = matcher.end();
+            }
+            literals.add(uriPattern.substring(start));
+
+            this.literals = literals.toArray(new String[0]);
+            this.names = names.toArray(new String[0]);
+            this.placeholders = placeholders.toArray(new String[0]);
+            this.nameSet = new HashSet<>(names);
+        }
+
+    }
+
 }
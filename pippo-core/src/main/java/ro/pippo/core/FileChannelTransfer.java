@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a region of a file to the response output stream without copying it through a {@code byte[]}
+ * (for example with the sendfile support of the servlet container).
+ * The implementations are discovered with {@link ro.pippo.core.util.ServiceLocator}.
+ * If no implementation supports the output stream, the file is copied with a pooled buffer.
+ */
+public interface FileChannelTransfer {
+
+    /**
+     * Writes {@code count} bytes of the file starting at {@code position} to the output stream.
+     *
+     * @return {@code false} if the output stream is not supported (nothing was written)
+     */
+    boolean transfer(FileChannel channel, long position, long count, OutputStream output) throws IOException;
+
+}
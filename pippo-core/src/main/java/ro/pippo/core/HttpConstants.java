@@ -53,6 +53,7 @@ public final class HttpConstants {
         public static final int ACCEPTED = 202;
         public static final int PARTIAL_INFO = 203;
         public static final int NO_RESPONSE = 204;
+        public static final int PARTIAL_CONTENT = 206;
         public static final int MOVED = 301;
         public static final int FOUND = 302;
         public static final int METHOD = 303;
@@ -65,6 +66,8 @@ public final class HttpConstants {
         public static final int METHOD_NOT_ALLOWED = 405;
         public static final int CONFLICT = 409;
         public static final int GONE = 410;
+        public static final int PAYLOAD_TOO_LARGE = 413;
+        public static final int REQUESTED_RANGE_NOT_SATISFIABLE = 416;
         public static final int TOO_MANY_REQUESTS = 429;
         public static final int INTERNAL_ERROR = 500;
         public static final int NOT_IMPLEMENTED = 501;
@@ -84,6 +87,7 @@ public final class HttpConstants {
         public static final String ACCEPT_CHARSET = "Accept-Charset";
         public static final String ACCEPT_ENCODING = "Accept-Encoding";
         public static final String ACCEPT_LANGUAGE = "Accept-Language";
+        public static final String ACCEPT_RANGES = "Accept-Ranges";
         public static final String ACCEPT_DATETIME = "Accept-Datetime";
         public static final String AUTHORIZATION = "Authorization";
         public static final String PRAGMA = "Pragma";
@@ -92,22 +96,28 @@ public final class HttpConstants {
         public static final String CONTENT_TYPE = "Content-Type";
         public static final String CONTENT_LENGTH = "Content-Length";
         public static final String CONTENT_MD5 = "Content-MD5";
+        public static final String CONTENT_RANGE = "Content-Range";
         public static final String CONTENT_DISPOSITION = "Content-Disposition";
+        public static final String CONTENT_ENCODING = "Content-Encoding";
         public static final String DATE = "Date";
         public static final String ETAG = "Etag";
         public static final String IF_MATCH = "If-Match";
         public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
         public static final String IF_NONE_MATCH = "If-None-Match";
+        public static final String IF_RANGE = "If-Range";
         public static final String USER_AGENT = "User-Agent";
         public static final String HOST = "Host";
         public static final String LAST_MODIFIED = "Last-Modified";
         public static final String LOCATION = "Location";
+        public static final String RANGE = "Range";
+        public static final String VARY = "Vary";
         public static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
         public static final String ACCESS_CONTROL_ALLOW_METHODS = "Access-Control-Allow-Methods";
         public static final String ACCESS_CONTROL_ALLOW_HEADERS = "Access-Control-Allow-Headers";
         public static final String ACCESS_CONTROL_EXPOSE_HEADERS = "Access-Control-Expose-Headers";
         public static final String ACCESS_CONTROL_MAX_AGE = "Access-Control-Max-Age";
         public static final String ACCESS_CONTROL_ALLOW_CREDENTIALS = "Access-Control-Allow-Credentials";
+        public static final String LAST_EVENT_ID = "Last-Event-ID";
 
         private Header() {
             // restrict instantiation
@@ -121,11 +131,14 @@ public final class HttpConstants {
         public static final String APPLICATION_JSON = "application/json";
         public static final String APPLICATION_XML = "application/xml";
         public static final String APPLICATION_X_YAML = "application/x-yaml";
+        public static final String APPLICATION_X_NDJSON = "application/x-ndjson";
         public static final String TEXT_HTML = "text/html";
         public static final String TEXT_XHTML = "text/xhtml";
         public static final String TEXT_PLAIN = "text/plain";
+        public static final String TEXT_EVENT_STREAM = "text/event-stream";
         public static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
         public static final String MULTIPART_FORM_DATA = "multipart/form-data";
+        public static final String MULTIPART_BYTERANGES = "multipart/byteranges";
 
         private ContentType() {
             // restrict instantiation
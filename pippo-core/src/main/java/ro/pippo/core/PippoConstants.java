@@ -75,6 +75,8 @@ public final class PippoConstants {
 
     public static final String SETTING_SERVER_TRUSTSTORE_PASSWORD = "server.truststorePassword";
 
+    public static final String SETTING_SERVER_VIRTUAL_THREADS = "server.virtualThreads";
+
     public static final String SETTING_UPLOAD_MAX_FILE_SIZE = "upload.maxFileSize";
 
     public static final String SETTING_UPLOAD_LOCATION = "upload.location";
@@ -87,6 +89,26 @@ public final class PippoConstants {
 
     public static final String SETTING_TEMPLATE_EXTENSION = "template.extension";
 
+    public static final String SETTING_ROUTER_MATCH_CACHE_SIZE = "router.matchCacheSize";
+
+    public static final String SETTING_APPLICATION_RECYCLING = "application.recycling";
+
+    public static final String SETTING_APPLICATION_VIRTUAL_THREADS = "application.virtualThreads";
+
+    public static final String SETTING_GZIP_BUFFER_SIZE = "gzip.bufferSize";
+
+    public static final String SETTING_GZIP_MIN_SIZE = "gzip.minSize";
+
+    public static final String SETTING_GZIP_LEVEL = "gzip.level";
+
+    public static final String SETTING_GZIP_MIME_TYPES = "gzip.mimeTypes";
+
+    public static final String SETTING_RESPONSE_BUFFER_SIZE = "response.bufferSize";
+
+    public static final String SETTING_REQUEST_MAX_BODY_SIZE = "request.maxBodySize";
+
+    public static final String SETTING_REQUEST_ASYNC_TIMEOUT = "request.asyncTimeout";
+
     // OTHERS
 
     public static final String UTF8 = StandardCharsets.UTF_8.toString();
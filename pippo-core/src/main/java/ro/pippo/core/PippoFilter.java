@@ -32,7 +32,6 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.net.URI;
 import java.util.Collection;
 
 /**
@@ -131,26 +130,30 @@ public class PippoFilter implements Filter {
         Request request = requestResponse.getRequest();
         Response response = requestResponse.getResponse();
 
-        // create a URI to automatically decode the path
-        URI uri = URI.create(httpServletRequest.getRequestURL().toString());
-        String requestUri = uri.getPath();
-        String requestPath = request.getPath();
+        try {
+            String requestPath = request.getPath();
 
-        log.trace("The relative path for '{}' is '{}'", requestUri, requestPath);
+            log.trace("The relative path for '{}' is '{}'", request.getUri(), requestPath);
 
-        // check for ignore path
-        if (shouldIgnorePath(requestPath)) {
-            log.debug("Ignoring request '{}'", requestPath);
-            if (chain != null) {
-                chain.doFilter(servletRequest, servletResponse);
-            }
+            // check for ignore path
+            // evaluated once per request; RouteDispatcher reuses the result
+            boolean ignoredPath = shouldIgnorePath(requestPath);
+            request.internalSetIgnoredPath(ignoredPath);
+            if (ignoredPath) {
+                log.debug("Ignoring request '{}'", requestPath);
+                if (chain != null) {
+                    chain.doFilter(servletRequest, servletResponse);
+                }
 
-            return;
-        }
+                return;
+            }
 
-        log.debug("Request {} '{}'", request.getMethod(), requestPath);
+            log.debug("Request {} '{}'", request.getMethod(), requestPath);
 
-        processRequest(request, response);
+            processRequest(request, response);
+        } finally {
+            requestResponseFactory.release(requestResponse);
+        }
     }
 
     public Application getApplication() {
@@ -163,6 +166,10 @@ public class PippoFilter implements Filter {
 
     @Override
     public void destroy() {
+        if (routeDispatcher != null) {
+            routeDispatcher.destroy();
+        }
+
         if (application != null) {
             try {
                 application.destroy();
@@ -204,13 +211,7 @@ public class PippoFilter implements Filter {
     }
 
     private boolean shouldIgnorePath(String requestUri) {
-        for (String path : application.getRouter().getIgnorePaths()) {
-            if (requestUri.startsWith(path)) {
-                return true;
-            }
-        }
-
-        return false;
+        return application.getRouter().isIgnoredPath(requestUri);
     }
 
     private void initFilterPath(FilterConfig filterConfig) {
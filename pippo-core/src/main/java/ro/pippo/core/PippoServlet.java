@@ -30,7 +30,6 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.net.URI;
 
 /**
  * @author James Moger
@@ -120,21 +119,26 @@ public class PippoServlet extends HttpServlet {
         Request request = requestResponse.getRequest();
         Response response = requestResponse.getResponse();
 
-        // create a URI to automatically decode the path
-        URI uri = URI.create(httpServletRequest.getRequestURL().toString());
-        String requestUri = uri.getPath();
         String requestPath = request.getPath();
 
-        log.trace("The relative path for '{}' is '{}'", requestUri, requestPath);
+        log.trace("The relative path for '{}' is '{}'", request.getUri(), requestPath);
 
         log.debug("Request {} '{}'", request.getMethod(), requestPath);
 
-        // dispatch route(s)
-        routeDispatcher.dispatch(request, response);
+        try {
+            // dispatch route(s)
+            routeDispatcher.dispatch(request, response);
+        } finally {
+            requestResponseFactory.release(requestResponse);
+        }
     }
 
     @Override
     public void destroy() {
+        if (routeDispatcher != null) {
+            routeDispatcher.destroy();
+        }
+
         if (application != null) {
             try {
                 application.destroy();
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the items of a {@link Flow.Publisher} to a servlet output stream in non-blocking mode.
+ * An item is requested only when the output is ready to take it, so at most one encoded item is kept in memory
+ * and a slow client slows down the publisher.
+ * The publisher thread ({@link #onNext(Object)}) and the container thread ({@link WriteListener}) only signal;
+ * the writes happen in {@link #drain()}, which runs on one thread at a time.
+ */
+class PublisherWriter implements Flow.Subscriber<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(PublisherWriter.class);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ServletOutputStream output;
+    private final StreamFormat format;
+    private final ContentTypeEngine engine;
+    private final Charset charset;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription subscription;
+    private volatile byte[] pending;
+    private volatile boolean requested;
+    // the closing bytes, not null after the publisher completed
+    private volatile byte[] end;
+    private volatile Throwable error;
+
+    // used only by the publisher thread
+    private boolean first = true;
+
+    // used only in drain()
+    private boolean dirty;
+    private boolean finished;
+
+    PublisherWriter(ServletOutputStream output, StreamFormat format, ContentTypeEngine engine, Charset charset) {
+        this.output = output;
+        this.format = format;
+        this.engine = engine;
+        this.charset = charset;
+    }
+
+    /**
+     * Subscribes to the publisher and returns a future that completes when the last item was written.
+     * Cancelling the future cancels the subscription.
+     */
+    CompletableFuture<Void> subscribe(Flow.Publisher<?> publisher) {
+        completion.whenComplete((result, e) -> {
+            if (e != null) {
+                Flow.Subscription s = subscription;
+                if (s != null) {
+                    s.cancel();
+                }
+            }
+        });
+
+        output.setWriteListener(new WriteListener() {
+
+            @Override
+            public void onWritePossible() {
+                drain();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                // the client is gone
+                error = throwable;
+                drain();
+            }
+
+        });
+        publisher.subscribe(this);
+
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || completion.isDone()) {
+            subscription.cancel();
+            return;
+        }
+
+        this.subscription = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(Object item) {
+        try {
+            pending = encode(item);
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+        requested = false;
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        if (format == StreamFormat.JSON_ARRAY) {
+            end = first ? "[]".getBytes(StandardCharsets.UTF_8) : "]".getBytes(StandardCharsets.UTF_8);
+        } else {
+            end = EMPTY;
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            // the thread in drain() makes another pass
+            return;
+        }
+
+        int missed = 1;
+        do {
+            try {
+                write();
+            } catch (IOException | RuntimeException e) {
+                finish(e);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void write() throws IOException {
+        while (!finished) {
+            if (completion.isDone()) {
+                // cancelled
+                finished = true;
+                return;
+            }
+
+            Throwable failure = error;
+            if (failure != null) {
+                finish(failure);
+                return;
+            }
+
+            if (subscription == null) {
+                return;
+            }
+
+            // when isReady() returns false, the container calls onWritePossible() as soon as the output is ready
+            byte[] chunk = pending;
+            if (chunk != null) {
+                if (!output.isReady()) {
+                    return;
+                }
+                pending = null;
+                output.write(chunk);
+                dirty = true;
+            } else if (end != null) {
+                if (!output.isReady()) {
+                    return;
+                }
+                output.write(end);
+                finish(null);
+            } else if (!requested) {
+                if (!output.isReady()) {
+                    return;
+                }
+                requested = true;
+                subscription.request(1);
+            } else if (dirty) {
+                // waiting for the next item, send what was written so far
+                if (!output.isReady()) {
+                    return;
+                }
+                dirty = false;
+                output.flush();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void finish(Throwable failure) {
+        finished = true;
+        pending = null;
+        if (failure == null) {
+            completion.complete(null);
+        } else {
+            log.debug("Streaming failed", failure);
+            completion.completeExceptionally(failure);
+        }
+    }
+
+    private byte[] encode(Object item) throws IOException {
+        if (format == StreamFormat.RAW && item instanceof byte[]) {
+            return (byte[]) item;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        if (format == StreamFormat.JSON_ARRAY) {
+            buffer.write(first ? '[' : ',');
+        }
+        first = false;
+
+        if (item instanceof byte[]) {
+            buffer.write((byte[]) item);
+        } else if (item instanceof ByteBuffer) {
+            ByteBuffer byteBuffer = ((ByteBuffer) item).duplicate();
+            byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(bytes);
+            buffer.write(bytes);
+        } else if (format == StreamFormat.RAW && item instanceof CharSequence) {
+            buffer.write(item.toString().getBytes(charset));
+        } else if (engine == null) {
+            throw new PippoRuntimeException("You must set a content type engine to stream '{}'", item.getClass().getName());
+        } else if (StandardCharsets.UTF_8.equals(charset)) {
+            engine.write(item, buffer);
+        } else {
+            Writer writer = new OutputStreamWriter(buffer, charset);
+            engine.write(item, writer);
+            writer.flush();
+        }
+
+        if (format == StreamFormat.NDJSON) {
+            buffer.write('\n');
+        }
+
+        return buffer.toByteArray();
+    }
+
+}
@@ -21,14 +21,22 @@ import ro.pippo.core.entity.EntityRequestEngine;
 import ro.pippo.core.route.RouteContext;
 import ro.pippo.core.route.RouteDispatcher;
 import ro.pippo.core.util.CookieUtils;
-import ro.pippo.core.util.IoUtils;
 import ro.pippo.core.util.StringUtils;
+import ro.pippo.core.util.UriUtils;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.Part;
-import java.net.URI;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -47,12 +55,25 @@ import java.util.TreeMap;
  */
 public final class Request {
 
+    /**
+     * The default maximum size of a request body, no limit (see {@link Application#getRequestMaxBodySize()}).
+     */
+    public static final long DEFAULT_MAX_BODY_SIZE = 0;
+
     private static final Logger log = LoggerFactory.getLogger(Request.class);
 
+    // the biggest body that fits in a byte array (some VMs reserve header words in an array)
+    private static final int MAX_BODY_BYTES = Integer.MAX_VALUE - 8;
+
+    // the announced content length is not trusted for the initial buffer
+    private static final int INITIAL_BODY_BUFFER_SIZE = 64 * 1024;
+
     private HttpServletRequest httpServletRequest;
     private ContentTypeEngines contentTypeEngines;
     private EntityRequestEngine entityRequestEngine;
+    // the parameters maps are created on first access
     private Map<String, ParameterValue> parameters; // query&post parameters
+    private Map<String, String> rawPathParameters; // path parameters (as found by router)
     private Map<String, ParameterValue> pathParameters; // path parameters
     private Map<String, ParameterValue> allParameters; // parameters + pathParameters
     private Map<String, FileItem> files;
@@ -61,31 +82,70 @@ public final class Request {
     private String method;
     private String path;
 
+    private Boolean ignoredPath; // the result of the ignore paths check (null if not evaluated)
+
     private String acceptType;
     private String contentType;
     private String body; // cache
+    private byte[] bodyBytes; // cache
+    private long maxBodySize;
 
     public Request(HttpServletRequest servletRequest, Application application) {
+        init(servletRequest, application);
+    }
+
+    private void init(HttpServletRequest servletRequest, Application application) {
         this.httpServletRequest = servletRequest;
         this.contentTypeEngines = application.getContentTypeEngines();
         this.entityRequestEngine = application.getEntityRequestEngine();
+        this.maxBodySize = application.getRequestMaxBodySize();
 
         applicationPath = application.getRouter().getApplicationPath();
 
-        // fill (query&post) parameters if any
-        initParameters();
-
         // empty path parameters for now (see internalSetPathParameters method)
-        pathParameters = Collections.unmodifiableMap(new HashMap<String, ParameterValue>());
+        rawPathParameters = Collections.emptyMap();
+    }
 
-        // init all parameters
-        initAllParameters();
+    /**
+     * Prepares a recycled instance for a new servlet request (see {@link RequestResponseFactory#setRecycling(boolean)}).
+     */
+    void recycle(HttpServletRequest servletRequest, Application application) {
+        clear();
+        init(servletRequest, application);
+    }
+
+    /**
+     * Drops all the state of the current request.
+     */
+    void clear() {
+        httpServletRequest = null;
+        contentTypeEngines = null;
+        entityRequestEngine = null;
+        parameters = null;
+        rawPathParameters = null;
+        pathParameters = null;
+        allParameters = null;
+        files = null;
+        session = null;
+        applicationPath = null;
+        method = null;
+        path = null;
+        ignoredPath = null;
+        acceptType = null;
+        contentType = null;
+        body = null;
+        bodyBytes = null;
     }
 
     /**
      * Returns all parameters (query, post, path).
+     * A path parameter hides the query parameter with the same name.
      */
     public Map<String, ParameterValue> getParameters() {
+        if (allParameters == null) {
+            allParameters = new ParametersOverlay(getPathParameters(), getQueryParameters());
+        }
+
         return allParameters;
     }
 
@@ -93,17 +153,20 @@ public final class Request {
      * Returns one parameter value.
      */
     public ParameterValue getParameter(String name) {
-        if (!getParameters().containsKey(name)) {
-            return buildParameterValue();
-        }
+        ParameterValue value = getParameters().get(name);
 
-        return getParameters().get(name);
+        return (value != null) ? value : buildParameterValue();
     }
 
     /**
      * Returns all query&post parameters.
      */
     public Map<String, ParameterValue> getQueryParameters() {
+        if (parameters == null) {
+            // fill (query&post) parameters if any
+            initParameters();
+        }
+
         return parameters;
     }
 
@@ -111,17 +174,19 @@ public final class Request {
      * Returns one query parameter value.
      */
     public ParameterValue getQueryParameter(String name) {
-        if (!getQueryParameters().containsKey(name)) {
-            return buildParameterValue();
-        }
+        ParameterValue value = getQueryParameters().get(name);
 
-        return getQueryParameters().get(name);
+        return (value != null) ? value : buildParameterValue();
     }
 
     /**
      * Returns all path parameters.
      */
     public Map<String, ParameterValue> getPathParameters() {
+        if (pathParameters == null) {
+            initPathParameters(rawPathParameters);
+        }
+
         return pathParameters;
     }
 
@@ -129,11 +194,9 @@ public final class Request {
      * Returns one path parameter.
      */
     public ParameterValue getPathParameter(String name) {
-        if (!getPathParameters().containsKey(name)) {
-            return buildParameterValue();
-        }
+        ParameterValue value = getPathParameters().get(name);
 
-        return getPathParameters().get(name);
+        return (value != null) ? value : buildParameterValue();
     }
 
     private void initParameters() {
@@ -143,7 +206,7 @@ public final class Request {
         while (names.hasMoreElements()) {
             String name = names.nextElement();
 
-            if (name.matches("(.+)\\[(\\d+)\\]")) {
+            if (isIndexedParameterName(name)) {
                 // support indexed parameter arrays e.g. setting[0], setting[1], setting[2]
                 int brk = name.indexOf('[');
                 String base = name.substring(0, brk);
@@ -192,36 +255,62 @@ public final class Request {
         parameters = Collections.unmodifiableMap(tmp);
     }
 
-    private void initPathParameters(Map<String, String> map) {
-        Map<String, ParameterValue> tmp = new HashMap<>();
-        if (map != null) {
-            Set<String> names = map.keySet();
-            for (String name : names) {
-                tmp.put(name, buildParameterValue(map.get(name)));
-            }
+    /**
+     * Returns {@code true} for names like {@code setting[0]}, the same as {@code name.matches("(.+)\\[(\\d+)\\]")}.
+     */
+    static boolean isIndexedParameterName(String name) {
+        int last = name.length() - 1;
+        if ((last < 3) || (name.charAt(last) != ']')) {
+            return false;
         }
 
-        pathParameters = Collections.unmodifiableMap(tmp);
+        int i = last - 1;
+        while ((i > 0) && (name.charAt(i) >= '0') && (name.charAt(i) <= '9')) {
+            i--;
+        }
+
+        // at least one digit and at least one character before '['
+        return (i < last - 1) && (i > 0) && (name.charAt(i) == '[');
     }
 
-    private void initAllParameters() {
-        Map<String, ParameterValue> tmp = new HashMap<>();
+    private void initPathParameters(Map<String, String> map) {
+        if ((map == null) || map.isEmpty()) {
+            pathParameters = Collections.emptyMap();
+            return;
+        }
 
-        // add query parameters
-        tmp.putAll(parameters);
+        Map<String, ParameterValue> tmp = new HashMap<>(map.size() * 2);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            tmp.put(entry.getKey(), buildParameterValue(entry.getValue()));
+        }
 
-        // add path parameters
-        tmp.putAll(pathParameters);
+        pathParameters = Collections.unmodifiableMap(tmp);
+    }
 
-        allParameters = Collections.unmodifiableMap(tmp);
+    /**
+     * THIS METHOD IS NOT PART OF THE PIPPO PUBLIC API.
+     * Returns the result of the ignore paths check if it was already evaluated for this request, else {@code null}.
+     */
+    public Boolean internalIsIgnoredPath() {
+        return ignoredPath;
+    }
+
+    /**
+     * THIS METHOD IS NOT PART OF THE PIPPO PUBLIC API.
+     */
+    public void internalSetIgnoredPath(boolean ignoredPath) {
+        this.ignoredPath = ignoredPath;
     }
 
     /**
      * THIS METHOD IS NOT PART OF THE PIPPO PUBLIC API.
      */
     public void internalSetPathParameters(Map<String, String> pathParameters) {
-        initPathParameters(pathParameters);
-        initAllParameters();
+        rawPathParameters = pathParameters;
+
+        // the maps are recreated on next access
+        this.pathParameters = null;
+        allParameters = null;
     }
 
     /**
@@ -310,24 +399,158 @@ public final class Request {
         return httpServletRequest.getLocale();
     }
 
+    /**
+     * Returns the request body decoded with the charset of the request (see {@link #getCharset()}).
+     * The body is read once and cached.
+     *
+     * @throws StatusCodeException with {@code 413} if the body is bigger than
+     * the maximum body size (see {@link Application#getRequestMaxBodySize()})
+     */
     public String getBody() {
         if (body == null) {
-            String httpServletRequestContentType = httpServletRequest.getHeader(HttpConstants.Header.CONTENT_TYPE);
-            if (HttpConstants.Method.POST.equals(httpServletRequest.getMethod())
-                && (HttpConstants.ContentType.APPLICATION_FORM_URLENCODED.equals(httpServletRequestContentType)
-                || HttpConstants.ContentType.MULTIPART_FORM_DATA.equals(httpServletRequestContentType))) {
+            if (isFormContent()) {
                 // Allow forms to exercise RESTful API endpoints by POSTing content like 'application/json'.
                 // This parameter is usually paired with '_method' and '_content_type' parameters.
                 body = getParameter("_content").toString(null);
             } else {
-                try {
-                    body = IoUtils.toString(httpServletRequest.getInputStream());
-                } catch (Exception e) {
+                body = new String(getBodyAsBytes(), getCharset());
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Returns the raw request body.
+     * The body is read once and cached; the returned array must not be modified.
+     *
+     * @throws StatusCodeException with {@code 413} if the body is bigger than
+     * the maximum body size (see {@link Application#getRequestMaxBodySize()})
+     */
+    public byte[] getBodyAsBytes() {
+        if (bodyBytes == null) {
+            if (body != null || isFormContent()) {
+                String content = getBody();
+                bodyBytes = (content != null) ? content.getBytes(getCharset()) : new byte[0];
+            } else {
+                long contentLength = httpServletRequest.getContentLengthLong();
+                checkBodySize(contentLength);
+                if (contentLength > MAX_BODY_BYTES) {
+                    throw bodyTooLarge(MAX_BODY_BYTES);
+                }
+                try (InputStream input = getBodyAsStream()) {
+                    bodyBytes = readBytes(input, contentLength);
+                } catch (RequestBodyTooLargeException e) {
+                    throw bodyTooLarge(e.getMaxSize());
+                } catch (IOException e) {
                     throw new PippoRuntimeException(e, "Exception when reading the request body");
                 }
             }
         }
-        return body;
+
+        return bodyBytes;
+    }
+
+    /**
+     * Returns the raw request body as a read-only buffer.
+     *
+     * @see #getBodyAsBytes()
+     */
+    public ByteBuffer getBodyAsByteBuffer() {
+        return ByteBuffer.wrap(getBodyAsBytes()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the raw request body as a stream.
+     * The body is read straight from the servlet request, so it can be consumed only once, unless it was
+     * already read with {@link #getBody()} or {@link #getBodyAsBytes()}, or it comes from a form
+     * {@code _content} parameter; then the stream is over the cached body.
+     * A body that announces a length bigger than the maximum body size (see {@link Application#getRequestMaxBodySize()})
+     * is rejected with a {@link StatusCodeException} with {@code 413}; reading past the maximum body size throws
+     * a {@link RequestBodyTooLargeException}.
+     */
+    public InputStream getBodyAsStream() {
+        if (bodyBytes != null || body != null || isFormContent()) {
+            return new ByteArrayInputStream(getBodyAsBytes());
+        }
+
+        // reject early a body that announces a too big length
+        checkBodySize(httpServletRequest.getContentLengthLong());
+        try {
+            InputStream input = httpServletRequest.getInputStream();
+
+            return (maxBodySize > 0) ? new LimitedInputStream(input, maxBodySize) : input;
+        } catch (IOException e) {
+            throw new PippoRuntimeException(e, "Exception when reading the request body");
+        }
+    }
+
+    /**
+     * Returns the charset of the request body, as specified by the {@code Content-Type} header.
+     * The default is UTF-8.
+     */
+    public Charset getCharset() {
+        String encoding = httpServletRequest.getCharacterEncoding();
+        if (StringUtils.isNullOrEmpty(encoding)) {
+            return StandardCharsets.UTF_8;
+        }
+
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            log.debug("Unsupported charset '{}', fallback to UTF-8", encoding);
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private void checkBodySize(long size) {
+        if (maxBodySize > 0 && size > maxBodySize) {
+            throw bodyTooLarge(maxBodySize);
+        }
+    }
+
+    private static StatusCodeException bodyTooLarge(long maxSize) {
+        return new StatusCodeException(HttpConstants.StatusCode.PAYLOAD_TOO_LARGE,
+            "Request body is bigger than {} bytes", maxSize);
+    }
+
+    /**
+     * Reads the whole stream; the buffer starts at the announced length (up to 64 KB) or at 8 KB
+     * when the length is unknown, and grows as the data arrives.
+     */
+    private static byte[] readBytes(InputStream input, long length) throws IOException {
+        byte[] bytes = new byte[(length > 0) ? (int) Math.min(length, INITIAL_BODY_BUFFER_SIZE) : 8 * 1024];
+        int count = 0;
+        while (true) {
+            if (count == bytes.length) {
+                // the buffer is full; check for the end before growing it
+                int b = input.read();
+                if (b == -1) {
+                    break;
+                }
+                if (count == MAX_BODY_BYTES) {
+                    throw bodyTooLarge(MAX_BODY_BYTES);
+                }
+                bytes = Arrays.copyOf(bytes, (int) Math.min(2L * count, MAX_BODY_BYTES));
+                bytes[count++] = (byte) b;
+            }
+
+            int n = input.read(bytes, count, bytes.length - count);
+            if (n == -1) {
+                break;
+            }
+            count += n;
+        }
+
+        // the client can send less than announced
+        return (count == bytes.length) ? bytes : Arrays.copyOf(bytes, count);
+    }
+
+    private boolean isFormContent() {
+        String httpServletRequestContentType = httpServletRequest.getHeader(HttpConstants.Header.CONTENT_TYPE);
+
+        return HttpConstants.Method.POST.equals(httpServletRequest.getMethod())
+            && (HttpConstants.ContentType.APPLICATION_FORM_URLENCODED.equals(httpServletRequestContentType)
+            || HttpConstants.ContentType.MULTIPART_FORM_DATA.equals(httpServletRequestContentType));
     }
 
     public String getHeader(String name) {
@@ -420,9 +643,8 @@ public final class Request {
      */
     public String getPath() {
         if (path == null) {
-            // create a URI to automatically decode the path
-            URI uri = URI.create(httpServletRequest.getRequestURL().toString());
-            String requestUri = uri.getPath();
+            // decode the path (no URL reconstruction and no URI parsing)
+            String requestUri = UriUtils.decodePath(httpServletRequest.getRequestURI());
 
             path = applicationPath.isEmpty() ? requestUri : requestUri.substring(applicationPath.length());
             if (StringUtils.isNullOrEmpty(path)) {
@@ -554,4 +776,102 @@ public final class Request {
             '}';
     }
 
+    /**
+     * A read-only view with the path parameters over the query parameters.
+     */
+    private static class ParametersOverlay extends AbstractMap<String, ParameterValue> {
+
+        private final Map<String, ParameterValue> top;
+        private final Map<String, ParameterValue> base;
+        private Set<Entry<String, ParameterValue>> entrySet;
+
+        ParametersOverlay(Map<String, ParameterValue> top, Map<String, ParameterValue> base) {
+            this.top = top;
+            this.base = base;
+        }
+
+        @Override
+        public ParameterValue get(Object key) {
+            ParameterValue value = top.get(key);
+
+            return (value != null) ? value : base.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return top.containsKey(key) || base.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, ParameterValue>> entrySet() {
+            if (entrySet == null) {
+                if (top.isEmpty()) {
+                    entrySet = base.entrySet();
+                } else {
+                    Map<String, ParameterValue> tmp = new HashMap<>(base);
+                    tmp.putAll(top);
+                    entrySet = Collections.unmodifiableMap(tmp).entrySet();
+                }
+            }
+
+            return entrySet;
+        }
+
+    }
+
+    /**
+     * Fails with {@code 413} when more than the maximum body size is read.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream input, long limit) {
+            super(input);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) throws RequestBodyTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new RequestBodyTooLargeException(limit);
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the stream of {@link Request#getBodyAsStream()} when the body is bigger than
+ * the maximum body size (see {@link Application#getRequestMaxBodySize()}).
+ * It's an {@link IOException}, so the parsers that read the stream report it as a read error.
+ */
+public class RequestBodyTooLargeException extends IOException {
+
+    private final long maxSize;
+
+    public RequestBodyTooLargeException(long maxSize) {
+        super("Request body is bigger than " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+}
@@ -21,6 +21,15 @@ import jakarta.servlet.http.HttpServletResponse;
 /**
  * Helps in creating <code>Request<code/> and <code>Response<code/> objects.
  * Here you can wrap/customize HttpServletRequest or HttpServletResponse.
+ * <p>
+ * With recycling on (see {@link #setRecycling(boolean)}) each worker thread reuses
+ * the same <code>Request<code/> and <code>Response<code/> instances between requests.
+ * The instances are given back by {@link #release(RequestResponse)} and are reused only if
+ * they are not in use (for example a nested dispatch gets new instances) and
+ * the request is not asynchronous (an async request can outlive the worker thread).
+ * Don't keep references to the request, the response or their maps (locals, headers)
+ * after the request processing ends if you enable recycling.
+ * </p>
  *
  * @author Decebal Suiu
  */
@@ -28,15 +37,123 @@ public class RequestResponseFactory {
 
     protected final Application application;
 
+    private final ThreadLocal<Recyclables> recyclables;
+    private volatile boolean recycling;
+
     public RequestResponseFactory(Application application) {
         this.application = application;
+
+        recyclables = ThreadLocal.withInitial(Recyclables::new);
     }
 
     public RequestResponse createRequestResponse(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
-        Request request = new Request(httpServletRequest, application);
-        Response response = new Response(httpServletResponse, application);
+        Request request = createRequest(httpServletRequest);
+        Response response = createResponse(httpServletResponse);
 
         return new RequestResponse(request, response);
     }
 
+    /**
+     * Creates a request or reuses the recycled request of the current thread.
+     */
+    protected Request createRequest(HttpServletRequest httpServletRequest) {
+        if (recycling) {
+            Recyclables recyclables = this.recyclables.get();
+            if (!recyclables.requestInUse) {
+                recyclables.requestInUse = true;
+                if (recyclables.request == null) {
+                    recyclables.request = new Request(httpServletRequest, application);
+                } else {
+                    recyclables.request.recycle(httpServletRequest, application);
+                }
+
+                return recyclables.request;
+            }
+        }
+
+        return new Request(httpServletRequest, application);
+    }
+
+    /**
+     * Creates a response or reuses the recycled response of the current thread.
+     */
+    protected Response createResponse(HttpServletResponse httpServletResponse) {
+        if (recycling) {
+            Recyclables recyclables = this.recyclables.get();
+            if (!recyclables.responseInUse) {
+                recyclables.responseInUse = true;
+                if (recyclables.response == null) {
+                    recyclables.response = new Response(httpServletResponse, application);
+                } else {
+                    recyclables.response.recycle(httpServletResponse, application);
+                }
+
+                return recyclables.response;
+            }
+        }
+
+        return new Response(httpServletResponse, application);
+    }
+
+    /**
+     * Called when the processing of the request ends.
+     * If recycling is on, the request and the response are cleared and are made available for the next request
+     * processed by the current thread.
+     */
+    public void release(RequestResponse requestResponse) {
+        if (!recycling) {
+            return;
+        }
+
+        Request request = requestResponse.getRequest();
+        Response response = requestResponse.getResponse();
+        Recyclables recyclables = this.recyclables.get();
+
+        HttpServletRequest httpServletRequest = request.getHttpServletRequest();
+        if ((httpServletRequest != null) && httpServletRequest.isAsyncStarted()) {
+            // the request is still in progress on another thread; leave the instances to it
+            if (recyclables.request == request) {
+                recyclables.request = null;
+                recyclables.requestInUse = false;
+            }
+            if (recyclables.response == response) {
+                recyclables.response = null;
+                recyclables.responseInUse = false;
+            }
+
+            return;
+        }
+
+        if (recyclables.request == request) {
+            request.clear();
+            recyclables.requestInUse = false;
+        }
+
+        if (recyclables.response == response) {
+            response.clear();
+            recyclables.responseInUse = false;
+        }
+    }
+
+    public boolean isRecycling() {
+        return recycling;
+    }
+
+    /**
+     * Enables the reuse of the <code>Request<code/> and <code>Response<code/> instances per worker thread.
+     * It's off by default.
+     */
+    public void setRecycling(boolean recycling) {
+        this.recycling = recycling;
+    }
+
+    private static class Recyclables {
+
+        private Request request;
+        private Response response;
+        private boolean requestInUse;
+        private boolean responseInUse;
+
+    }
+
 }
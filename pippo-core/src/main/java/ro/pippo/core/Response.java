@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import ro.pippo.core.gzip.GZipResponseWrapper;
 import ro.pippo.core.route.RouteContext;
 import ro.pippo.core.route.RouteDispatcher;
+import ro.pippo.core.util.ByteRange;
 import ro.pippo.core.util.DateUtils;
 import ro.pippo.core.util.IoUtils;
 import ro.pippo.core.util.MimeTypes;
@@ -29,17 +30,25 @@ import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author Decebal Suiu
@@ -48,6 +57,14 @@ public final class Response {
 
     private static final Logger log = LoggerFactory.getLogger(Response.class);
 
+    /**
+     * The default maximum size of a body sent with a {@code Content-Length} (see {@link Application#getResponseBufferSize()}).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+    // a smaller content is encoded at once
+    private static final int SMALL_CONTENT_LENGTH = 1024;
+
     private HttpServletResponse httpServletResponse;
     private ContentTypeEngines contentTypeEngines;
     private TemplateEngine templateEngine;
@@ -58,11 +75,17 @@ public final class Response {
     private String applicationPath;
     private ResponseFinalizeListenerList finalizeListeners;
     private MimeTypes mimeTypes;
+    private List<FileChannelTransfer> fileChannelTransfers;
+    private int bufferSize;
 
     private int status;
     private boolean chunked;
 
     public Response(HttpServletResponse httpServletResponse, Application application) {
+        init(httpServletResponse, application);
+    }
+
+    private void init(HttpServletResponse httpServletResponse, Application application) {
         this.httpServletResponse = httpServletResponse;
         this.contentTypeEngines = application.getContentTypeEngines();
         this.templateEngine = application.getTemplateEngine();
@@ -70,10 +93,46 @@ public final class Response {
         this.contextPath = application.getRouter().getContextPath();
         this.applicationPath = StringUtils.removeEnd(application.getRouter().getApplicationPath(), "/");
         this.mimeTypes = application.getMimeTypes();
+        this.fileChannelTransfers = application.getFileChannelTransfers();
+        this.bufferSize = application.getResponseBufferSize();
 
         this.status = 0;
     }
 
+    /**
+     * Prepares a recycled instance for a new servlet response (see {@link RequestResponseFactory#setRecycling(boolean)}).
+     * The locals, headers and cookies maps are kept (empty) to avoid new allocations.
+     */
+    void recycle(HttpServletResponse httpServletResponse, Application application) {
+        clear();
+        init(httpServletResponse, application);
+    }
+
+    /**
+     * Drops all the state of the current response.
+     */
+    void clear() {
+        httpServletResponse = null;
+        contentTypeEngines = null;
+        templateEngine = null;
+        if (locals != null) {
+            locals.clear();
+        }
+        if (headers != null) {
+            headers.clear();
+        }
+        if (cookies != null) {
+            cookies.clear();
+        }
+        contextPath = null;
+        applicationPath = null;
+        finalizeListeners = null;
+        mimeTypes = null;
+        fileChannelTransfers = null;
+        status = 0;
+        chunked = false;
+    }
+
     /**
      * Map of bound objects which can be stored and shared between all handlers
      * for the current request/response cycle.
@@ -707,7 +766,7 @@ public final class Response {
     public Response contentLength(long length) {
         checkCommitted();
 
-        httpServletResponse.setContentLength((int) length);
+        httpServletResponse.setContentLengthLong(length);
 
         return this;
     }
@@ -920,7 +979,74 @@ public final class Response {
         }
 
         header(HttpConstants.Header.CONTENT_TYPE, contentTypeEngine.getContentType());
-        send(contentTypeEngine.toString(object));
+        // serialize straight into the response, without an intermediate String
+        commitBody(output -> {
+            Charset charset = Charset.forName(getCharacterEncoding());
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                contentTypeEngine.write(object, output);
+            } else {
+                Writer writer = new OutputStreamWriter(output, charset);
+                contentTypeEngine.write(object, writer);
+                writer.flush();
+            }
+        });
+    }
+
+    /**
+     * Streams the items of the publisher with the servlet non-blocking I/O.
+     * The next item is requested only when the output can take it, so the memory stays constant
+     * and a slow client slows down the publisher instead of holding a thread.
+     * The request must be in asynchronous mode, use {@link RouteContext#stream(Flow.Publisher, StreamFormat)}
+     * from a route handler. The streamed response is not compressed.
+     * <p>This method commits the response.</p>
+     *
+     * @param publisher the items
+     * @param format how the items are written
+     * @return a future that completes when the last item was written; cancelling it cancels the subscription
+     */
+    public CompletableFuture<Void> stream(Flow.Publisher<?> publisher, StreamFormat format) {
+        checkCommitted();
+        finalizeResponse();
+
+        ContentTypeEngine contentTypeEngine;
+        if (format == StreamFormat.RAW) {
+            if (getContentType() == null) {
+                contentType(HttpConstants.ContentType.APPLICATION_OCTET_STREAM);
+            }
+            contentTypeEngine = contentTypeEngines.getContentTypeEngine(getContentType());
+        } else {
+            contentTypeEngine = contentTypeEngines.getContentTypeEngine(HttpConstants.ContentType.APPLICATION_JSON);
+            if (contentTypeEngine == null) {
+                throw new PippoRuntimeException("You must set a content type engine for '{}'",
+                    HttpConstants.ContentType.APPLICATION_JSON);
+            }
+            if (getContentType() == null) {
+                contentType((format == StreamFormat.NDJSON) ? HttpConstants.ContentType.APPLICATION_X_NDJSON
+                    : HttpConstants.ContentType.APPLICATION_JSON);
+            }
+            characterEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        if (getCharacterEncoding() == null) {
+            characterEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        HttpServletResponse target = httpServletResponse;
+        if (target instanceof GZipResponseWrapper) {
+            // the compression buffer would hide the backpressure of the client
+            target = (HttpServletResponse) ((GZipResponseWrapper) target).getResponse();
+        }
+
+        try {
+            ServletOutputStream output = target.getOutputStream();
+            // send the headers now, the body is written in non-blocking mode
+            target.flushBuffer();
+            Charset charset = Charset.forName(getCharacterEncoding());
+
+            return new PublisherWriter(output, format, contentTypeEngine, charset).subscribe(publisher);
+        } catch (IOException e) {
+            throw new PippoRuntimeException(e);
+        }
     }
 
     /**
@@ -952,11 +1078,83 @@ public final class Response {
      * @param file
      */
     public void file(File file) {
+        file(file, null);
+    }
+
+    /**
+     * Writes the specified file directly to the response as a download.
+     * If the range is not null (the value of the {@code Range} request header), only the requested
+     * byte ranges are written (206) or the response status is 416 if no range is satisfiable.
+     * <p>This method commits the response.</p>
+     *
+     * @param file
+     * @param range
+     */
+    public void file(File file, String range) {
+        checkCommitted();
+
+        // content type to OCTET_STREAM if it's not set
+        if (getContentType() == null) {
+            contentType(mimeTypes.getContentType(file.getName(), HttpConstants.ContentType.APPLICATION_OCTET_STREAM));
+        }
+
+        if (isHeaderEmpty(HttpConstants.Header.CONTENT_DISPOSITION)) {
+            filenameHeader(file.getName());
+        }
+
+        resource(file, range);
+    }
+
+    /**
+     * Writes the specified file (or only the requested byte ranges of it) directly to the response.
+     * The range is the value of the {@code Range} request header and it can be null.
+     * <p>This method commits the response.</p>
+     *
+     * @param file
+     * @param range
+     */
+    public void resource(File file, String range) {
+        checkCommitted();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            send(channel.size(), range, (output, start, length) -> transfer(channel, start, length, output));
+        } catch (IOException e) {
+            throw new PippoRuntimeException(e);
+        }
+    }
+
+    /**
+     * Copies the input stream (or only the requested byte ranges of it) to the response output stream
+     * and closes the input stream upon completion.
+     * The range is the value of the {@code Range} request header and it can be null.
+     * <p>This method commits the response.</p>
+     *
+     * @param input
+     * @param length the length of the input stream
+     * @param range
+     */
+    public void resource(InputStream input, long length, String range) {
+        if (length < 0) {
+            // unknown length
+            resource(input);
+
+            return;
+        }
+
+        checkCommitted();
+
         try {
-            contentLength(file.length());
-            file(file.getName(), new FileInputStream(file));
-        } catch (FileNotFoundException e) {
+            long[] position = new long[1];
+            send(length, range, (output, start, count) -> {
+                // the ranges are sorted so the stream is read forward
+                IoUtils.skip(input, start - position[0]);
+                IoUtils.copy(input, output, count);
+                position[0] = start + count;
+            });
+        } catch (IOException e) {
             throw new PippoRuntimeException(e);
+        } finally {
+            IoUtils.close(input);
         }
     }
 
@@ -988,6 +1186,93 @@ public final class Response {
         }
     }
 
+    private void send(long length, String range, RangeWriter rangeWriter) throws IOException {
+        header(HttpConstants.Header.ACCEPT_RANGES, "bytes");
+
+        // a range request is valid only for a successful response
+        int status = getStatus();
+        boolean ok = (status == 0) || (status == Integer.MAX_VALUE) || (status == HttpConstants.StatusCode.OK);
+        List<ByteRange> ranges = (ok && range != null) ? ByteRange.parse(range, length) : null;
+        if (ranges != null && ranges.isEmpty()) {
+            status(HttpConstants.StatusCode.REQUESTED_RANGE_NOT_SATISFIABLE);
+            header(HttpConstants.Header.CONTENT_RANGE, "bytes */" + length);
+            getHeaderMap().remove(HttpConstants.Header.CONTENT_DISPOSITION);
+            contentLength(0);
+            commit();
+
+            return;
+        }
+
+        // content type to OCTET_STREAM if it's not set
+        if (getContentType() == null) {
+            contentType(HttpConstants.ContentType.APPLICATION_OCTET_STREAM);
+        }
+
+        if (ranges == null) {
+            contentLength(length);
+            finalizeResponse();
+            rangeWriter.write(httpServletResponse.getOutputStream(), 0, length);
+        } else if (ranges.size() == 1) {
+            ByteRange byteRange = ranges.get(0);
+            status(HttpConstants.StatusCode.PARTIAL_CONTENT);
+            header(HttpConstants.Header.CONTENT_RANGE, byteRange.getContentRange(length));
+            contentLength(byteRange.getLength());
+            finalizeResponse();
+            rangeWriter.write(httpServletResponse.getOutputStream(), byteRange.getStart(), byteRange.getLength());
+        } else {
+            sendMultipart(length, ranges, rangeWriter);
+        }
+
+        if (chunked) {
+            // flushing the buffer forces chunked-encoding
+            httpServletResponse.flushBuffer();
+        }
+    }
+
+    private void sendMultipart(long length, List<ByteRange> ranges, RangeWriter rangeWriter) throws IOException {
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong())
+            + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        String partContentType = getContentType();
+
+        // compute the exact length of the body
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long contentLength = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange byteRange = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                + HttpConstants.Header.CONTENT_TYPE + ": " + partContentType + "\r\n"
+                + HttpConstants.Header.CONTENT_RANGE + ": " + byteRange.getContentRange(length) + "\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1);
+            contentLength += partHeaders[i].length + byteRange.getLength();
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        contentLength += end.length;
+
+        status(HttpConstants.StatusCode.PARTIAL_CONTENT);
+        contentType(HttpConstants.ContentType.MULTIPART_BYTERANGES + "; boundary=" + boundary);
+        contentLength(contentLength);
+        finalizeResponse();
+
+        ServletOutputStream output = httpServletResponse.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange byteRange = ranges.get(i);
+            output.write(partHeaders[i]);
+            rangeWriter.write(output, byteRange.getStart(), byteRange.getLength());
+        }
+        output.write(end);
+    }
+
+    private void transfer(FileChannel channel, long position, long count, OutputStream output) throws IOException {
+        // a container zero-copy transfer if the output stream is supported
+        for (FileChannelTransfer fileChannelTransfer : fileChannelTransfers) {
+            if (fileChannelTransfer.transfer(channel, position, count, output)) {
+                return;
+            }
+        }
+
+        IoUtils.copy(channel, position, count, output);
+    }
+
     private void send(InputStream input) throws IOException {
         try {
             // by calling httpServletResponse.getOutputStream() we are committing the response
@@ -1085,6 +1370,32 @@ public final class Response {
     }
 
     private void commit(CharSequence content) {
+        if (content == null) {
+            commitBody(null);
+        } else if (content.length() <= SMALL_CONTENT_LENGTH) {
+            commitBody(output -> output.write(content.toString().getBytes(getCharacterEncoding())));
+        } else {
+            commitBody(output -> {
+                // encode the content in chunks, without a byte[] copy of the whole content
+                Writer writer = new OutputStreamWriter(output, getCharacterEncoding());
+                if (content instanceof String) {
+                    writer.write((String) content);
+                } else {
+                    for (int i = 0; i < content.length(); i += 8 * 1024) {
+                        writer.append(content, i, Math.min(content.length(), i + 8 * 1024));
+                    }
+                }
+                writer.flush();
+            });
+        }
+    }
+
+    /**
+     * Writes the body with the writer and commits the response.
+     * A body smaller than the response buffer size (see {@link Application#getResponseBufferSize()})
+     * is sent with a {@code Content-Length}, a bigger one is streamed as it's written.
+     */
+    private void commitBody(BodyWriter bodyWriter) {
         checkCommitted();
         finalizeResponse();
 
@@ -1094,15 +1405,29 @@ public final class Response {
         }
 
         try {
-            if (content != null) {
+            if (bodyWriter != null) {
                 if (getCharacterEncoding() == null) {
                     characterEncoding(StandardCharsets.UTF_8.name());
                 }
-                byte[] encoded = content.toString().getBytes(getCharacterEncoding());
-                contentLength(encoded.length);
-                ServletOutputStream outputStream = httpServletResponse.getOutputStream();
-                outputStream.write(encoded);
-                outputStream.close();
+                ContentLengthOutputStream output = new ContentLengthOutputStream(httpServletResponse, bufferSize);
+                try {
+                    bodyWriter.write(output);
+                } catch (IOException | RuntimeException e) {
+                    if (output.isStreaming()) {
+                        // a part of the body was already sent; commit the response, so that the error handler
+                        // doesn't append an error page to it (the client gets a truncated body)
+                        try {
+                            httpServletResponse.flushBuffer();
+                        } catch (IOException flushException) {
+                            e.addSuppressed(flushException);
+                        }
+                    } else {
+                        // nothing was sent yet, so an error page can still be rendered
+                        output.discard();
+                    }
+                    throw e;
+                }
+                output.close();
             }
             log.trace("Response committed");
             if (chunked) {
@@ -1216,4 +1541,22 @@ public final class Response {
         return (routeContext != null) ? routeContext.getResponse() : null;
     }
 
+    /**
+     * Writes the response body.
+     */
+    private interface BodyWriter {
+
+        void write(OutputStream output) throws IOException;
+
+    }
+
+    /**
+     * Writes a byte range of the response body.
+     */
+    private interface RangeWriter {
+
+        void write(OutputStream output, long start, long length) throws IOException;
+
+    }
+
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+
+/**
+ * How {@link Response#stream(Flow.Publisher, StreamFormat)} writes the items of a publisher.
+ * The {@code byte[]} and {@link ByteBuffer} items are written as they are (already encoded chunks).
+ */
+public enum StreamFormat {
+
+    /**
+     * The items are written one after another; a {@link CharSequence} is encoded with the response charset,
+     * the other objects are serialized with the engine of the response content type.
+     */
+    RAW,
+
+    /**
+     * Newline delimited JSON ({@code application/x-ndjson}), one item per line.
+     */
+    NDJSON,
+
+    /**
+     * A JSON array ({@code application/json}), written item by item.
+     */
+    JSON_ARRAY
+
+}
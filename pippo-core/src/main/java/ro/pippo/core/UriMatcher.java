@@ -15,8 +15,11 @@
  */
 package ro.pippo.core;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -51,10 +54,56 @@ public interface UriMatcher {
         private final Pattern pattern;
         private final List<String> parameterNames;
 
+        // unique parameter names and the regex group that captures each of them
+        private final String[] valueNames;
+        private final int[] valueGroupIndexes;
+
+        /**
+         * Creates a binding where the path parameter with index {@code i} is captured by the group {@code i + 1}.
+         */
         public UriPatternBinding(String uriPattern, Pattern pattern, List<String> parameterNames) {
+            this(uriPattern, pattern, parameterNames, defaultGroupIndexes(parameterNames.size()));
+        }
+
+        /**
+         * Creates a binding where the path parameter with index {@code i} is captured by the group
+         * {@code groupIndexes[i]}. For a parameter name that appears many times the last group wins.
+         */
+        public UriPatternBinding(String uriPattern, Pattern pattern, List<String> parameterNames, int[] groupIndexes) {
             this.uriPattern = uriPattern;
             this.pattern = pattern;
             this.parameterNames = parameterNames;
+
+            Map<String, Integer> indexes = new LinkedHashMap<>();
+            for (int i = 0; i < parameterNames.size(); i++) {
+                indexes.put(parameterNames.get(i), groupIndexes[i]);
+            }
+            valueNames = indexes.keySet().toArray(new String[0]);
+            valueGroupIndexes = indexes.values().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Matches the request uri against the pattern and extracts the path parameters in the same pass.
+         *
+         * @param requestUri
+         * @return the path parameters or {@code null} if the request uri doesn't match
+         */
+        public Map<String, String> match(String requestUri) {
+            Matcher matcher = pattern.matcher(requestUri);
+            if (!matcher.matches()) {
+                return null;
+            }
+
+            if (valueNames.length == 0) {
+                return Collections.emptyMap();
+            }
+
+            String[] values = new String[valueNames.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = matcher.group(valueGroupIndexes[i]);
+            }
+
+            return new PathParameters(valueNames, values);
         }
 
         public String getUriPattern() {
@@ -78,6 +127,15 @@ public interface UriMatcher {
                 '}';
         }
 
+        private static int[] defaultGroupIndexes(int count) {
+            int[] groupIndexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                groupIndexes[i] = i + 1;
+            }
+
+            return groupIndexes;
+        }
+
     }
 
 }
@@ -36,6 +36,7 @@ public class WebServerSettings implements Serializable {
     private long uploadMaxFileSize = -1L;
     private String uploadLocation = System.getProperty("java.io.tmpdir");
     private int uploadFileSizeThreshold = 1 * 1024 * 1024; // 1 MB
+    private boolean virtualThreads;
 
     public WebServerSettings(PippoSettings pippoSettings) {
         this.port = pippoSettings.getInteger(PippoConstants.SETTING_SERVER_PORT, DEFAULT_PORT);
@@ -48,6 +49,7 @@ public class WebServerSettings implements Serializable {
         this.uploadMaxFileSize = pippoSettings.getLong(PippoConstants.SETTING_UPLOAD_MAX_FILE_SIZE, uploadMaxFileSize);
         this.uploadLocation = pippoSettings.getString(PippoConstants.SETTING_UPLOAD_MAX_FILE_SIZE, uploadLocation);
         this.uploadFileSizeThreshold = pippoSettings.getInteger(PippoConstants.SETTING_UPLOAD_MAX_FILE_SIZE, uploadFileSizeThreshold);
+        this.virtualThreads = pippoSettings.getBoolean(PippoConstants.SETTING_SERVER_VIRTUAL_THREADS, virtualThreads);
     }
 
     public String getHost() {
@@ -168,4 +170,18 @@ public class WebServerSettings implements Serializable {
         return this;
     }
 
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Runs the request handling of the server on virtual threads (Java 21+).
+     * It's ignored on an older runtime.
+     */
+    public WebServerSettings virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+
+        return this;
+    }
+
 }
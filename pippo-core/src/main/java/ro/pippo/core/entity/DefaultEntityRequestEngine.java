@@ -27,9 +27,12 @@ import ro.pippo.core.converters.Converter;
 import ro.pippo.core.util.ClassUtils;
 import ro.pippo.core.util.StringUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -66,8 +69,19 @@ public class DefaultEntityRequestEngine implements EntityRequestEngine {
     @Override
     public <T> T createEntityFromBody(Class<T> entityClass, Request request) {
         try {
-            String body = request.getBody();
-            if (StringUtils.isNullOrEmpty(body)) {
+            // the body is read through the request, that caches it for a later getBody()
+            boolean utf8 = StandardCharsets.UTF_8.equals(request.getCharset());
+            byte[] bodyBytes = null;
+            String body = null;
+            boolean empty;
+            if (utf8) {
+                bodyBytes = request.getBodyAsBytes();
+                empty = isBlank(bodyBytes);
+            } else {
+                body = request.getBody();
+                empty = StringUtils.isNullOrEmpty(body);
+            }
+            if (empty) {
                 log.warn("Can not create entity '{}' from null or empty request body!", entityClass.getName());
                 return null;
             }
@@ -92,7 +106,13 @@ public class DefaultEntityRequestEngine implements EntityRequestEngine {
                     entityClass.getName(), contentType);
             }
 
-            return engine.fromString(body, entityClass);
+            if (utf8) {
+                return engine.read(new ByteArrayInputStream(bodyBytes), entityClass);
+            }
+
+            // the engines read UTF-8 streams, so a body in another charset is given decoded
+            // (an encoding declared in the content, like in the XML declaration, must not be applied again)
+            return engine.read(new StringReader(body), entityClass);
         } catch (PippoRuntimeException e) {
             // pass-through PippoRuntimeExceptions
             throw e;
@@ -102,6 +122,20 @@ public class DefaultEntityRequestEngine implements EntityRequestEngine {
         }
     }
 
+    /**
+     * Returns {@code true} if the UTF-8 encoded body has only whitespaces, like {@link StringUtils#isNullOrEmpty(String)}.
+     */
+    private static boolean isBlank(byte[] body) {
+        for (byte b : body) {
+            // the bytes of a multi-byte UTF-8 character are all negative
+            if (b < 0 || b > ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T, X> T updateEntityFromParameters(T entity, Request request) {
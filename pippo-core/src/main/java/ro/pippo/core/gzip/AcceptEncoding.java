@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import ro.pippo.core.util.StringUtils;
+
+/**
+ * Parses the {@code Accept-Encoding} request header (RFC 7231, section 5.3.4).
+ */
+public class AcceptEncoding {
+
+    private AcceptEncoding() {}
+
+    /**
+     * Returns the quality value (between 0 and 1) of a content coding in an {@code Accept-Encoding} header.
+     * A coding that is not listed gets the quality of {@code *}, or 0 if {@code *} is not listed either.
+     * {@code x-gzip} is an alias of {@code gzip}.
+     *
+     * @param acceptEncoding the header value (can be null)
+     * @param coding the content coding (lower case)
+     * @return the quality value, 0 means not acceptable
+     */
+    public static float getQuality(String acceptEncoding, String coding) {
+        if (StringUtils.isNullOrEmpty(acceptEncoding)) {
+            return 0;
+        }
+
+        float wildcardQuality = 0;
+        int start = 0;
+        int length = acceptEncoding.length();
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            int parametersStart = acceptEncoding.indexOf(';', start);
+            int nameEnd = ((parametersStart != -1) && (parametersStart < end)) ? parametersStart : end;
+            String name = acceptEncoding.substring(start, nameEnd).trim();
+            if (!name.isEmpty()) {
+                float quality = (nameEnd < end) ? parseQuality(acceptEncoding.substring(nameEnd + 1, end)) : 1;
+                if (matches(name, coding)) {
+                    return quality;
+                } else if ("*".equals(name)) {
+                    wildcardQuality = quality;
+                }
+            }
+
+            start = end + 1;
+        }
+
+        return wildcardQuality;
+    }
+
+    private static boolean matches(String name, String coding) {
+        if (name.equalsIgnoreCase(coding)) {
+            return true;
+        }
+
+        return GZipContentEncoder.NAME.equals(coding) && "x-gzip".equalsIgnoreCase(name);
+    }
+
+    /**
+     * Parses the parameters of a coding (for example {@code " q=0.5"}).
+     * A malformed quality value makes the coding not acceptable.
+     */
+    private static float parseQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            parameter = parameter.trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    float quality = Float.parseFloat(parameter.substring(2).trim());
+
+                    return ((quality >= 0) && (quality <= 1)) ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+}
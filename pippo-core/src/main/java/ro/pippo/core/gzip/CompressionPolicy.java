@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import ro.pippo.core.PippoConstants;
+import ro.pippo.core.PippoSettings;
+import ro.pippo.core.util.ServiceLocator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+
+/**
+ * Decides if and how a response is compressed:
+ * <ul>
+ *     <li>the content coding is negotiated with the {@code Accept-Encoding} header (quality values included);
+ *     when two encoders have the same quality the first registered one wins</li>
+ *     <li>only the content types in the allow-list are compressed
+ *     (an entry as {@code text/*} allows all the subtypes); images, archives and other already compressed
+ *     content are left alone</li>
+ *     <li>the bodies smaller than {@code minSize} bytes are sent as they are</li>
+ * </ul>
+ * The default encoder is {@link GZipContentEncoder} with the configured level.
+ * {@link #fromSettings(PippoSettings)} registers before it the encoders found with {@link ServiceLocator}
+ * (they are usually better than gzip).
+ */
+public class CompressionPolicy {
+
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    public static final List<String> DEFAULT_MIME_TYPES = Collections.unmodifiableList(Arrays.asList(
+        "text/*",
+        "application/json",
+        "application/ld+json",
+        "application/problem+json",
+        "application/javascript",
+        "application/x-javascript",
+        "application/xml",
+        "application/xhtml+xml",
+        "application/rss+xml",
+        "application/atom+xml",
+        "application/x-yaml",
+        "application/yaml",
+        "image/svg+xml"
+    ));
+
+    private final List<ContentEncoder> encoders;
+    private final Set<String> mimeTypes;
+    private final List<String> mimeTypePrefixes;
+    private int minSize;
+    private int bufferSize;
+
+    /**
+     * Creates a policy with the default values and the gzip encoder.
+     */
+    public CompressionPolicy() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public CompressionPolicy(int level) {
+        encoders = new CopyOnWriteArrayList<>();
+        encoders.add(new GZipContentEncoder(level));
+        mimeTypes = new HashSet<>();
+        mimeTypePrefixes = new ArrayList<>();
+        setMimeTypes(DEFAULT_MIME_TYPES);
+        minSize = DEFAULT_MIN_SIZE;
+        bufferSize = GZipResponseStream.DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Creates a policy from the {@code gzip.*} settings.
+     */
+    public static CompressionPolicy fromSettings(PippoSettings settings) {
+        CompressionPolicy policy = new CompressionPolicy(settings.getInteger(PippoConstants.SETTING_GZIP_LEVEL,
+            Deflater.DEFAULT_COMPRESSION));
+        policy.setMinSize(settings.getInteger(PippoConstants.SETTING_GZIP_MIN_SIZE, DEFAULT_MIN_SIZE));
+        policy.setBufferSize(settings.getInteger(PippoConstants.SETTING_GZIP_BUFFER_SIZE,
+            GZipResponseStream.DEFAULT_BUFFER_SIZE));
+        List<String> mimeTypes = settings.getStrings(PippoConstants.SETTING_GZIP_MIME_TYPES);
+        if (!mimeTypes.isEmpty()) {
+            policy.setMimeTypes(mimeTypes);
+        }
+
+        policy.addLocatedEncoders();
+
+        return policy;
+    }
+
+    /**
+     * Registers the encoders found with {@link ServiceLocator}, before the existing ones
+     * (the encoders from the classpath, as brotli or zstd, are preferred to gzip).
+     */
+    void addLocatedEncoders() {
+        List<ContentEncoder> locatedEncoders = ServiceLocator.locateAll(ContentEncoder.class);
+        encoders.addAll(0, locatedEncoders);
+    }
+
+    /**
+     * Returns the best encoder accepted by the client or {@code null} if the response must not be compressed.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header
+     */
+    public ContentEncoder negotiate(String acceptEncoding) {
+        ContentEncoder best = null;
+        float bestQuality = 0;
+        for (ContentEncoder encoder : encoders) {
+            float quality = AcceptEncoding.getQuality(acceptEncoding, encoder.getName());
+            if (quality > bestQuality) {
+                best = encoder;
+                bestQuality = quality;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns {@code true} if the content type is in the allow-list.
+     * An unknown ({@code null}) content type is compressed.
+     */
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+
+        // remove the parameters (charset)
+        int index = contentType.indexOf(';');
+        String mimeType = ((index != -1) ? contentType.substring(0, index) : contentType).trim().toLowerCase(Locale.ROOT);
+        if (mimeTypes.contains(mimeType)) {
+            return true;
+        }
+
+        for (String prefix : mimeTypePrefixes) {
+            if (mimeType.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds an encoder with the lowest preference.
+     */
+    public CompressionPolicy addEncoder(ContentEncoder encoder) {
+        encoders.add(encoder);
+
+        return this;
+    }
+
+    public List<ContentEncoder> getEncoders() {
+        return Collections.unmodifiableList(encoders);
+    }
+
+    /**
+     * Sets the allow-list of content types; an entry as {@code text/*} allows all the subtypes.
+     */
+    public CompressionPolicy setMimeTypes(Collection<String> mimeTypes) {
+        this.mimeTypes.clear();
+        mimeTypePrefixes.clear();
+        for (String mimeType : mimeTypes) {
+            mimeType = mimeType.trim().toLowerCase(Locale.ROOT);
+            if (mimeType.endsWith("/*")) {
+                mimeTypePrefixes.add(mimeType.substring(0, mimeType.length() - 1));
+            } else if (!mimeType.isEmpty()) {
+                this.mimeTypes.add(mimeType);
+            }
+        }
+
+        return this;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * The bodies smaller than this size (in bytes) are not compressed.
+     */
+    public CompressionPolicy setMinSize(int minSize) {
+        this.minSize = minSize;
+
+        return this;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * The number of bytes kept in memory before switching to streaming (chunked) compression.
+     * It should not be smaller than the minimum size.
+     */
+    public CompressionPolicy setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+
+        return this;
+    }
+
+}
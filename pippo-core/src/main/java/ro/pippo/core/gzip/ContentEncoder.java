@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes (compresses) a response body for a {@code Content-Encoding} (gzip, br, zstd).
+ * An encoder is created once and shared by all the responses, so it must be thread safe;
+ * the expensive native state (for example a {@link java.util.zip.Deflater}) should be reused between responses.
+ * <p>
+ * Other encoders than gzip can be registered with {@link CompressionPolicy#addEncoder(ContentEncoder)}
+ * or with the {@link java.util.ServiceLoader} mechanism
+ * ({@code META-INF/services/ro.pippo.core.gzip.ContentEncoder}).
+ * </p>
+ */
+public interface ContentEncoder {
+
+    /**
+     * Returns the content coding name as used in the {@code Accept-Encoding} and
+     * {@code Content-Encoding} headers (for example {@code gzip}).
+     */
+    String getName();
+
+    /**
+     * Returns a stream that encodes the bytes written to it into the output stream.
+     * Closing the returned stream finishes the encoding and closes the output stream.
+     *
+     * @param output the destination of the encoded bytes
+     * @param syncFlush if {@code true} a flush sends all the bytes written until then
+     */
+    OutputStream encode(OutputStream output, boolean syncFlush) throws IOException;
+
+}
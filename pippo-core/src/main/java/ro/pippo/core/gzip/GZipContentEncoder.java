@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The default {@link ContentEncoder}, gzip with the JDK {@link Deflater}.
+ * The deflaters are kept in a bounded pool and reused (a deflater holds native memory and it's expensive to create).
+ */
+public class GZipContentEncoder implements ContentEncoder {
+
+    public static final String NAME = "gzip";
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int TRAILER_SIZE = 8;
+
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters;
+
+    public GZipContentEncoder() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level the compression level (0-9 or -1 for the default level)
+     */
+    public GZipContentEncoder(int level) {
+        if ((level < Deflater.DEFAULT_COMPRESSION) || (level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        this.level = level;
+        deflaters = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream output, boolean syncFlush) throws IOException {
+        return new GZipOutputStream(output, acquireDeflater(), syncFlush);
+    }
+
+    private Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+
+        return (deflater != null) ? deflater : new Deflater(level, true);
+    }
+
+    private void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            // the pool is full
+            deflater.end();
+        }
+    }
+
+    /**
+     * Same output as {@link java.util.zip.GZIPOutputStream} but with a given deflater,
+     * that is returned to the pool on close.
+     */
+    private class GZipOutputStream extends DeflaterOutputStream {
+
+        private final CRC32 crc;
+        private boolean finished;
+        private boolean closed;
+
+        GZipOutputStream(OutputStream output, Deflater deflater, boolean syncFlush) throws IOException {
+            super(output, deflater, 512, syncFlush);
+
+            crc = new CRC32();
+            writeHeader();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // the deflater can be used by another stream after close
+            checkClosed();
+
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            checkClosed();
+
+            super.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+
+            super.finish();
+
+            byte[] trailer = new byte[TRAILER_SIZE];
+            writeInt((int) crc.getValue(), trailer, 0);
+            writeInt((int) def.getBytesRead(), trailer, 4);
+            out.write(trailer);
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                releaseDeflater(def);
+            }
+        }
+
+        private void checkClosed() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        private void writeHeader() throws IOException {
+            out.write(new byte[] {
+                (byte) GZIP_MAGIC, // magic number (short)
+                (byte) (GZIP_MAGIC >> 8), // magic number (short)
+                Deflater.DEFLATED, // compression method
+                0, // flags
+                0, 0, 0, 0, // modification time
+                0, // extra flags
+                0 // operating system
+            });
+        }
+
+        private void writeInt(int value, byte[] bytes, int offset) {
+            bytes[offset] = (byte) value;
+            bytes[offset + 1] = (byte) (value >> 8);
+            bytes[offset + 2] = (byte) (value >> 16);
+            bytes[offset + 3] = (byte) (value >> 24);
+        }
+
+    }
+
+}
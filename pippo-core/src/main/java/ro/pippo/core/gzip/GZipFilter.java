@@ -26,19 +26,34 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.zip.Deflater;
 
 /**
- * {@code GZipFilter} will check the need of GZIP compression in request’s headers ‘Accept-Encoding: gzip’.
+ * {@code GZipFilter} will check the need of compression in request’s headers ‘Accept-Encoding’.
  * Then, this filter uses two classes {@code GZipResponseWrapper} and {@code GZipResponseStream}
  * to compress the data in response.
+ * <p>
+ * The {@link CompressionPolicy} can be configured with the init parameters {@code level}, {@code minSize},
+ * {@code bufferSize} and {@code mimeTypes} (comma separated).
+ * </p>
  *
  * @author Decebal Suiu
  */
 public class GZipFilter implements Filter {
 
+    private CompressionPolicy compressionPolicy = new CompressionPolicy();
+
     @Override
     public void init(FilterConfig filterConfig) {
-        // do nothing
+        compressionPolicy = new CompressionPolicy(getIntParameter(filterConfig, "level", Deflater.DEFAULT_COMPRESSION));
+        compressionPolicy.setMinSize(getIntParameter(filterConfig, "minSize", CompressionPolicy.DEFAULT_MIN_SIZE));
+        // the number of bytes kept in memory before switching to streaming (chunked) compression
+        compressionPolicy.setBufferSize(getIntParameter(filterConfig, "bufferSize", GZipResponseStream.DEFAULT_BUFFER_SIZE));
+        String mimeTypes = filterConfig.getInitParameter("mimeTypes");
+        if (!StringUtils.isNullOrEmpty(mimeTypes)) {
+            compressionPolicy.setMimeTypes(StringUtils.getList(mimeTypes, ","));
+        }
+        compressionPolicy.addLocatedEncoders();
     }
 
     @Override
@@ -47,8 +62,9 @@ public class GZipFilter implements Filter {
         HttpServletRequest request = (HttpServletRequest) servletRequest;
         HttpServletResponse response = (HttpServletResponse) servletResponse;
 
-        if (acceptsGZipEncoding(request)) {
-            GZipResponseWrapper wrappedResponse = new GZipResponseWrapper(response);
+        ContentEncoder encoder = compressionPolicy.negotiate(request.getHeader("accept-encoding"));
+        if (encoder != null) {
+            GZipResponseWrapper wrappedResponse = new GZipResponseWrapper(response, compressionPolicy, encoder);
             chain.doFilter(request, wrappedResponse);
             wrappedResponse.finish();
         } else {
@@ -61,12 +77,20 @@ public class GZipFilter implements Filter {
         // do nothing
     }
 
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
     protected boolean acceptsGZipEncoding(HttpServletRequest request) {
         String acceptEncoding = request.getHeader("accept-encoding");
 
-        return !StringUtils.isNullOrEmpty(acceptEncoding) && (
-            acceptEncoding.contains("gzip") || acceptEncoding.contains("*")
-        );
+        return AcceptEncoding.getQuality(acceptEncoding, GZipContentEncoder.NAME) > 0;
+    }
+
+    private static int getIntParameter(FilterConfig filterConfig, String name, int defaultValue) {
+        String value = filterConfig.getInitParameter(name);
+
+        return StringUtils.isNullOrEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
     }
 
 }
@@ -20,43 +20,57 @@ import ro.pippo.core.Request;
 import ro.pippo.core.RequestResponse;
 import ro.pippo.core.RequestResponseFactory;
 import ro.pippo.core.Response;
-import ro.pippo.core.util.StringUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
+ * Compresses the responses following a {@link CompressionPolicy} created from the {@code gzip.*} settings.
+ *
  * @author Decebal Suiu
  */
 public class GZipRequestResponseFactory extends RequestResponseFactory {
 
+    private final CompressionPolicy compressionPolicy;
+
     public GZipRequestResponseFactory(Application application) {
         super(application);
+
+        compressionPolicy = CompressionPolicy.fromSettings(application.getPippoSettings());
     }
 
     @Override
     public RequestResponse createRequestResponse(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
-        Request request = new Request(httpServletRequest, application);
+        Request request = createRequest(httpServletRequest);
         Response response;
 
-        boolean acceptsGZipEncoding = acceptsGZipEncoding(httpServletRequest);
-        if (acceptsGZipEncoding) {
+        ContentEncoder encoder = negotiateEncoder(httpServletRequest);
+        if (encoder != null) {
             // the response with be finished in Response.finishGZip() method
-            GZipResponseWrapper responseWrapper = new GZipResponseWrapper(httpServletResponse);
-            response = new Response(responseWrapper, application);
+            GZipResponseWrapper responseWrapper = new GZipResponseWrapper(httpServletResponse, compressionPolicy, encoder);
+            response = createResponse(responseWrapper);
         } else {
-            response = new Response(httpServletResponse, application);
+            response = createResponse(httpServletResponse);
         }
 
         return new RequestResponse(request, response);
     }
 
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    /**
+     * Returns the encoder for the response or {@code null} if the response must not be compressed.
+     */
+    protected ContentEncoder negotiateEncoder(HttpServletRequest httpServletRequest) {
+        return compressionPolicy.negotiate(httpServletRequest.getHeader("accept-encoding"));
+    }
+
     protected boolean acceptsGZipEncoding(HttpServletRequest httpServletRequest) {
         String acceptEncoding = httpServletRequest.getHeader("accept-encoding");
 
-        return !StringUtils.isNullOrEmpty(acceptEncoding) && (
-            acceptEncoding.contains("gzip") || acceptEncoding.contains("*")
-        );
+        return AcceptEncoding.getQuality(acceptEncoding, GZipContentEncoder.NAME) > 0;
     }
 
 }
@@ -15,31 +15,73 @@
  */
 package ro.pippo.core.gzip;
 
+import ro.pippo.core.util.HttpCacheToolkit;
+
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
+ * Compresses the response body with a {@link ContentEncoder} (gzip by default), following a {@link CompressionPolicy}.
+ * <p>
+ * The first {@code bufferSize} (uncompressed) bytes are kept in memory. If the stream is closed before the
+ * buffer is full, the body is sent at once with a {@code Content-Length} header; it's compressed only if it's
+ * bigger than the minimum size of the policy.
+ * Otherwise (or if {@link #flushBuffer()} is called) the stream switches to streaming mode: the compressed bytes
+ * are written straight to the servlet output stream (chunked transfer) and nothing is kept in memory.
+ * </p>
+ * The body is never compressed if its content type is not in the allow-list of the policy,
+ * if the response already has a {@code Content-Encoding} or if the status doesn't allow a body.
+ *
  * @author Decebal Suiu
  */
 public class GZipResponseStream extends ServletOutputStream {
 
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final CompressionPolicy DEFAULT_POLICY = new CompressionPolicy();
+
     private HttpServletResponse response;
+    private final int bufferSize;
+    private final CompressionPolicy policy;
+    private final ContentEncoder encoder;
+
+    // buffering mode (the uncompressed bytes)
+    private byte[] buffer;
+    private int count;
+
+    // streaming mode (an encoder stream or the servlet output stream)
+    private OutputStream streamingOutput;
+
+    // the length set by the application, used if the body is not compressed
+    private long contentLength = -1;
 
-    private ByteArrayOutputStream byteArrayOutputStream;
-    private GZIPOutputStream gzipOutputStream;
     private boolean closed;
 
     public GZipResponseStream(HttpServletResponse response) throws IOException {
+        this(response, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GZipResponseStream(HttpServletResponse response, int bufferSize) throws IOException {
+        this(response, bufferSize, DEFAULT_POLICY, DEFAULT_POLICY.getEncoders().get(0));
+    }
+
+    public GZipResponseStream(HttpServletResponse response, int bufferSize, CompressionPolicy policy,
+                              ContentEncoder encoder) throws IOException {
         super();
 
-        this.response = response;
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("The buffer size cannot be negative");
+        }
 
-        byteArrayOutputStream = new ByteArrayOutputStream();
-        gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
+        this.response = response;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.encoder = encoder;
     }
 
     @Override
@@ -47,29 +89,63 @@ public class GZipResponseStream extends ServletOutputStream {
         if (closed) {
             throw new IOException("This output stream has already been closed");
         }
-        try (ServletOutputStream outputStream = response.getOutputStream()) {
-            gzipOutputStream.finish();
-
-            byte[] bytes = byteArrayOutputStream.toByteArray();
 
-            response.addHeader("Content-Length", Integer.toString(bytes.length));
-            response.addHeader("Content-Encoding", "gzip");
-
-            outputStream.write(bytes);
-            outputStream.flush();
+        try {
+            if (streamingOutput != null) {
+                // closes the servlet output stream
+                streamingOutput.close();
+            } else {
+                writeBuffer();
+            }
         } finally {
-            gzipOutputStream.close();
+            buffer = null;
             closed = true;
         }
     }
 
+    /**
+     * Flushes the compressed data written until now to the client.
+     * If the stream is still buffering, it switches to streaming mode (the response will not have a content length).
+     */
+    public void flushBuffer() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        if (streamingOutput == null) {
+            startStreaming();
+        }
+
+        streamingOutput.flush();
+    }
+
+    /**
+     * Sets the length of the uncompressed body; it's sent only if the body is not compressed.
+     */
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Returns {@code true} if the bytes are written straight to the servlet output stream.
+     */
+    public boolean isStreaming() {
+        return streamingOutput != null;
+    }
+
+    /**
+     * In buffering mode this method does nothing (the buffer is written on close).
+     * Use {@link #flushBuffer()} to send the data to the client.
+     */
     @Override
     public void flush() throws IOException {
         if (closed) {
             throw new IOException("Cannot flush a closed output stream");
         }
 
-        gzipOutputStream.flush();
+        if (streamingOutput != null) {
+            streamingOutput.flush();
+        }
     }
 
     @Override
@@ -78,7 +154,15 @@ public class GZipResponseStream extends ServletOutputStream {
             throw new IOException("Cannot write to a closed output stream");
         }
 
-        gzipOutputStream.write((byte) b);
+        if (streamingOutput != null) {
+            streamingOutput.write(b);
+        } else if (count < bufferSize) {
+            ensureCapacity(count + 1);
+            buffer[count++] = (byte) b;
+        } else {
+            startStreaming();
+            streamingOutput.write(b);
+        }
     }
 
     @Override
@@ -92,11 +176,28 @@ public class GZipResponseStream extends ServletOutputStream {
             throw new IOException("Cannot write to a closed output stream");
         }
 
-        gzipOutputStream.write(b, off, len);
+        if (streamingOutput != null) {
+            streamingOutput.write(b, off, len);
+        } else if (count + len <= bufferSize) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        } else {
+            startStreaming();
+            streamingOutput.write(b, off, len);
+        }
     }
 
     @Override
     public boolean isReady() {
+        if (streamingOutput != null) {
+            try {
+                return response.getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
         // we are writing to internal buffer, so we are always ready
         return true;
     }
@@ -106,4 +207,89 @@ public class GZipResponseStream extends ServletOutputStream {
         // we are always ready, ignore
     }
 
+    private void ensureCapacity(int minCapacity) {
+        if (buffer == null) {
+            buffer = new byte[Math.min(bufferSize, Math.max(minCapacity, 512))];
+        } else if (minCapacity > buffer.length) {
+            int capacity = Math.min(bufferSize, Math.max(minCapacity, buffer.length * 2));
+            buffer = Arrays.copyOf(buffer, capacity);
+        }
+    }
+
+    private boolean shouldEncode() {
+        int status = response.getStatus();
+        if ((status == HttpServletResponse.SC_NO_CONTENT) || (status == HttpServletResponse.SC_NOT_MODIFIED)) {
+            return false;
+        }
+
+        // the byte ranges refer to the uncompressed body
+        if ((status == HttpServletResponse.SC_PARTIAL_CONTENT)
+            || (status == HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE)) {
+            return false;
+        }
+
+        return (response.getHeader("Content-Encoding") == null) && policy.isCompressible(response.getContentType());
+    }
+
+    private void setEncodingHeaders() {
+        response.setHeader("Content-Encoding", encoder.getName());
+        String etag = response.getHeader("ETag");
+        if (etag != null) {
+            // the compressed body is a different representation
+            response.setHeader("ETag", HttpCacheToolkit.getEncodedEtag(etag, encoder.getName()));
+        }
+        String vary = response.getHeader("Vary");
+        if ((vary == null) || !vary.toLowerCase().contains("accept-encoding")) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (shouldEncode()) {
+            setEncodingHeaders();
+            // syncFlush so that a flush sends all the data compressed until now
+            streamingOutput = encoder.encode(response.getOutputStream(), true);
+        } else {
+            if (contentLength >= 0) {
+                response.setContentLengthLong(contentLength);
+            }
+            streamingOutput = response.getOutputStream();
+        }
+
+        if (count > 0) {
+            streamingOutput.write(buffer, 0, count);
+        }
+        buffer = null;
+        count = 0;
+    }
+
+    private void writeBuffer() throws IOException {
+        if ((count < policy.getMinSize()) || !shouldEncode()) {
+            response.setContentLength(count);
+            try (ServletOutputStream outputStream = response.getOutputStream()) {
+                if (count > 0) {
+                    outputStream.write(buffer, 0, count);
+                }
+                outputStream.flush();
+            }
+
+            return;
+        }
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(Math.max(32, count / 2));
+        try (OutputStream output = encoder.encode(byteArrayOutputStream, false)) {
+            if (count > 0) {
+                output.write(buffer, 0, count);
+            }
+        }
+
+        response.setContentLength(byteArrayOutputStream.size());
+        setEncodingHeaders();
+
+        try (ServletOutputStream outputStream = response.getOutputStream()) {
+            byteArrayOutputStream.writeTo(outputStream);
+            outputStream.flush();
+        }
+    }
+
 }
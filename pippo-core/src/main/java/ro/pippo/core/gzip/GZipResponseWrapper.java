@@ -33,16 +33,64 @@ public class GZipResponseWrapper extends HttpServletResponseWrapper {
     private HttpServletResponse response;
     private ServletOutputStream stream;
     private PrintWriter writer;
+    private int bufferSize;
+    private CompressionPolicy policy;
+    private ContentEncoder encoder;
+    private long contentLength = -1;
 
     public GZipResponseWrapper(HttpServletResponse response) {
+        this(response, GZipResponseStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param response the wrapped response
+     * @param bufferSize the number of bytes kept in memory before switching to streaming (chunked) compression
+     */
+    public GZipResponseWrapper(HttpServletResponse response, int bufferSize) {
+        this(response, bufferSize, null, null);
+    }
+
+    /**
+     * @param response the wrapped response
+     * @param policy the compression policy
+     * @param encoder the encoder negotiated with {@link CompressionPolicy#negotiate(String)}
+     */
+    public GZipResponseWrapper(HttpServletResponse response, CompressionPolicy policy, ContentEncoder encoder) {
+        this(response, policy.getBufferSize(), policy, encoder);
+    }
+
+    private GZipResponseWrapper(HttpServletResponse response, int bufferSize, CompressionPolicy policy,
+                                ContentEncoder encoder) {
         super(response);
 
         this.response = response;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.encoder = encoder;
     }
 
+    /**
+     * Sends the data compressed until now to the client (the response will be chunked).
+     */
     @Override
     public void flushBuffer() throws IOException {
-        stream.flush();
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (stream != null) {
+            ((GZipResponseStream) stream).flushBuffer();
+        }
+    }
+
+    /**
+     * Sets the compression buffer size; it has effect only before the first write.
+     */
+    @Override
+    public void setBufferSize(int size) {
+        super.setBufferSize(size);
+
+        bufferSize = size;
     }
 
     @Override
@@ -76,7 +124,44 @@ public class GZipResponseWrapper extends HttpServletResponseWrapper {
 
     @Override
     public void setContentLength(int length) {
-        // do nothing
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        // the length is known only after compression; keep it for the case when the body is not compressed
+        contentLength = length;
+        if (stream != null) {
+            ((GZipResponseStream) stream).setContentLength(length);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!isContentLength(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!isContentLength(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!isContentLength(name)) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!isContentLength(name)) {
+            super.addIntHeader(name, value);
+        }
     }
 
     public void finish() {
@@ -85,7 +170,20 @@ public class GZipResponseWrapper extends HttpServletResponseWrapper {
     }
 
     private ServletOutputStream createOutputStream() throws IOException {
-        return new GZipResponseStream(response);
+        GZipResponseStream stream;
+        if (policy == null) {
+            stream = new GZipResponseStream(response, bufferSize);
+        } else {
+            stream = new GZipResponseStream(response, bufferSize, policy, encoder);
+        }
+        stream.setContentLength(contentLength);
+
+        return stream;
+    }
+
+    private static boolean isContentLength(String name) {
+        // the length of the compressed content is set by GZipResponseStream
+        return "Content-Length".equalsIgnoreCase(name);
     }
 
 }
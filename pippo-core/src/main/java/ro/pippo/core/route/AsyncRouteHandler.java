@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A route handler that does its work asynchronously, without keeping the container thread
+ * (see {@link RouteContext#startAsync(CompletionStage)}).
+ * The value of the returned stage is sent as the response body if the response isn't committed yet.
+ * For example:
+ * <pre>
+ * GET("/quote", AsyncRouteHandler.async(routeContext -&gt; quoteService.fetchQuote()));
+ * </pre>
+ * A {@code null} stage means that the request was handled synchronously.
+ */
+@FunctionalInterface
+public interface AsyncRouteHandler<T extends RouteContext> extends RouteHandler<T> {
+
+    CompletionStage<?> handleAsync(T routeContext);
+
+    @Override
+    default void handle(T routeContext) {
+        CompletionStage<?> stage = handleAsync(routeContext);
+        if (stage != null) {
+            routeContext.startAsync(stage);
+        }
+    }
+
+    /**
+     * Helps the compiler to pick the asynchronous handler for a lambda.
+     */
+    static <T extends RouteContext> AsyncRouteHandler<T> async(AsyncRouteHandler<T> handler) {
+        return handler;
+    }
+
+}
@@ -37,6 +37,9 @@ public class ClasspathResourceHandler extends UrlResourceHandler {
         super(urlPath);
 
         this.resourceBasePath = getNormalizedPath(resourceBasePath);
+
+        // the classpath resources don't change
+        setCacheMaxSize(DEFAULT_CACHE_MAX_SIZE);
     }
 
     @Override
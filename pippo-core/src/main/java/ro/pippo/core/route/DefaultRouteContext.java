@@ -20,17 +20,23 @@ import org.slf4j.LoggerFactory;
 import ro.pippo.core.Application;
 import ro.pippo.core.Messages;
 import ro.pippo.core.ParameterValue;
+import ro.pippo.core.PippoRuntimeException;
 import ro.pippo.core.PippoSettings;
 import ro.pippo.core.Request;
 import ro.pippo.core.Response;
 import ro.pippo.core.Session;
+import ro.pippo.core.StreamFormat;
 import ro.pippo.core.util.StringUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.File;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 /**
  * @author James Moger
@@ -39,18 +45,44 @@ public class DefaultRouteContext implements RouteContext {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultRouteContext.class);
 
-    protected final Application application;
-    protected final Request request;
-    protected final Response response;
-    protected final Iterator<RouteMatch> iterator;
+    // not final because the instance can be recycled (see DefaultRouteContextFactory)
+    protected Application application;
+    protected Request request;
+    protected Response response;
+    protected Iterator<RouteMatch> iterator;
 
     private Route route;
+    private CompletionStage<?> asyncStage;
+    private long asyncTimeout;
 
     public DefaultRouteContext(Application application, Request request, Response response, List<RouteMatch> routeMatches) {
+        init(application, request, response, routeMatches);
+    }
+
+    /**
+     * Prepares a recycled instance for a new request.
+     */
+    protected void init(Application application, Request request, Response response, List<RouteMatch> routeMatches) {
         this.application = application;
         this.request = request;
         this.response = response;
         this.iterator = routeMatches.iterator();
+        this.route = null;
+        this.asyncStage = null;
+        this.asyncTimeout = -1;
+    }
+
+    /**
+     * Drops the references to the current request.
+     */
+    protected void clear() {
+        application = null;
+        request = null;
+        response = null;
+        iterator = null;
+        route = null;
+        asyncStage = null;
+        asyncTimeout = -1;
     }
 
     @Override
@@ -278,9 +310,6 @@ public class DefaultRouteContext implements RouteContext {
                 log.trace("Added path parameters to request");
             }
 
-            // remove route from chain
-            iterator.remove();
-
             handleRoute(route);
         }
     }
@@ -310,6 +339,62 @@ public class DefaultRouteContext implements RouteContext {
         }
     }
 
+    @Override
+    public void startAsync(CompletionStage<?> stage) {
+        startAsync(stage, -1);
+    }
+
+    @Override
+    public void startAsync(CompletionStage<?> stage, long timeout) {
+        if (stage == null) {
+            throw new IllegalArgumentException("The stage cannot be null");
+        }
+
+        if (asyncStage != null) {
+            throw new PippoRuntimeException("Asynchronous processing is already started for '{}'", request.getPath());
+        }
+
+        HttpServletRequest httpServletRequest = request.getHttpServletRequest();
+        if (!httpServletRequest.isAsyncSupported()) {
+            throw new PippoRuntimeException("Asynchronous processing is not supported by the servlet container for '{}'",
+                request.getPath());
+        }
+
+        if (!httpServletRequest.isAsyncStarted()) {
+            httpServletRequest.startAsync(httpServletRequest, response.getHttpServletResponse());
+        }
+        asyncStage = stage;
+        asyncTimeout = timeout;
+    }
+
+    @Override
+    public CompletionStage<?> getAsyncStage() {
+        return asyncStage;
+    }
+
+    @Override
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    @Override
+    public void stream(Flow.Publisher<?> publisher, StreamFormat format) {
+        // the servlet non-blocking I/O needs the asynchronous mode
+        CompletableFuture<Void> stage = new CompletableFuture<>();
+        startAsync(stage, 0);
+
+        CompletableFuture<Void> completion = response.stream(publisher, format);
+        completion.whenComplete((result, error) -> {
+            if (error != null) {
+                stage.completeExceptionally(error);
+            } else {
+                stage.complete(null);
+            }
+        });
+        // a failed request (timeout, client gone) cancels the subscription
+        stage.whenComplete((result, error) -> completion.cancel(false));
+    }
+
     @Override
     public RouteContext text() {
         response.text();
@@ -23,25 +23,81 @@ import java.util.List;
 
 /**
  * This factory constructs the Pippo DefaultRouteContext class.
+ * If the {@code application.recycling} setting is {@code true}, each worker thread reuses the same
+ * route context between requests (a nested or an asynchronous request gets a new one).
  *
  * @author James Moger
  */
 public class DefaultRouteContextFactory implements RouteContextFactory<DefaultRouteContext> {
 
+    private final ThreadLocal<Recyclable> recyclables = ThreadLocal.withInitial(Recyclable::new);
+    private boolean recycling;
+
     @Override
     public DefaultRouteContext createRouteContext(Application application,
                                                   Request request,
                                                   Response response,
                                                   List<RouteMatch> routeMatches) {
 
+        if (recycling) {
+            Recyclable recyclable = recyclables.get();
+            if (!recyclable.inUse) {
+                recyclable.inUse = true;
+                if (recyclable.routeContext == null) {
+                    recyclable.routeContext = new DefaultRouteContext(application, request, response, routeMatches);
+                } else {
+                    recyclable.routeContext.init(application, request, response, routeMatches);
+                }
+
+                return recyclable.routeContext;
+            }
+        }
+
         return new DefaultRouteContext(application, request, response, routeMatches);
     }
 
+    @Override
+    public void release(DefaultRouteContext routeContext) {
+        if (!recycling) {
+            return;
+        }
+
+        Recyclable recyclable = recyclables.get();
+        if (recyclable.routeContext != routeContext) {
+            return;
+        }
+
+        if (routeContext.getRequest().getHttpServletRequest().isAsyncStarted()) {
+            // the request is still in progress on another thread; leave the instance to it
+            recyclable.routeContext = null;
+        } else {
+            routeContext.clear();
+        }
+        recyclable.inUse = false;
+    }
+
+    public boolean isRecycling() {
+        return recycling;
+    }
+
+    public void setRecycling(boolean recycling) {
+        this.recycling = recycling;
+    }
+
     @Override
     public void init(Application application) {
+        recycling = application.isRecycling();
     }
 
     @Override
     public void destroy(Application application) {
     }
+
+    private static class Recyclable {
+
+        private DefaultRouteContext routeContext;
+        private boolean inUse;
+
+    }
+
 }
@@ -21,25 +21,31 @@ import ro.pippo.core.DefaultUriMatcher;
 import ro.pippo.core.HttpConstants;
 import ro.pippo.core.PippoRuntimeException;
 import ro.pippo.core.UriMatcher;
+import ro.pippo.core.util.LruCache;
+import ro.pippo.core.util.PrefixMatcher;
 import ro.pippo.core.util.Stack;
 import ro.pippo.core.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
  * The routes are matched in the order they are defined.
  *
+ * The compiled routes are kept in an immutable snapshot that is replaced (atomically) each time
+ * the routes are modified, so {@link #findRoutes(String, String)} doesn't take locks and
+ * routes can be added or removed at runtime, while requests are served.
+ * After the first compilation, {@link #addRoute(Route)} compiles the new route right away.
+ *
  * @author Decebal Suiu
  * @author James Moger
  */
@@ -47,28 +53,39 @@ public class DefaultRouter implements Router, ResourceRouting {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultRouter.class);
 
+    private static final String REGEX_CHARS = "\\.[]{}()*+?^$|";
+
+    // the routes that are not compiled yet (guarded by this)
     private List<Route> routes;
-    private List<Route> compiledRoutes;
     private List<RouteTransformer> transformers;
     private Set<String> ignorePaths;
+    private volatile PrefixMatcher ignorePathMatcher;
     private String contextPath;
     private String applicationPath;
 
     // key = requestMethod
     private Map<String, List<Route>> routesCache;
 
-    // key = requestMethod
-    private Map<String, List<Route>> compiledRoutesCache;
+    private volatile RouteSnapshot snapshot;
+
+    // true after the first compilation
+    private volatile boolean compiled;
+
+    private volatile boolean hasUncompiledRoutes;
+
+    private volatile LruCache<String, List<RouteMatch>> routeMatchCache;
+
+    // incremented on each modification of routes
+    private volatile long routesVersion;
 
     private UriMatcher uriMatcher;
 
     public DefaultRouter() {
-        routes = new LinkedList<>();
-        compiledRoutes = new LinkedList<>();
-        transformers = new ArrayList<>();
+        routes = new ArrayList<>();
+        transformers = new CopyOnWriteArrayList<>();
         ignorePaths = new TreeSet<>();
+        ignorePathMatcher = PrefixMatcher.of(ignorePaths);
         routesCache = new HashMap<>();
-        compiledRoutesCache = new HashMap<>();
         contextPath = "";
         applicationPath = "";
 
@@ -79,10 +96,10 @@ public class DefaultRouter implements Router, ResourceRouting {
                 String value = super.getPathParameterValue(uriPattern, parameterName, parameterValue);
 
                 // retrieve the compiled route for uriPattern
-                Route compiledRoute = compiledRoutes.stream()
-                    .filter(route -> uriPattern.equals(route.getUriPattern()))
-                    .findAny()
-                    .orElseThrow(() -> new PippoRuntimeException("Cannot find a compiled route for '{}'", uriPattern));
+                Route compiledRoute = snapshot.routesByUriPattern.get(uriPattern);
+                if (compiledRoute == null) {
+                    throw new PippoRuntimeException("Cannot find a compiled route for '{}'", uriPattern);
+                }
 
                 RouteHandler handler = compiledRoute.getRouteHandler();
                 boolean isResourceRoute = ResourceHandler.class.isAssignableFrom(handler.getClass());
@@ -99,6 +116,8 @@ public class DefaultRouter implements Router, ResourceRouting {
             }
 
         };
+
+        snapshot = new RouteSnapshot(Collections.emptyList(), uriMatcher);
     }
 
     @Override
@@ -126,47 +145,44 @@ public class DefaultRouter implements Router, ResourceRouting {
     }
 
     @Override
-    public Set<String> getIgnorePaths() {
-        return ignorePaths;
+    public synchronized Set<String> getIgnorePaths() {
+        return Collections.unmodifiableSet(new TreeSet<>(ignorePaths));
     }
 
     @Override
-    public void ignorePaths(String... pathPrefixes) {
+    public synchronized void ignorePaths(String... pathPrefixes) {
         for (String pathPrefix : pathPrefixes) {
             this.ignorePaths.add(StringUtils.addStart(pathPrefix, "/"));
         }
+
+        ignorePathMatcher = PrefixMatcher.of(ignorePaths);
+    }
+
+    @Override
+    public boolean isIgnoredPath(String path) {
+        return ignorePathMatcher.matches(path);
     }
 
     @Override
-    public final List<Route> getRoutes() {
+    public final synchronized List<Route> getRoutes() {
         List<Route> allRoutes = new ArrayList<>();
         allRoutes.addAll(routes);
-        allRoutes.addAll(compiledRoutes);
+        allRoutes.addAll(snapshot.compiledRoutes);
 
         return Collections.unmodifiableList(allRoutes);
     }
 
     @Override
-    public void compileRoutes() {
+    public synchronized void compileRoutes() {
+        compiled = true;
         if (routes.isEmpty()) {
             // nothing to do
             return;
         }
 
         log.debug("Compile routes");
-        Iterator<Route> it = routes.iterator();
-        while (it.hasNext()) {
-            Route route = it.next();
-
-            // remove route
-            it.remove();
-
-            // updates routes' cache
-            List<Route> cacheEntry = routesCache.get(route.getRequestMethod());
-            if (cacheEntry != null) {
-                cacheEntry.remove(route);
-            }
-
+        List<Route> compiledRoutes = new ArrayList<>(snapshot.compiledRoutes);
+        for (Route route : routes) {
             // compile route and apply the transformers
             Route compiledRoute = compileRoute(route);
             for (RouteTransformer transformer : transformers) {
@@ -179,15 +195,22 @@ public class DefaultRouter implements Router, ResourceRouting {
 
             if (compiledRoute != null) {
                 // add the compiled route to list
-                addCompiledRoute(compiledRoute);
+                compiledRoutes.add(compiledRoute);
             }
         }
 
+        // remove routes and updates routes' cache
+        routes.clear();
+        routesCache.clear();
+        hasUncompiledRoutes = false;
+
         // sort compiled routes
         Collections.sort(compiledRoutes);
+
+        publish(compiledRoutes);
     }
 
-    public List<Route> getRoutes(String requestMethod) {
+    public synchronized List<Route> getRoutes(String requestMethod) {
         List<Route> allRoutes = new ArrayList<>();
 
         // add routes that are not compiled yet
@@ -196,7 +219,7 @@ public class DefaultRouter implements Router, ResourceRouting {
         }
 
         // add compiled routes
-        allRoutes.addAll(getCompiledRoutes(requestMethod));
+        allRoutes.addAll(snapshot.compiledRoutesCache.getOrDefault(requestMethod, Collections.emptyList()));
 
         return Collections.unmodifiableList(allRoutes);
     }
@@ -205,31 +228,99 @@ public class DefaultRouter implements Router, ResourceRouting {
     public List<RouteMatch> findRoutes(String requestMethod, String requestUri) {
         log.trace("Finding route matches for {} '{}'", requestMethod, requestUri);
 
-        // force compile routes
-        compileRoutes();
+        if (hasUncompiledRoutes) {
+            // force compile routes (only when the routes were not compiled yet)
+            compileRoutes();
+        }
+
+        LruCache<String, List<RouteMatch>> routeMatchCache = this.routeMatchCache;
+        if (routeMatchCache == null) {
+            List<RouteMatch> routeMatches = matchRoutes(requestMethod, requestUri);
+            log.debug("Found {} route matches for {} '{}'", routeMatches.size(), requestMethod, requestUri);
+
+            return routeMatches;
+        }
+
+        String key = requestMethod + ' ' + requestUri;
+        List<RouteMatch> routeMatches = routeMatchCache.get(key);
+        if (routeMatches == null) {
+            long version = routesVersion;
+            routeMatches = Collections.unmodifiableList(matchRoutes(requestMethod, requestUri));
+            routeMatchCache.put(key, routeMatches);
+            if (version != routesVersion) {
+                // the routes were modified in the meantime
+                routeMatchCache.remove(key);
+            }
+        }
+        log.debug("Found {} route matches for {} '{}'", routeMatches.size(), requestMethod, requestUri);
 
+        return routeMatches;
+    }
+
+    /**
+     * Enables a cache in front of {@link #findRoutes(String, String)} with the route matches
+     * of the last {@code maxSize} request method and request uri pairs.
+     * The cache is cleared each time the routes are modified.
+     * Use {@code 0} to disable the cache (the default).
+     *
+     * @param maxSize
+     */
+    public void setRouteMatchCacheSize(int maxSize) {
+        routeMatchCache = (maxSize > 0) ? new LruCache<>(maxSize) : null;
+    }
+
+    /**
+     * Returns the route matches cache (useful for the hit/miss counters) or {@code null} if it's disabled.
+     *
+     * @return
+     */
+    public LruCache<String, List<RouteMatch>> getRouteMatchCache() {
+        return routeMatchCache;
+    }
+
+    /**
+     * Finds the compiled routes that match the request method and the request uri, in the order of compiled routes.
+     *
+     * @param requestMethod
+     * @param requestUri
+     * @return
+     */
+    protected List<RouteMatch> matchRoutes(String requestMethod, String requestUri) {
+        RouteSnapshot snapshot = this.snapshot;
+        RouteTable routeTable = snapshot.routeTables.getOrDefault(requestMethod, snapshot.anyRouteTable);
+        List<IndexedRoute> staticRoutes = routeTable.staticRoutes.getOrDefault(requestUri, Collections.emptyList());
+
+        // merge the static routes and the matched pattern routes in the order of compiled routes
         List<RouteMatch> routeMatches = new ArrayList<>();
-        for (Route route : compiledRoutes) {
-            boolean methodMatches = route.getRequestMethod().equals(requestMethod)
-                || route.getRequestMethod().equals(HttpConstants.Method.ANY);
-
-            if (methodMatches) {
-                String uriPattern = route.getUriPattern();
-                Map<String, String> parameters = uriMatcher.match(requestUri, uriPattern);
-                if (parameters != null) {
-                    // complete matching => add route match ro returned list
-                    routeMatches.add(new RouteMatch(route, parameters));
+        int staticIndex = 0;
+        for (IndexedRoute patternRoute : routeTable.patternRoutes) {
+            Map<String, String> parameters = patternRoute.binding.match(requestUri);
+            if (parameters != null) {
+                while ((staticIndex < staticRoutes.size()) && (staticRoutes.get(staticIndex).position < patternRoute.position)) {
+                    routeMatches.add(new RouteMatch(staticRoutes.get(staticIndex++).route, Collections.emptyMap()));
                 }
+
+                // complete matching => add route match ro returned list
+                routeMatches.add(new RouteMatch(patternRoute.route, parameters));
             }
         }
-
-        log.debug("Found {} route matches for {} '{}'", routeMatches.size(), requestMethod, requestUri);
+        while (staticIndex < staticRoutes.size()) {
+            routeMatches.add(new RouteMatch(staticRoutes.get(staticIndex++).route, Collections.emptyMap()));
+        }
 
         return routeMatches;
     }
 
     @Override
-    public void addRoute(Route route) {
+    public synchronized void addRoute(Route route) {
+        registerRoute(route);
+        if (compiled) {
+            // the application is running; publish the new route right away
+            compileRoutes();
+        }
+    }
+
+    private void registerRoute(Route route) {
         log.debug("Add route for {} '{}'", route.getRequestMethod(), route.getUriPattern());
         validateRoute(route);
         routes.add(route);
@@ -241,10 +332,12 @@ public class DefaultRouter implements Router, ResourceRouting {
         }
         cacheEntry.add(route);
         routesCache.put(route.getRequestMethod(), cacheEntry);
+
+        hasUncompiledRoutes = true;
     }
 
     @Override
-    public void removeRoute(Route route) {
+    public synchronized void removeRoute(Route route) {
         log.debug("Removing route for {} '{}'", route.getRequestMethod(), route.getUriPattern());
         boolean removed = routes.remove(route);
         if (removed) {
@@ -253,13 +346,22 @@ public class DefaultRouter implements Router, ResourceRouting {
             if (cacheEntry != null) {
                 cacheEntry.remove(route);
             }
-
-            removeCompiledRoute(route);
+            hasUncompiledRoutes = !routes.isEmpty();
         }
+
+        removeCompiledRoute(route);
     }
 
     @Override
-    public void addRouteGroup(RouteGroup routeGroup) {
+    public synchronized void addRouteGroup(RouteGroup routeGroup) {
+        registerRouteGroup(routeGroup);
+        if (compiled) {
+            // the application is running; publish all routes of the group at once
+            compileRoutes();
+        }
+    }
+
+    private void registerRouteGroup(RouteGroup routeGroup) {
         // add routes of group
         routeGroup.getRoutes().forEach(route -> {
             String uriPattern = routeGroup.getUriPattern();
@@ -301,15 +403,15 @@ public class DefaultRouter implements Router, ResourceRouting {
                     .collect(Collectors.toMap(Entry::getKey, Entry::getValue)));
             }
 
-            addRoute(route);
+            registerRoute(route);
         });
 
         // add children of group
-        routeGroup.getChildren().forEach(this::addRouteGroup);
+        routeGroup.getChildren().forEach(this::registerRouteGroup);
     }
 
     @Override
-    public void removeRouteGroup(RouteGroup routeGroup) {
+    public synchronized void removeRouteGroup(RouteGroup routeGroup) {
         // remove routes of group
         routeGroup.getRoutes().forEach(this::removeRoute);
 
@@ -324,8 +426,10 @@ public class DefaultRouter implements Router, ResourceRouting {
 
     @Override
     public String uriFor(String nameOrUriPattern, Map<String, Object> parameters) {
-        // force compile routes
-        compileRoutes();
+        if (hasUncompiledRoutes) {
+            // force compile routes
+            compileRoutes();
+        }
 
         Route compiledRoute = getCompiledRoute(nameOrUriPattern);
         if (compiledRoute == null) {
@@ -358,7 +462,7 @@ public class DefaultRouter implements Router, ResourceRouting {
     }
 
     @Override
-    public void addRouteTransformer(RouteTransformer transformer) {
+    public synchronized void addRouteTransformer(RouteTransformer transformer) {
         log.debug("Add transformer '{}'", transformer.getClass().getSimpleName());
         transformers.add(transformer);
     }
@@ -368,6 +472,28 @@ public class DefaultRouter implements Router, ResourceRouting {
         return transformers;
     }
 
+    /**
+     * Returns the compiled routes in match order (an immutable list).
+     *
+     * @return the compiled routes in match order
+     */
+    protected List<Route> getCompiledRoutes() {
+        return snapshot.compiledRoutes;
+    }
+
+    protected UriMatcher getUriMatcher() {
+        return uriMatcher;
+    }
+
+    /**
+     * Called each time the list of compiled routes is modified (on compile or on remove),
+     * with the lock of the router held and after the new compiled routes are published.
+     * Override this method if you maintain some structures derived from the compiled routes.
+     */
+    protected void onCompiledRoutesChange() {
+        // do nothing
+    }
+
     protected void validateRoute(Route route) {
         // validate the request method
         if (StringUtils.isNullOrEmpty(route.getRequestMethod())) {
@@ -409,57 +535,54 @@ public class DefaultRouter implements Router, ResourceRouting {
         return compiledRoute;
     }
 
-    private void addCompiledRoute(Route compiledRoute) {
-        compiledRoutes.add(compiledRoute);
-
-        // update cache
-        String requestMethod = compiledRoute.getRequestMethod();
-        if (!compiledRoutesCache.containsKey(requestMethod)) {
-            compiledRoutesCache.put(requestMethod, new ArrayList<>());
-        }
-        compiledRoutesCache.get(requestMethod).add(compiledRoute);
-
-        // it's added on compileRoute method
-//        uriMatcher.addUriPattern(compiledRoute.getUriPattern());
-    }
-
     private void removeCompiledRoute(Route route) {
-        String nameOrUriPattern = StringUtils.isNullOrEmpty(route.getName()) ? route.getUriPattern() : route.getName();
-        Route compiledRoute = getCompiledRoute(nameOrUriPattern);
-        if (compiledRoute == null) {
+        List<Route> compiledRoutes = new ArrayList<>(snapshot.compiledRoutes);
+        if (!compiledRoutes.remove(route)) {
             // do nothing; probably the route was not yet compiled
             return;
         }
 
-        compiledRoutes.remove(compiledRoute);
-
-        // update cache
-        List<Route> cacheEntry = compiledRoutesCache.get(route.getRequestMethod());
-        if (cacheEntry != null) {
-            cacheEntry.remove(compiledRoute);
+        String uriPattern = route.getUriPattern();
+        if (compiledRoutes.stream().noneMatch(compiledRoute -> uriPattern.equals(compiledRoute.getUriPattern()))) {
+            uriMatcher.removeUriPattern(uriPattern);
         }
 
-        uriMatcher.removeUriPattern(compiledRoute.getUriPattern());
+        publish(compiledRoutes);
     }
 
     private Route getCompiledRoute(String nameOrUriPattern) {
-        for (Route route : compiledRoutes) {
-            if (nameOrUriPattern.equals(route.getName()) || nameOrUriPattern.equals(route.getUriPattern())) {
-                return route;
-            }
-        }
+        return snapshot.routesByNameOrUriPattern.get(nameOrUriPattern);
+    }
 
-        return null;
+    /**
+     * Replaces the snapshot with the compiled routes. Must be called with the lock of the router held.
+     */
+    private void publish(List<Route> compiledRoutes) {
+        snapshot = new RouteSnapshot(compiledRoutes, uriMatcher);
+        onCompiledRoutesChange();
+        invalidateRouteMatchCache();
     }
 
-    private List<Route> getCompiledRoutes(String requestMethod) {
-        List<Route> compiledRoutes = new ArrayList<>();
+    private void invalidateRouteMatchCache() {
+        routesVersion++;
+        LruCache<String, List<RouteMatch>> routeMatchCache = this.routeMatchCache;
+        if (routeMatchCache != null) {
+            routeMatchCache.clear();
+        }
+    }
 
-        if (compiledRoutesCache.containsKey(requestMethod)) {
-            compiledRoutes.addAll(compiledRoutesCache.get(requestMethod));
+    /**
+     * Returns {@code true} if the uri pattern doesn't contain path parameters or regex constructs,
+     * so it matches only the request uri that is equal with it.
+     */
+    static boolean isLiteral(String uriPattern) {
+        for (int i = 0; i < uriPattern.length(); i++) {
+            if (REGEX_CHARS.indexOf(uriPattern.charAt(i)) != -1) {
+                return false;
+            }
         }
 
-        return compiledRoutes;
+        return true;
     }
 
     private String concatUriPattern(String prefix, String uriPattern) {
@@ -474,4 +597,99 @@ public class DefaultRouter implements Router, ResourceRouting {
     }
     */
 
+    /**
+     * An immutable view of the compiled routes, with the lookup structures built from them.
+     */
+    private static class RouteSnapshot {
+
+        private final List<Route> compiledRoutes;
+
+        // key = requestMethod
+        private final Map<String, List<Route>> compiledRoutesCache;
+
+        // key = requestMethod; each table contains also the ANY routes
+        private final Map<String, RouteTable> routeTables;
+
+        // used for the request methods without routes
+        private final RouteTable anyRouteTable;
+
+        // key = uriPattern, value = the first compiled route with that uri pattern
+        private final Map<String, Route> routesByUriPattern;
+
+        // key = name or uriPattern, value = the first compiled route with that name or uri pattern
+        private final Map<String, Route> routesByNameOrUriPattern;
+
+        /**
+         * Partitions the compiled routes by request method. In each partition, the routes with a literal
+         * uri pattern (no path parameters and no regex) are indexed by uri, so they are found with a map lookup.
+         */
+        RouteSnapshot(List<Route> compiledRoutes, UriMatcher uriMatcher) {
+            this.compiledRoutes = Collections.unmodifiableList(new ArrayList<>(compiledRoutes));
+
+            compiledRoutesCache = new HashMap<>();
+            routeTables = new HashMap<>();
+            routesByUriPattern = new HashMap<>();
+            routesByNameOrUriPattern = new HashMap<>();
+            for (Route route : compiledRoutes) {
+                routesByUriPattern.putIfAbsent(route.getUriPattern(), route);
+                if (route.getName() != null) {
+                    routesByNameOrUriPattern.putIfAbsent(route.getName(), route);
+                }
+                routesByNameOrUriPattern.putIfAbsent(route.getUriPattern(), route);
+
+                String requestMethod = route.getRequestMethod();
+                compiledRoutesCache.computeIfAbsent(requestMethod, key -> new ArrayList<>()).add(route);
+                if (!HttpConstants.Method.ANY.equals(requestMethod) && !routeTables.containsKey(requestMethod)) {
+                    routeTables.put(requestMethod, new RouteTable());
+                }
+            }
+
+            anyRouteTable = new RouteTable();
+            for (int i = 0; i < compiledRoutes.size(); i++) {
+                Route route = compiledRoutes.get(i);
+                UriMatcher.UriPatternBinding binding = uriMatcher.addUriPattern(route.getUriPattern());
+                IndexedRoute indexedRoute = new IndexedRoute(route, i, binding);
+                if (HttpConstants.Method.ANY.equals(route.getRequestMethod())) {
+                    anyRouteTable.add(indexedRoute);
+                    routeTables.values().forEach(routeTable -> routeTable.add(indexedRoute));
+                } else {
+                    routeTables.get(route.getRequestMethod()).add(indexedRoute);
+                }
+            }
+        }
+
+    }
+
+    private static class RouteTable {
+
+        // key = uri pattern
+        private final Map<String, List<IndexedRoute>> staticRoutes = new HashMap<>();
+        private final List<IndexedRoute> patternRoutes = new ArrayList<>();
+
+        void add(IndexedRoute indexedRoute) {
+            String uriPattern = indexedRoute.route.getUriPattern();
+            if (isLiteral(uriPattern)) {
+                staticRoutes.computeIfAbsent(uriPattern, key -> new ArrayList<>()).add(indexedRoute);
+            } else {
+                patternRoutes.add(indexedRoute);
+            }
+        }
+
+    }
+
+    private static class IndexedRoute {
+
+        private final Route route;
+        // the index in compiled routes
+        private final int position;
+        private final UriMatcher.UriPatternBinding binding;
+
+        IndexedRoute(Route route, int position, UriMatcher.UriPatternBinding binding) {
+            this.route = route;
+            this.position = position;
+            this.binding = binding;
+        }
+
+    }
+
 }
@@ -24,6 +24,7 @@ import ro.pippo.core.util.StringUtils;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
@@ -261,6 +262,7 @@ public class DirectoryHandler implements RouteHandler {
             if (!StringUtils.isNullOrEmpty(mimeType)) {
                 routeContext.getResponse().contentType(mimeType);
             }
+            routeContext.getResponse().header(HttpConstants.Header.ACCEPT_RANGES, "bytes");
 
         } catch (Exception e) {
             throw new PippoRuntimeException(e, "Failed to stream resource {}", resourceUrl);
@@ -292,14 +294,21 @@ public class DirectoryHandler implements RouteHandler {
     protected void sendResource(URL resourceUrl, RouteContext routeContext) throws IOException {
         String filename = resourceUrl.getFile();
         String mimeType = routeContext.getApplication().getMimeTypes().getContentType(filename);
+        File file;
+        try {
+            file = new File(resourceUrl.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        String range = routeContext.getApplication().getHttpCacheToolkit().getRange(routeContext, file.lastModified());
         if (!StringUtils.isNullOrEmpty(mimeType)) {
             // stream the resource
             log.debug("Streaming as resource '{}'", resourceUrl);
-            routeContext.getResponse().ok().chunked(chunked).resource(resourceUrl.openStream());
+            routeContext.getResponse().ok().chunked(chunked).resource(file, range);
         } else {
             // stream the file
             log.debug("Streaming as file '{}'", resourceUrl);
-            routeContext.getResponse().ok().chunked(chunked).file(filename, resourceUrl.openStream());
+            routeContext.getResponse().ok().chunked(chunked).file(file, range);
         }
     }
 
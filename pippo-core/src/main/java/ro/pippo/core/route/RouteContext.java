@@ -22,10 +22,13 @@ import ro.pippo.core.PippoSettings;
 import ro.pippo.core.Request;
 import ro.pippo.core.Response;
 import ro.pippo.core.Session;
+import ro.pippo.core.StreamFormat;
 
 import java.io.File;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 /**
  * @author James Moger
@@ -136,6 +139,47 @@ public interface RouteContext {
 
     void runFinallyRoutes();
 
+    /**
+     * Continues the processing of the request asynchronously, so that the container thread is released
+     * while the stage is in progress (see {@link jakarta.servlet.ServletRequest#startAsync()}).
+     * When the stage completes, its value is sent if the response isn't committed yet (an exception goes
+     * to the error handler), then the finally routes run and the response is completed.
+     * Call {@link #next()} from the stage to continue the route chain.
+     * The request fails with {@code 503} if the stage doesn't complete in time (setting {@code request.asyncTimeout}).
+     *
+     * @param stage the asynchronous work
+     * @see AsyncRouteHandler
+     */
+    void startAsync(CompletionStage<?> stage);
+
+    /**
+     * Same as {@link #startAsync(CompletionStage)} with a timeout for this request.
+     *
+     * @param stage the asynchronous work
+     * @param timeout the timeout in milliseconds, {@code 0} for no timeout
+     */
+    void startAsync(CompletionStage<?> stage, long timeout);
+
+    /**
+     * Returns the stage given to {@link #startAsync(CompletionStage)} or {@code null} for a synchronous request.
+     */
+    CompletionStage<?> getAsyncStage();
+
+    /**
+     * Returns the timeout given to {@link #startAsync(CompletionStage, long)} or {@code -1} for the default timeout.
+     */
+    long getAsyncTimeout();
+
+    /**
+     * Streams the items of the publisher with the servlet non-blocking I/O (see {@link Response#stream(Flow.Publisher, StreamFormat)}).
+     * The request continues asynchronously, without a timeout, until the publisher completes;
+     * a slow client slows down the publisher instead of holding a thread.
+     *
+     * @param publisher the items
+     * @param format how the items are written
+     */
+    void stream(Flow.Publisher<?> publisher, StreamFormat format);
+
     RouteContext text();
 
     RouteContext xml();
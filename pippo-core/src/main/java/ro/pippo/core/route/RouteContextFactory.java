@@ -29,4 +29,10 @@ public interface RouteContextFactory<T extends RouteContext> extends Initializer
 
     T createRouteContext(Application application, Request request, Response response, List<RouteMatch> routeMatches);
 
+    /**
+     * Called by {@link RouteDispatcher} when the route context is no longer used.
+     */
+    default void release(T routeContext) {
+    }
+
 }
@@ -21,15 +21,30 @@ import ro.pippo.core.Application;
 import ro.pippo.core.ErrorHandler;
 import ro.pippo.core.Flash;
 import ro.pippo.core.HttpConstants;
+import ro.pippo.core.PippoConstants;
+import ro.pippo.core.PippoRuntimeException;
 import ro.pippo.core.Request;
 import ro.pippo.core.Response;
+import ro.pippo.core.StatusCodeException;
 import ro.pippo.core.util.ServiceLocator;
+import ro.pippo.core.util.VirtualThreadUtils;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * RouteDispatcher is the common core of Pippo route dispatching.
@@ -47,11 +62,21 @@ public class RouteDispatcher {
 
     private static final List<RouteMatch> noMatches = Collections.emptyList();
 
+    /**
+     * The default timeout in milliseconds of an asynchronous request (see {@link RouteContext#startAsync(CompletionStage)}).
+     */
+    public static final long DEFAULT_ASYNC_TIMEOUT = 30_000;
+
+    // marks a request that is completed asynchronously
+    private static final String ASYNC_DISPATCH_ATTRIBUTE = RouteDispatcher.class.getName() + ".async";
+
     private RouteContextFactory<?> routeContextFactory;
     private Application application;
     private Router router;
     private ErrorHandler errorHandler;
     private RouteHandler notFoundRouteHandler;
+    private long asyncTimeout;
+    private ExecutorService dispatchExecutor;
 
     @SuppressWarnings("unchecked")
     public static <T extends RouteContext> T getRouteContext() {
@@ -73,6 +98,17 @@ public class RouteDispatcher {
         router = application.getRouter();
         errorHandler = application.getErrorHandler();
         notFoundRouteHandler = application.getNotFoundRouteHandler();
+        asyncTimeout = application.getPippoSettings().getLong(PippoConstants.SETTING_REQUEST_ASYNC_TIMEOUT,
+            DEFAULT_ASYNC_TIMEOUT);
+
+        if (application.getPippoSettings().getBoolean(PippoConstants.SETTING_APPLICATION_VIRTUAL_THREADS, false)) {
+            if (VirtualThreadUtils.isSupported()) {
+                dispatchExecutor = VirtualThreadUtils.newVirtualThreadPerTaskExecutor();
+                log.info("Dispatching the requests on virtual threads (run with '-Djdk.tracePinnedThreads=short' to report the pinned threads)");
+            } else {
+                log.warn("Virtual threads require Java 21 or later, dispatching the requests on the container threads");
+            }
+        }
 
         routeContextFactory = getRouteContextFactory();
         routeContextFactory.init(application);
@@ -97,9 +133,85 @@ public class RouteDispatcher {
      * @throws ServletException
      */
     public void dispatch(Request request, Response response) throws IOException, ServletException {
+        if (dispatchExecutor != null && request.getHttpServletRequest().isAsyncSupported()) {
+            dispatchOnVirtualThread(request, response);
+        } else {
+            doDispatch(request, response);
+        }
+    }
+
+    /**
+     * Releases the resources of the dispatcher.
+     */
+    public void destroy() {
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+        }
+    }
+
+    private void doDispatch(Request request, Response response) throws IOException, ServletException {
         onPreDispatch(request, response);
         onRouteDispatch(request, response);
-        onPostDispatch(request, response);
+        if (request.getHttpServletRequest().getAttribute(ASYNC_DISPATCH_ATTRIBUTE) == null) {
+            onPostDispatch(request, response);
+        }
+        // else the post-dispatch listeners run when the asynchronous request completes
+    }
+
+    /**
+     * Detaches the request from the container thread and dispatches it on a new virtual thread,
+     * where the blocking handlers don't hold a platform thread.
+     */
+    private void dispatchOnVirtualThread(Request request, Response response) throws ServletException {
+        HttpServletRequest httpServletRequest = request.getHttpServletRequest();
+        AsyncContext asyncContext = httpServletRequest.startAsync(httpServletRequest, response.getHttpServletResponse());
+        // no timeout, like a request that is dispatched on a container thread
+        asyncContext.setTimeout(0);
+
+        try {
+            dispatchExecutor.execute(() -> {
+                try {
+                    doDispatch(request, response);
+                } catch (Exception e) {
+                    log.error("Error dispatching {} '{}'", request.getMethod(), request.getPath(), e);
+                    if (!response.isCommitted()) {
+                        response.getHttpServletResponse().setStatus(HttpConstants.StatusCode.INTERNAL_ERROR);
+                    }
+                } finally {
+                    // an asynchronous route completes the request itself
+                    if (httpServletRequest.getAttribute(ASYNC_DISPATCH_ATTRIBUTE) == null && httpServletRequest.isAsyncStarted()) {
+                        asyncContext.complete();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            asyncContext.complete();
+            throw new ServletException("Cannot dispatch the request, the dispatcher is destroyed", e);
+        }
+    }
+
+    /**
+     * Returns an executor that runs the tasks of the given executor with the route context
+     * available from {@link #getRouteContext()}, for the asynchronous work of a request.
+     *
+     * @param executor the executor of the tasks
+     * @param routeContext the route context of the request
+     * @return the executor
+     */
+    public static Executor withRouteContext(Executor executor, RouteContext routeContext) {
+        return task -> executor.execute(() -> {
+            RouteContext previous = ROUTE_CONTEXT_THREAD_LOCAL.get();
+            ROUTE_CONTEXT_THREAD_LOCAL.set(routeContext);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    ROUTE_CONTEXT_THREAD_LOCAL.remove();
+                } else {
+                    ROUTE_CONTEXT_THREAD_LOCAL.set(previous);
+                }
+            }
+        });
     }
 
     /**
@@ -122,12 +234,18 @@ public class RouteDispatcher {
         final String requestPath = request.getPath();
         final String requestMethod = request.getMethod();
 
-        if (shouldIgnorePath(requestPath)) {
+        // PippoFilter already did the check
+        Boolean ignoredPath = request.internalIsIgnoredPath();
+        if ((ignoredPath != null) ? ignoredPath : shouldIgnorePath(requestPath)) {
             // NOT FOUND (404)
             RouteContext routeContext = routeContextFactory.createRouteContext(application, request, response, noMatches);
             ROUTE_CONTEXT_THREAD_LOCAL.set(routeContext);
-            errorHandler.handle(HttpServletResponse.SC_NOT_FOUND, routeContext);
-            ROUTE_CONTEXT_THREAD_LOCAL.remove();
+            try {
+                errorHandler.handle(HttpServletResponse.SC_NOT_FOUND, routeContext);
+            } finally {
+                ROUTE_CONTEXT_THREAD_LOCAL.remove();
+                releaseRouteContext(routeContext);
+            }
             log.debug("Returned status code {} for {} '{}' (IGNORED)", response.getStatus(), requestMethod, requestPath);
 
             return;
@@ -137,6 +255,7 @@ public class RouteDispatcher {
         RouteContext routeContext = routeContextFactory.createRouteContext(application, request, response, routeMatches);
         ROUTE_CONTEXT_THREAD_LOCAL.set(routeContext);
 
+        boolean async = false;
         try {
             if (routeMatches.isEmpty()) {
                 if (notFoundRouteHandler != null) {
@@ -152,27 +271,153 @@ public class RouteDispatcher {
             // execute the chain
             routeContext.next();
 
-            if (!response.isCommitted()) {
-                if (response.getStatus() == 0) {
-                    log.debug("Status code not set for {} '{}'", requestMethod, requestPath);
-                    response.notFound();
+            CompletionStage<?> asyncStage = routeContext.getAsyncStage();
+            if (asyncStage != null) {
+                // the container thread is released, the request is completed by the stage
+                completeOnStage(routeContext, asyncStage);
+                async = true;
+            } else {
+                commitResponse(routeContext);
+            }
+        } catch (Exception e) {
+            errorHandler.handle(e, routeContext);
+        } finally {
+            if (!async) {
+                routeContext.runFinallyRoutes();
+                log.debug("Returned status code {} for {} '{}'", response.getStatus(), requestMethod, requestPath);
+                if (routeContext.getAsyncStage() != null) {
+                    // the request failed after the handler started the asynchronous processing
+                    request.getHttpServletRequest().getAsyncContext().complete();
+                }
+            }
+            ROUTE_CONTEXT_THREAD_LOCAL.remove();
+            releaseRouteContext(routeContext);
+        }
+    }
+
+    private void commitResponse(RouteContext routeContext) {
+        Response response = routeContext.getResponse();
+        if (!response.isCommitted()) {
+            String requestMethod = routeContext.getRequestMethod();
+            String requestPath = routeContext.getRequest().getPath();
+            if (response.getStatus() == 0) {
+                log.debug("Status code not set for {} '{}'", requestMethod, requestPath);
+                response.notFound();
+            }
+            log.debug("Auto-committing response for {} '{}'", requestMethod, requestPath);
+            if (response.getStatus() >= HttpServletResponse.SC_BAD_REQUEST) {
+                // delegate response to the error handler.
+                // this will generate response content appropriate for the request
+                errorHandler.handle(response.getStatus(), routeContext);
+            } else {
+                response.commit();
+            }
+        }
+    }
+
+    /**
+     * Completes the asynchronous request when the stage completes or the timeout expires, whichever comes first.
+     * The completion runs on a container thread.
+     */
+    private void completeOnStage(RouteContext routeContext, CompletionStage<?> stage) {
+        HttpServletRequest httpServletRequest = routeContext.getRequest().getHttpServletRequest();
+        AsyncContext asyncContext = httpServletRequest.getAsyncContext();
+        long timeout = routeContext.getAsyncTimeout();
+        asyncContext.setTimeout((timeout < 0) ? asyncTimeout : timeout);
+        httpServletRequest.setAttribute(ASYNC_DISPATCH_ATTRIBUTE, Boolean.TRUE);
+
+        AtomicBoolean completed = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (completed.compareAndSet(false, true)) {
+                    cancel(stage);
+                    completeAsync(routeContext, asyncContext, null, new StatusCodeException(
+                        HttpConstants.StatusCode.SERVICE_UNAVAILABLE, "Asynchronous request timed out after {} ms",
+                        asyncContext.getTimeout()));
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (completed.compareAndSet(false, true)) {
+                    log.debug("Asynchronous request failed", event.getThrowable());
+                    cancel(stage);
+                    completeAsync(routeContext, asyncContext, null, event.getThrowable());
                 }
-                log.debug("Auto-committing response for {} '{}'", requestMethod, requestPath);
-                if (response.getStatus() >= HttpServletResponse.SC_BAD_REQUEST) {
-                    // delegate response to the error handler.
-                    // this will generate response content appropriate for the request
-                    errorHandler.handle(response.getStatus(), routeContext);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+
+        });
+
+        stage.whenCompleteAsync((result, error) -> {
+            if (completed.compareAndSet(false, true)) {
+                completeAsync(routeContext, asyncContext, result, error);
+            }
+        }, asyncContext::start);
+    }
+
+    private void completeAsync(RouteContext routeContext, AsyncContext asyncContext, Object result, Throwable error) {
+        Request request = routeContext.getRequest();
+        Response response = routeContext.getResponse();
+        ROUTE_CONTEXT_THREAD_LOCAL.set(routeContext);
+        try {
+            if (error != null) {
+                throw toException(error);
+            }
+
+            if (result != null && !response.isCommitted()) {
+                if (result instanceof CharSequence) {
+                    response.send((CharSequence) result);
                 } else {
-                    response.commit();
+                    response.send(result);
                 }
             }
+            commitResponse(routeContext);
         } catch (Exception e) {
             errorHandler.handle(e, routeContext);
         } finally {
             routeContext.runFinallyRoutes();
-            log.debug("Returned status code {} for {} '{}'", response.getStatus(), requestMethod, requestPath);
-            ROUTE_CONTEXT_THREAD_LOCAL.remove();
+            log.debug("Returned status code {} for {} '{}' (ASYNC)", response.getStatus(), request.getMethod(),
+                request.getPath());
+            try {
+                onPostDispatch(request, response);
+            } catch (Exception e) {
+                log.error("Unexpected error in post-dispatch listener", e);
+            } finally {
+                ROUTE_CONTEXT_THREAD_LOCAL.remove();
+                asyncContext.complete();
+            }
+        }
+    }
+
+    private static void cancel(CompletionStage<?> stage) {
+        try {
+            stage.toCompletableFuture().cancel(true);
+        } catch (UnsupportedOperationException e) {
+            // the stage can't be cancelled
+        }
+    }
+
+    private static Exception toException(Throwable error) {
+        if ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
         }
+
+        return (error instanceof Exception) ? (Exception) error : new PippoRuntimeException(error);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void releaseRouteContext(RouteContext routeContext) {
+        ((RouteContextFactory<RouteContext>) routeContextFactory).release(routeContext);
     }
 
     /**
@@ -188,18 +433,13 @@ public class RouteDispatcher {
     /**
      * Returns true if the request should be ignored.
      * If ignored, the response code is set to NOT FOUND (404).
+     * It's not called if {@code PippoFilter} already evaluated the ignore paths for the request.
      *
      * @param requestUri
      * @return true if the request should be ignored
      */
     protected boolean shouldIgnorePath(String requestUri) {
-        for (String path : router.getIgnorePaths()) {
-            if (requestUri.startsWith(path)) {
-                return true;
-            }
-        }
-
-        return false;
+        return router.isIgnoredPath(requestUri);
     }
 
     /**
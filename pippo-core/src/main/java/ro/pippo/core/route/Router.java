@@ -47,6 +47,22 @@ public interface Router {
 
     void ignorePaths(String... paths);
 
+    /**
+     * Returns {@code true} if the path starts with one of the ignore paths.
+     *
+     * @param path the request path
+     * @return true if the path must be ignored
+     */
+    default boolean isIgnoredPath(String path) {
+        for (String ignorePath : getIgnorePaths()) {
+            if (path.startsWith(ignorePath)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Add an uncompiled route.
      *
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A LRU cache of static resources bounded by the total size of their bytes.
+ */
+class StaticResourceCache {
+
+    private final long maxSize;
+    private final LinkedHashMap<String, StaticResource> resources;
+
+    private long size;
+
+    StaticResourceCache(long maxSize) {
+        this.maxSize = maxSize;
+        resources = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    synchronized StaticResource get(String resourcePath) {
+        return resources.get(resourcePath);
+    }
+
+    synchronized void put(String resourcePath, StaticResource resource) {
+        if (resource.bytes.length > maxSize) {
+            return;
+        }
+
+        StaticResource previous = resources.put(resourcePath, resource);
+        if (previous != null) {
+            size -= previous.bytes.length;
+        }
+        size += resource.bytes.length;
+
+        // evict the least recently used resources
+        Iterator<Map.Entry<String, StaticResource>> iterator = resources.entrySet().iterator();
+        while ((size > maxSize) && iterator.hasNext()) {
+            size -= iterator.next().getValue().bytes.length;
+            iterator.remove();
+        }
+    }
+
+    synchronized void clear() {
+        resources.clear();
+        size = 0;
+    }
+
+    synchronized int getCount() {
+        return resources.size();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * An immutable resource loaded in memory.
+     */
+    static class StaticResource {
+
+        final URL url;
+        final byte[] bytes;
+        final String etag;
+        final long lastModified;
+        final String mimeType;
+
+        StaticResource(URL url, byte[] bytes, String etag, long lastModified, String mimeType) {
+            this.url = url;
+            this.bytes = bytes;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.mimeType = mimeType;
+        }
+
+    }
+
+}
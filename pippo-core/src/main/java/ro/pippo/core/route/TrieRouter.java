@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.PathParameters;
+import ro.pippo.core.UriMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link Router} that indexes the compiled routes in a segment based trie.
+ * The lookup cost depends on the depth of the request uri and not on the number of routes.
+ *
+ * The uri pattern of each route is split in segments (by {@code /}). The segments are indexed as follows:
+ * <ul>
+ *     <li>a literal segment ({@code /contact}) is a child keyed by its value</li>
+ *     <li>a path parameter without regex ({@code /{id}}) is a wildcard child that matches any non empty segment</li>
+ *     <li>a path parameter with a regex that cannot cross a {@code /} ({@code /{id: [0-9]+}})
+ *     is a child guarded by that regex (the only regex evaluation for these routes)</li>
+ *     <li>anything else ({@code /.*}, {@code /{path: .*}}, {@code /user-{id}}) stops the indexing;
+ *     the route is attached to the last indexed node and is verified with its full regex</li>
+ * </ul>
+ *
+ * The matches are returned in the same order and with the same path parameters as {@link DefaultRouter}.
+ * To use it, call {@code setRouter(new TrieRouter())} in your application constructor.
+ */
+public class TrieRouter extends DefaultRouter {
+
+    // same as the pattern used by DefaultUriMatcher, applied to a single segment
+    private static final Pattern PATH_PARAMETER_SEGMENT = Pattern.compile("\\{(.*?)(:\\s(.*?))?\\}");
+
+    private volatile Node root = new Node(null);
+
+    @Override
+    protected List<RouteMatch> matchRoutes(String requestMethod, String requestUri) {
+        List<Entry> entries = new ArrayList<>();
+        if (requestUri.startsWith("/")) {
+            String[] segments = requestUri.substring(1).split("/", -1);
+            collect(root, segments, 0, requestMethod, entries);
+        } else {
+            // only the routes that are not indexed at all can match
+            root.collectTails(requestMethod, entries);
+        }
+
+        if (entries.size() > 1) {
+            // keep the order of the compiled routes
+            entries.sort(Comparator.comparingInt(entry -> entry.position));
+        }
+
+        List<RouteMatch> routeMatches = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Map<String, String> parameters = entry.getParameters(requestUri);
+            if (parameters != null) {
+                routeMatches.add(new RouteMatch(entry.route, parameters));
+            }
+        }
+
+        return routeMatches;
+    }
+
+    @Override
+    protected void onCompiledRoutesChange() {
+        Node root = new Node(null);
+        List<Route> compiledRoutes = getCompiledRoutes();
+        for (int i = 0; i < compiledRoutes.size(); i++) {
+            indexRoute(root, compiledRoutes.get(i), i);
+        }
+
+        this.root = root;
+    }
+
+    private void collect(Node node, String[] segments, int depth, String requestMethod, List<Entry> entries) {
+        node.collectTails(requestMethod, entries);
+
+        if (depth == segments.length) {
+            Entry.collect(node.leaves, requestMethod, entries, segments);
+            return;
+        }
+
+        String segment = segments[depth];
+        Node child = node.literals.get(segment);
+        if (child != null) {
+            collect(child, segments, depth + 1, requestMethod, entries);
+        }
+
+        if ((node.wildcard != null) && !segment.isEmpty()) {
+            collect(node.wildcard, segments, depth + 1, requestMethod, entries);
+        }
+
+        for (Node regexChild : node.regexes.values()) {
+            if (regexChild.regex.matcher(segment).matches()) {
+                collect(regexChild, segments, depth + 1, requestMethod, entries);
+            }
+        }
+    }
+
+    private void indexRoute(Node root, Route route, int position) {
+        String uriPattern = route.getUriPattern();
+        if (!uriPattern.startsWith("/") || hasTopLevelAlternation(uriPattern)) {
+            root.tails.add(new Entry(route, position, getBinding(route)));
+            return;
+        }
+
+        String[] segments = uriPattern.substring(1).split("/", -1);
+        // key = parameter name, value = segment index (the last one wins as in DefaultUriMatcher)
+        Map<String, Integer> parameterDepths = new LinkedHashMap<>();
+        Node node = root;
+        for (int depth = 0; depth < segments.length; depth++) {
+            String segment = segments[depth];
+            Node child = null;
+            if (isLiteral(segment)) {
+                child = node.literals.computeIfAbsent(segment, key -> new Node(null));
+            } else {
+                Matcher matcher = PATH_PARAMETER_SEGMENT.matcher(segment);
+                if (matcher.matches() && !hasBraces(matcher.group(1)) && !hasBraces(matcher.group(3))) {
+                    String regex = matcher.group(3);
+                    if (regex == null) {
+                        if (node.wildcard == null) {
+                            node.wildcard = new Node(null);
+                        }
+                        child = node.wildcard;
+                    } else if (isSegmentRegex(regex)) {
+                        child = node.regexes.computeIfAbsent(regex, key -> new Node(Pattern.compile(key)));
+                    }
+
+                    if (child != null) {
+                        parameterDepths.put(matcher.group(1), depth);
+                    }
+                }
+            }
+
+            if (child == null) {
+                // cannot go further; the route will be verified with its regex
+                node.tails.add(new Entry(route, position, getBinding(route)));
+                return;
+            }
+
+            node = child;
+        }
+
+        int[] depths = parameterDepths.values().stream().mapToInt(Integer::intValue).toArray();
+        String[] parameterNames = parameterDepths.keySet().toArray(new String[0]);
+        node.leaves.add(new Entry(route, position, depths, parameterNames));
+    }
+
+    private UriMatcher.UriPatternBinding getBinding(Route route) {
+        // returns the existing binding
+        return getUriMatcher().addUriPattern(route.getUriPattern());
+    }
+
+    private static boolean hasBraces(String value) {
+        return (value != null) && ((value.indexOf('{') != -1) || (value.indexOf('}') != -1));
+    }
+
+    /**
+     * Returns {@code true} if the pattern contains a {@code |} outside of a path parameter.
+     * Such alternation can apply to the whole uri pattern, so nothing can be indexed.
+     */
+    private static boolean hasTopLevelAlternation(String uriPattern) {
+        int depth = 0;
+        for (int i = 0; i < uriPattern.length(); i++) {
+            char c = uriPattern.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if ((c == '|') && (depth <= 0)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the regex can be safely evaluated against a single segment,
+     * in other words it cannot match a {@code /} and it doesn't look outside its group.
+     * The check is conservative; any regex that fails it is verified against the whole uri.
+     */
+    private static boolean isSegmentRegex(String regex) {
+        int classDepth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if ((c == '/') || (c == '.') || (c == '^') || (c == '$') || (c == ':')) {
+                return false;
+            }
+
+            if (c == '\\') {
+                if (i + 1 == regex.length()) {
+                    return false;
+                }
+                char next = regex.charAt(++i);
+                boolean safeClass = (next == 'd') || (next == 'w') || (next == 's');
+                boolean safeEscape = !Character.isLetterOrDigit(next) && (next != '/');
+                if (!safeClass && !safeEscape) {
+                    return false;
+                }
+            } else if (c == '[') {
+                classDepth++;
+            } else if (classDepth > 0) {
+                if (c == ']') {
+                    classDepth--;
+                } else if ((c == '-') && (i > 0) && (i + 1 < regex.length())) {
+                    // a range as [!-z] contains the slash
+                    char from = regex.charAt(i - 1);
+                    char to = regex.charAt(i + 1);
+                    if ((to == '\\') || ((from <= '/') && ('/' <= to))) {
+                        return false;
+                    }
+                }
+            } else if ((c == '(') && (i + 1 < regex.length()) && (regex.charAt(i + 1) == '?')) {
+                // lookaround, flags, named groups
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class Node {
+
+        private final Pattern regex;
+        private final Map<String, Node> literals;
+        private final Map<String, Node> regexes;
+        private final List<Entry> leaves;
+        private final List<Entry> tails;
+        private Node wildcard;
+
+        Node(Pattern regex) {
+            this.regex = regex;
+            literals = new HashMap<>();
+            regexes = new LinkedHashMap<>();
+            leaves = new ArrayList<>();
+            tails = new ArrayList<>();
+        }
+
+        void collectTails(String requestMethod, List<Entry> entries) {
+            Entry.collect(tails, requestMethod, entries, null);
+        }
+
+    }
+
+    private static class Entry {
+
+        private final Route route;
+        private final int position;
+        private final int[] parameterDepths;
+        private final String[] parameterNames;
+        // not null for the entries that must be verified with the regex of the route
+        private final UriMatcher.UriPatternBinding binding;
+        private String[] segments;
+
+        Entry(Route route, int position, int[] parameterDepths, String[] parameterNames) {
+            this.route = route;
+            this.position = position;
+            this.parameterDepths = parameterDepths;
+            this.parameterNames = parameterNames;
+            this.binding = null;
+        }
+
+        Entry(Route route, int position, UriMatcher.UriPatternBinding binding) {
+            this.route = route;
+            this.position = position;
+            this.parameterDepths = null;
+            this.parameterNames = null;
+            this.binding = binding;
+        }
+
+        static void collect(List<Entry> candidates, String requestMethod, List<Entry> entries, String[] segments) {
+            for (Entry candidate : candidates) {
+                String routeMethod = candidate.route.getRequestMethod();
+                if (routeMethod.equals(requestMethod) || routeMethod.equals(HttpConstants.Method.ANY)) {
+                    entries.add((segments == null) ? candidate : candidate.with(segments));
+                }
+            }
+        }
+
+        Entry with(String[] segments) {
+            Entry entry = new Entry(route, position, parameterDepths, parameterNames);
+            entry.segments = segments;
+
+            return entry;
+        }
+
+        Map<String, String> getParameters(String requestUri) {
+            if (binding != null) {
+                return binding.match(requestUri);
+            }
+
+            if (parameterDepths.length == 0) {
+                return Collections.emptyMap();
+            }
+
+            String[] values = new String[parameterDepths.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = segments[parameterDepths[i]];
+            }
+
+            return new PathParameters(parameterNames, values);
+        }
+
+    }
+
+}
@@ -17,17 +17,41 @@ package ro.pippo.core.route;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ro.pippo.core.Application;
 import ro.pippo.core.HttpConstants;
 import ro.pippo.core.PippoRuntimeException;
+import ro.pippo.core.RequestResponseFactory;
+import ro.pippo.core.Response;
+import ro.pippo.core.gzip.AcceptEncoding;
+import ro.pippo.core.gzip.CompressionPolicy;
+import ro.pippo.core.gzip.GZipContentEncoder;
+import ro.pippo.core.gzip.GZipRequestResponseFactory;
+import ro.pippo.core.route.StaticResourceCache.StaticResource;
+import ro.pippo.core.util.HttpCacheToolkit;
+import ro.pippo.core.util.IoUtils;
+import ro.pippo.core.util.LruCache;
 import ro.pippo.core.util.StringUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Serves static resources.
+ * If the client accepts it, a precompressed variant of a compressible resource is served:
+ * a {@code .br} or {@code .gz} file next to the resource or, in prod mode, a gzip variant
+ * generated at the first access and cached in memory.
  *
  * @author James Moger
  */
@@ -37,21 +61,140 @@ public abstract class UrlResourceHandler extends ResourceHandler {
 
     private static final Pattern VERSION_PATTERN = Pattern.compile("-ver-[0-9a-f]+\\.");
 
+    private static final String BROTLI = "br";
+
+    /**
+     * Resources larger than this value are not compressed at the first access.
+     */
+    public static final int MAX_GENERATED_SIZE = 512 * 1024;
+
+    private static final int GENERATED_CACHE_SIZE = 256;
+
+    private static final CompressionPolicy DEFAULT_COMPRESSION_POLICY = new CompressionPolicy();
+
+    private static final GZipContentEncoder GZIP_ENCODER = new GZipContentEncoder(Deflater.BEST_COMPRESSION);
+
+    /**
+     * The default size of the in-memory resource cache for the classpath and webjars resources.
+     */
+    public static final long DEFAULT_CACHE_MAX_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Resources larger than this value are not kept in the in-memory resource cache.
+     */
+    public static final int MAX_CACHED_RESOURCE_SIZE = 256 * 1024;
+
+    private static final int VERSION_CACHE_SIZE = 1024;
+
+    private boolean precompressed = true;
+
+    // the small resources kept in memory (prod mode)
+    private volatile StaticResourceCache resourceCache;
+
+    // the versions injected in the resource paths (prod mode)
+    private final LruCache<String, String> versionCache = new LruCache<>(VERSION_CACHE_SIZE);
+
+    // the sidecar files found for a resource url (prod mode)
+    private final Map<String, Sidecars> sidecarsCache = new ConcurrentHashMap<>();
+
+    // the gzip variants generated at the first access (prod mode), by url and last modified
+    private final LruCache<String, byte[]> generatedCache = new LruCache<>(GENERATED_CACHE_SIZE);
+
     public UrlResourceHandler(String urlPath) {
         super(urlPath);
     }
 
+    public boolean isPrecompressed() {
+        return precompressed;
+    }
+
+    /**
+     * Serves (or generates in prod mode) the {@code .br} and {@code .gz} variants of the compressible resources.
+     * The default value is {@code true}.
+     */
+    public UrlResourceHandler setPrecompressed(boolean precompressed) {
+        this.precompressed = precompressed;
+
+        return this;
+    }
+
+    public long getCacheMaxSize() {
+        StaticResourceCache cache = resourceCache;
+
+        return (cache != null) ? cache.getMaxSize() : 0;
+    }
+
+    /**
+     * Keeps the small resources (bytes, content hash ETag, last modified and content type) in memory in prod mode,
+     * so that the hot resources are served without touching the classpath or the file system.
+     * The cache is bounded by the total size of the resources and the least recently used resources are evicted.
+     * A value of {@code 0} disables the cache.
+     *
+     * @param maxSize the maximum size in bytes
+     */
+    public UrlResourceHandler setCacheMaxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("The cache size cannot be negative");
+        }
+
+        resourceCache = (maxSize > 0) ? new StaticResourceCache(maxSize) : null;
+
+        return this;
+    }
+
+    /**
+     * Removes all resources from the in-memory cache.
+     */
+    public void clearCache() {
+        StaticResourceCache cache = resourceCache;
+        if (cache != null) {
+            cache.clear();
+        }
+        versionCache.clear();
+    }
+
     @Override
     public final void handleResource(String resourcePath, RouteContext routeContext) {
+        StaticResourceCache cache = resourceCache;
+        boolean cacheable = (cache != null) && routeContext.getApplication().getPippoSettings().isProd();
+        if (cacheable) {
+            StaticResource resource = cache.get(resourcePath);
+            if (resource != null) {
+                streamResource(resource, routeContext);
+                return;
+            }
+        }
+
         URL url = getResourceUrl(resourcePath);
-        if (url != null) {
-            streamResource(url, routeContext);
+        if (url == null) {
+            return;
         }
+
+        if (cacheable) {
+            StaticResource resource = loadResource(url, routeContext);
+            if (resource != null) {
+                cache.put(resourcePath, resource);
+                streamResource(resource, routeContext);
+                return;
+            }
+        }
+
+        streamResource(url, routeContext);
     }
 
     public abstract URL getResourceUrl(String resourcePath);
 
     protected String getResourceVersion(String resourcePath) {
+        // the resources don't change in prod mode
+        Application application = Application.get();
+        boolean cacheable = (application != null) && application.getPippoSettings().isProd();
+        if (cacheable) {
+            String version = versionCache.get(resourcePath);
+            if (version != null) {
+                return version;
+            }
+        }
+
         String version = null;
 
         URL resourceUrl = getResourceUrl(resourcePath);
@@ -63,6 +206,10 @@ public abstract class UrlResourceHandler extends ResourceHandler {
             }
         }
 
+        if (cacheable && (version != null)) {
+            versionCache.put(resourcePath, version);
+        }
+
         return version;
     }
 
@@ -118,7 +265,7 @@ public abstract class UrlResourceHandler extends ResourceHandler {
             if (routeContext.getResponse().getStatus() == HttpConstants.StatusCode.NOT_MODIFIED) {
                 // do not stream anything out, simply return 304
                 routeContext.getResponse().commit();
-            } else {
+            } else if (!precompressed || !sendPrecompressedResource(resourceUrl, lastModified, routeContext)) {
                 sendResource(resourceUrl, routeContext);
             }
         } catch (Exception e) {
@@ -126,19 +273,280 @@ public abstract class UrlResourceHandler extends ResourceHandler {
         }
     }
 
+    private void streamResource(StaticResource resource, RouteContext routeContext) {
+        try {
+            HttpCacheToolkit httpCacheToolkit = routeContext.getApplication().getHttpCacheToolkit();
+            httpCacheToolkit.addEtag(routeContext, resource.etag, resource.lastModified);
+
+            Response response = routeContext.getResponse();
+            if (response.getStatus() == HttpConstants.StatusCode.NOT_MODIFIED) {
+                // do not stream anything out, simply return 304
+                response.commit();
+            } else if (!precompressed || !sendPrecompressedResource(resource.url, resource.lastModified, routeContext)) {
+                log.debug("Streaming cached resource '{}'", resource.url);
+                String range = httpCacheToolkit.getRange(routeContext, resource.etag, resource.lastModified);
+                if (resource.mimeType != null) {
+                    response.contentType(resource.mimeType);
+                } else {
+                    response.filenameHeader(getFilename(resource.url));
+                }
+                response.ok().resource(new ByteArrayInputStream(resource.bytes), resource.bytes.length, range);
+            }
+        } catch (Exception e) {
+            throw new PippoRuntimeException(e, "Failed to stream resource {}", resource.url);
+        }
+    }
+
+    /**
+     * Reads a small resource in memory or returns {@code null}.
+     */
+    private StaticResource loadResource(URL resourceUrl, RouteContext routeContext) {
+        try {
+            URLConnection connection = resourceUrl.openConnection();
+            long length = connection.getContentLengthLong();
+            if ((length < 0) || (length > MAX_CACHED_RESOURCE_SIZE)) {
+                return null;
+            }
+
+            long lastModified = connection.getLastModified();
+            byte[] bytes;
+            try (InputStream input = connection.getInputStream()) {
+                bytes = IoUtils.getBytes(input);
+            }
+
+            Application application = routeContext.getApplication();
+            String etag = application.getHttpCacheToolkit().getEtag(bytes);
+            String mimeType = application.getMimeTypes().getContentType(resourceUrl.getFile());
+            if (StringUtils.isNullOrEmpty(mimeType)) {
+                mimeType = null;
+            }
+            log.debug("Cached resource '{}' ({} bytes)", resourceUrl, bytes.length);
+
+            return new StaticResource(resourceUrl, bytes, etag, lastModified, mimeType);
+        } catch (IOException e) {
+            log.warn("Failed to cache resource '{}'", resourceUrl, e);
+            return null;
+        }
+    }
+
+    private static String getFilename(URL url) {
+        String path = url.getPath();
+
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
     protected void sendResource(URL resourceUrl, RouteContext routeContext) throws IOException {
         String filename = resourceUrl.getFile();
         String mimeType = routeContext.getApplication().getMimeTypes().getContentType(filename);
+        File file = toFile(resourceUrl);
+        URLConnection connection = resourceUrl.openConnection();
+        String range = routeContext.getApplication().getHttpCacheToolkit().getRange(routeContext, connection.getLastModified());
         if (!StringUtils.isNullOrEmpty(mimeType)) {
             // stream the resource
             log.debug("Streaming as resource '{}'", resourceUrl);
             routeContext.getResponse().contentType(mimeType);
-            routeContext.getResponse().ok().resource(resourceUrl.openStream());
+            if (file != null) {
+                routeContext.getResponse().ok().resource(file, range);
+            } else {
+                routeContext.getResponse().ok().resource(connection.getInputStream(), connection.getContentLengthLong(), range);
+            }
         } else {
             // stream the file
             log.debug("Streaming as file '{}'", resourceUrl);
-            routeContext.getResponse().ok().file(filename, resourceUrl.openStream());
+            if (file != null) {
+                routeContext.getResponse().ok().file(file, range);
+            } else {
+                // the same filename as a cached resource (the last path segment)
+                routeContext.getResponse().filenameHeader(getFilename(resourceUrl));
+                routeContext.getResponse().ok().resource(connection.getInputStream(), connection.getContentLengthLong(), range);
+            }
+        }
+    }
+
+    /**
+     * Returns the file of a {@code file:} url or {@code null}.
+     */
+    static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends a compressed variant of the resource if the client accepts one.
+     *
+     * @return {@code false} if there is no compressed variant to send
+     */
+    protected boolean sendPrecompressedResource(URL resourceUrl, long lastModified, RouteContext routeContext) throws IOException {
+        Application application = routeContext.getApplication();
+        String mimeType = application.getMimeTypes().getContentType(resourceUrl.getFile());
+        if (StringUtils.isNullOrEmpty(mimeType) || !getCompressionPolicy(application).isCompressible(mimeType)) {
+            return false;
+        }
+
+        // the response depends on Accept-Encoding even if the resource is sent uncompressed
+        Response response = routeContext.getResponse();
+        response.header(HttpConstants.Header.VARY, HttpConstants.Header.ACCEPT_ENCODING);
+
+        String acceptEncoding = routeContext.getHeader(HttpConstants.Header.ACCEPT_ENCODING);
+        if (StringUtils.isNullOrEmpty(acceptEncoding) || (routeContext.getHeader(HttpConstants.Header.RANGE) != null)) {
+            // the byte ranges are served from the uncompressed resource
+            return false;
         }
+
+        float brotliQuality = AcceptEncoding.getQuality(acceptEncoding, BROTLI);
+        float gzipQuality = AcceptEncoding.getQuality(acceptEncoding, GZipContentEncoder.NAME);
+        if ((brotliQuality <= 0) && (gzipQuality <= 0)) {
+            return false;
+        }
+
+        boolean prod = application.getPippoSettings().isProd();
+        Sidecars sidecars = getSidecars(resourceUrl, lastModified, prod);
+
+        String encoding;
+        InputStream input;
+        long length;
+        if ((sidecars.brotli != null) && (brotliQuality > 0) && (brotliQuality >= gzipQuality || sidecars.gzip == null)) {
+            encoding = BROTLI;
+            URLConnection connection = sidecars.brotli.openConnection();
+            length = connection.getContentLengthLong();
+            input = connection.getInputStream();
+        } else if (gzipQuality <= 0) {
+            return false;
+        } else if (sidecars.gzip != null) {
+            encoding = GZipContentEncoder.NAME;
+            URLConnection connection = sidecars.gzip.openConnection();
+            length = connection.getContentLengthLong();
+            input = connection.getInputStream();
+        } else if (prod) {
+            byte[] bytes = getGeneratedGZip(resourceUrl, lastModified);
+            if (bytes == null) {
+                return false;
+            }
+            encoding = GZipContentEncoder.NAME;
+            length = bytes.length;
+            input = new ByteArrayInputStream(bytes);
+        } else {
+            return false;
+        }
+
+        log.debug("Streaming '{}' variant of resource '{}'", encoding, resourceUrl);
+        response.header(HttpConstants.Header.CONTENT_ENCODING, encoding);
+        String etag = response.getHeader(HttpConstants.Header.ETAG);
+        if (etag != null) {
+            // the compressed variant is a different representation
+            response.header(HttpConstants.Header.ETAG, HttpCacheToolkit.getEncodedEtag(etag, encoding));
+        }
+        if (length >= 0) {
+            response.contentLength(length);
+        }
+        response.contentType(mimeType);
+        response.ok().resource(input);
+
+        return true;
+    }
+
+    private CompressionPolicy getCompressionPolicy(Application application) {
+        RequestResponseFactory requestResponseFactory = application.getRequestResponseFactory();
+        if (requestResponseFactory instanceof GZipRequestResponseFactory) {
+            return ((GZipRequestResponseFactory) requestResponseFactory).getCompressionPolicy();
+        }
+
+        return DEFAULT_COMPRESSION_POLICY;
+    }
+
+    private Sidecars getSidecars(URL resourceUrl, long lastModified, boolean cache) {
+        if (!cache) {
+            return findSidecars(resourceUrl, lastModified);
+        }
+
+        String key = resourceUrl.toExternalForm();
+        Sidecars sidecars = sidecarsCache.get(key);
+        if ((sidecars == null) || (sidecars.lastModified != lastModified)) {
+            sidecars = findSidecars(resourceUrl, lastModified);
+            sidecarsCache.put(key, sidecars);
+        }
+
+        return sidecars;
+    }
+
+    private Sidecars findSidecars(URL resourceUrl, long lastModified) {
+        URL brotli = findSidecar(resourceUrl, ".br", lastModified);
+        URL gzip = findSidecar(resourceUrl, ".gz", lastModified);
+
+        return new Sidecars(brotli, gzip, lastModified);
+    }
+
+    /**
+     * Returns the url of the resource with the given extension if it exists and it's not older than the resource.
+     */
+    private URL findSidecar(URL resourceUrl, String extension, long lastModified) {
+        try {
+            URL url = new URL(resourceUrl.toExternalForm() + extension);
+            File file = toFile(url);
+            if (file != null) {
+                return (file.isFile() && file.lastModified() >= lastModified) ? url : null;
+            }
+
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try (InputStream input = connection.getInputStream()) {
+                long sidecarLastModified = connection.getLastModified();
+                return (sidecarLastModified == 0 || sidecarLastModified >= lastModified) ? url : null;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] getGeneratedGZip(URL resourceUrl, long lastModified) throws IOException {
+        String key = resourceUrl.toExternalForm() + '@' + lastModified;
+        byte[] bytes = generatedCache.get(key);
+        if (bytes != null) {
+            return (bytes.length > 0) ? bytes : null;
+        }
+
+        URLConnection connection = resourceUrl.openConnection();
+        long length = connection.getContentLengthLong();
+        if ((length < 0) || (length > MAX_GENERATED_SIZE)) {
+            return null;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream((int) length / 2 + 64);
+        try (InputStream input = connection.getInputStream(); OutputStream output = GZIP_ENCODER.encode(compressed, false)) {
+            IoUtils.copy(input, output);
+        }
+        bytes = compressed.toByteArray();
+        if (bytes.length >= length) {
+            // not worth it; remember it to not compress again
+            bytes = null;
+        }
+        log.debug("Compressed resource '{}' ({} -> {} bytes)", resourceUrl, length, (bytes != null) ? bytes.length : length);
+
+        // an empty array marks a resource that is not worth compressing
+        generatedCache.put(key, (bytes != null) ? bytes : new byte[0]);
+
+        return bytes;
+    }
+
+    private static class Sidecars {
+
+        private final URL brotli;
+        private final URL gzip;
+        private final long lastModified;
+
+        private Sidecars(URL brotli, URL gzip, long lastModified) {
+            this.brotli = brotli;
+            this.gzip = gzip;
+            this.lastModified = lastModified;
+        }
+
     }
 
 }
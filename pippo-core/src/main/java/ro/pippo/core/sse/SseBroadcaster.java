@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.sse;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the events to all the subscribed connections and keeps the last events in a ring buffer,
+ * so that a client that reconnects with a {@code Last-Event-ID} gets the events it missed.
+ * {@link #broadcast(SseEvent)} doesn't wait for the clients: each connection has its own bounded
+ * queue and a slow client loses events (see {@link SseEmitter.Overflow}).
+ */
+public class SseBroadcaster {
+
+    /**
+     * The default number of events kept for the clients that reconnect.
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 100;
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    // orders the history and the fan-out, so that a subscriber doesn't get an event twice
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final SseEvent[] history;
+    private int head;
+    private int count;
+    private long sequence;
+
+    public SseBroadcaster() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * @param historySize the number of events kept for the clients that reconnect, {@code 0} disables the resume
+     */
+    public SseBroadcaster(int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("The history size cannot be negative");
+        }
+
+        history = new SseEvent[historySize];
+    }
+
+    /**
+     * Subscribes the emitter; the events sent after its {@code Last-Event-ID} are sent first.
+     * If that id is no longer in the history, all the events in the history are sent.
+     * The emitter is unsubscribed when it's closed.
+     */
+    public void subscribe(SseEmitter emitter) {
+        lock.lock();
+        try {
+            String lastEventId = emitter.getLastEventId();
+            if (lastEventId != null) {
+                int start = 0;
+                for (int i = count - 1; i >= 0; i--) {
+                    if (lastEventId.equals(historyAt(i).getId())) {
+                        start = i + 1;
+                        break;
+                    }
+                }
+                for (int i = start; i < count; i++) {
+                    emitter.send(historyAt(i));
+                }
+            }
+            emitters.add(emitter);
+        } finally {
+            lock.unlock();
+        }
+
+        emitter.onClose(() -> emitters.remove(emitter));
+    }
+
+    /**
+     * Sends the event to all the subscribers. An event without an id gets a sequence number as id.
+     */
+    public void broadcast(SseEvent event) {
+        lock.lock();
+        try {
+            if (event.getId() == null) {
+                event = event.id(String.valueOf(++sequence));
+            }
+            if (history.length > 0) {
+                history[(head + count) % history.length] = event;
+                if (count < history.length) {
+                    count++;
+                } else {
+                    head = (head + 1) % history.length;
+                }
+            }
+
+            for (SseEmitter emitter : emitters) {
+                emitter.send(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends an event with the data to all the subscribers.
+     */
+    public void broadcast(String data) {
+        broadcast(SseEvent.data(data));
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Closes all the connections.
+     */
+    public void close() {
+        for (SseEmitter emitter : emitters) {
+            emitter.close();
+        }
+    }
+
+    private SseEvent historyAt(int index) {
+        return history[(head + index) % history.length];
+    }
+
+}
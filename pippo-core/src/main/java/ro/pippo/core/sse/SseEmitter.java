@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.sse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The server side of a server-sent events connection, created by {@link SseHandler}.
+ * {@link #send(SseEvent)} never blocks: the event is queued and written by a container thread
+ * when the client can take it. When the queue of a slow client is full, the new event
+ * is dropped or coalesced (see {@link Overflow}).
+ */
+public class SseEmitter {
+
+    private static final Logger log = LoggerFactory.getLogger(SseEmitter.class);
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * What happens with an event sent to a client whose queue is full.
+     */
+    public enum Overflow {
+
+        /**
+         * The new event is dropped.
+         */
+        DROP,
+
+        /**
+         * The new event replaces a queued event with the same name (the latest value wins)
+         * or, if there is none, the oldest queued event.
+         */
+        COALESCE
+
+    }
+
+    private final String lastEventId;
+    private final int maxQueueSize;
+    private final Overflow overflow;
+    private final Executor executor;
+
+    // guarded by itself
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Queue<Runnable> closeListeners = new ConcurrentLinkedQueue<>();
+
+    private volatile Flow.Subscriber<? super byte[]> subscriber;
+    private volatile boolean closing;
+    private volatile boolean closed;
+    private volatile boolean active;
+
+    /**
+     * @param lastEventId the {@code Last-Event-ID} sent by the client or {@code null}
+     * @param maxQueueSize the maximum number of events waiting for the client
+     * @param overflow what happens with an event when the queue is full
+     * @param executor runs the writes that aren't started by the container
+     */
+    public SseEmitter(String lastEventId, int maxQueueSize, Overflow overflow, Executor executor) {
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException("The maximum queue size must be positive");
+        }
+
+        this.lastEventId = lastEventId;
+        this.maxQueueSize = maxQueueSize;
+        this.overflow = Objects.requireNonNull(overflow);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Returns the id of the last event received by the client before it reconnected ({@code Last-Event-ID})
+     * or {@code null}.
+     */
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Queues the event for the client.
+     *
+     * @return {@code false} if the event was dropped (the queue is full or the emitter is closed)
+     */
+    public boolean send(SseEvent event) {
+        if (closing || closed) {
+            return false;
+        }
+
+        boolean accepted = offer(event);
+        if (!accepted) {
+            droppedCount.incrementAndGet();
+        }
+        active = true;
+        signal(false);
+
+        return accepted;
+    }
+
+    /**
+     * Queues an event with the data.
+     *
+     * @see #send(SseEvent)
+     */
+    public boolean send(String data) {
+        return send(SseEvent.data(data));
+    }
+
+    /**
+     * Closes the connection after the queued events were written.
+     */
+    public void close() {
+        closing = true;
+        signal(false);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of events dropped or replaced because the client was too slow.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Adds a listener that runs once, when the connection is closed by the server or the client.
+     */
+    public SseEmitter onClose(Runnable listener) {
+        closeListeners.add(listener);
+        if (closed) {
+            runCloseListeners();
+        }
+
+        return this;
+    }
+
+    /**
+     * Sends a comment to keep the connection open, unless an event was sent since the previous heartbeat
+     * or the client is behind. A failed heartbeat reveals a client that is gone.
+     */
+    void heartbeat() {
+        if (active) {
+            active = false;
+            return;
+        }
+
+        synchronized (queue) {
+            if (!queue.isEmpty()) {
+                return;
+            }
+            queue.add(new Entry(null, HEARTBEAT));
+        }
+        signal(false);
+    }
+
+    /**
+     * Returns the chunks to write, with the demand of the response writer.
+     */
+    Flow.Publisher<byte[]> publisher() {
+        return subscriber -> {
+            if (this.subscriber != null) {
+                throw new IllegalStateException("The emitter has already a subscriber");
+            }
+
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Subscription());
+        };
+    }
+
+    private boolean offer(SseEvent event) {
+        Entry entry = new Entry(event.getName(), event.toBytes());
+        synchronized (queue) {
+            if (queue.size() < maxQueueSize) {
+                queue.add(entry);
+                return true;
+            }
+
+            if (overflow == Overflow.DROP) {
+                return false;
+            }
+
+            // coalesce: the latest value of an event name wins
+            if (entry.name != null) {
+                Iterator<Entry> iterator = queue.iterator();
+                while (iterator.hasNext()) {
+                    if (entry.name.equals(iterator.next().name)) {
+                        iterator.remove();
+                        queue.add(entry);
+                        return false;
+                    }
+                }
+            }
+            queue.poll();
+            queue.add(entry);
+
+            return false;
+        }
+    }
+
+    private void signal(boolean inline) {
+        if (wip.getAndIncrement() != 0) {
+            // the thread in deliver() makes another pass
+            return;
+        }
+
+        if (inline) {
+            deliver();
+            return;
+        }
+
+        try {
+            executor.execute(this::deliver);
+        } catch (RuntimeException e) {
+            // the request is already completed
+            log.debug("Cannot write the server-sent events", e);
+            cancel();
+        }
+    }
+
+    private void deliver() {
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super byte[]> s = subscriber;
+            if (s != null && !closed) {
+                while (demand.get() > 0) {
+                    byte[] chunk;
+                    synchronized (queue) {
+                        Entry entry = queue.poll();
+                        chunk = (entry != null) ? entry.bytes : null;
+                    }
+                    if (chunk == null) {
+                        break;
+                    }
+                    demand.decrementAndGet();
+                    s.onNext(chunk);
+                }
+
+                if (closing && !closed && isQueueEmpty()) {
+                    closed = true;
+                    s.onComplete();
+                    runCloseListeners();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean isQueueEmpty() {
+        synchronized (queue) {
+            return queue.isEmpty();
+        }
+    }
+
+    private void cancel() {
+        closed = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+        runCloseListeners();
+    }
+
+    private void runCloseListeners() {
+        Runnable listener;
+        while ((listener = closeListeners.poll()) != null) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Error in the close listener of a server-sent events connection", e);
+            }
+        }
+    }
+
+    private class Subscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                return;
+            }
+
+            demand.getAndAccumulate(n, (current, added) -> (current + added < 0) ? Long.MAX_VALUE : current + added);
+            // the writer is ready, continue on its thread
+            signal(true);
+        }
+
+        @Override
+        public void cancel() {
+            SseEmitter.this.cancel();
+        }
+
+    }
+
+    private static class Entry {
+
+        private final String name;
+        private final byte[] bytes;
+
+        private Entry(String name, byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
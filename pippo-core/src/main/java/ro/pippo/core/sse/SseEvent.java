@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.sse;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An immutable server-sent event; the {@code with} style methods return a copy.
+ * The wire format is computed once, so an event broadcast to many clients is encoded only once.
+ *
+ * <pre>
+ * SseEvent event = SseEvent.data("{\"price\": 10}").name("price").id("42");
+ * </pre>
+ */
+public final class SseEvent {
+
+    private final String id;
+    private final String name;
+    private final String data;
+    private final long retry;
+
+    private volatile byte[] bytes;
+
+    private SseEvent(String id, String name, String data, long retry) {
+        this.id = id;
+        this.name = name;
+        this.data = data;
+        this.retry = retry;
+    }
+
+    /**
+     * Creates an event with the data; a multiline data is sent as multiple {@code data} fields.
+     */
+    public static SseEvent data(String data) {
+        if (data == null) {
+            throw new IllegalArgumentException("The data cannot be null");
+        }
+
+        return new SseEvent(null, null, data, -1);
+    }
+
+    /**
+     * Returns a copy with the id; the client sends the id of the last received event
+     * in the {@code Last-Event-ID} header when it reconnects.
+     */
+    public SseEvent id(String id) {
+        return new SseEvent(checkField("id", id), name, data, retry);
+    }
+
+    /**
+     * Returns a copy with the event name ({@code event} field); a client listens for a name with
+     * {@code addEventListener(name, ...)}, the events without a name go to {@code onmessage}.
+     */
+    public SseEvent name(String name) {
+        return new SseEvent(id, checkField("name", name), data, retry);
+    }
+
+    /**
+     * Returns a copy with the reconnection delay of the client in milliseconds.
+     */
+    public SseEvent retry(long retry) {
+        if (retry < 0) {
+            throw new IllegalArgumentException("The retry cannot be negative");
+        }
+
+        return new SseEvent(id, name, data, retry);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Returns the reconnection delay in milliseconds or {@code -1} if it's not set.
+     */
+    public long getRetry() {
+        return retry;
+    }
+
+    /**
+     * Returns the event in the {@code text/event-stream} format, UTF-8 encoded.
+     */
+    byte[] toBytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder(data.length() + 32);
+            if (id != null) {
+                builder.append("id: ").append(id).append('\n');
+            }
+            if (name != null) {
+                builder.append("event: ").append(name).append('\n');
+            }
+            if (retry >= 0) {
+                builder.append("retry: ").append(retry).append('\n');
+            }
+            for (String line : data.split("\r\n|\r|\n", -1)) {
+                builder.append("data: ").append(line).append('\n');
+            }
+            builder.append('\n');
+
+            result = builder.toString().getBytes(StandardCharsets.UTF_8);
+            bytes = result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SseEvent{id='" + id + "', name='" + name + "', data='" + data + "'}";
+    }
+
+    private static String checkField(String field, String value) {
+        if (value != null && (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)) {
+            throw new IllegalArgumentException("The " + field + " cannot contain line breaks");
+        }
+
+        return value;
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.sse;
+
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.Response;
+import ro.pippo.core.StreamFormat;
+import ro.pippo.core.route.RouteContext;
+import ro.pippo.core.route.RouteHandler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Opens a server-sent events ({@code text/event-stream}) connection for each request and hands
+ * the {@link SseEmitter} to a listener.
+ * The connection uses the servlet asynchronous I/O (see {@link RouteContext#stream}), so an open
+ * connection doesn't hold a thread.
+ *
+ * <pre>
+ * SseBroadcaster prices = new SseBroadcaster();
+ * GET("/prices", new SseHandler(prices));
+ * ...
+ * prices.broadcast(SseEvent.data(json).name("price"));
+ * </pre>
+ */
+public class SseHandler implements RouteHandler<RouteContext> {
+
+    /**
+     * The default interval in milliseconds between two heartbeats of an idle connection.
+     */
+    public static final long DEFAULT_HEARTBEAT_INTERVAL = 15_000;
+
+    /**
+     * The default maximum number of events waiting for a client.
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 256;
+
+    private final Consumer<SseEmitter> listener;
+
+    private long heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+    private SseEmitter.Overflow overflow = SseEmitter.Overflow.DROP;
+
+    /**
+     * @param listener receives the emitter of each new connection
+     */
+    public SseHandler(Consumer<SseEmitter> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("The listener cannot be null");
+        }
+
+        this.listener = listener;
+    }
+
+    /**
+     * Subscribes each new connection to the broadcaster.
+     */
+    public SseHandler(SseBroadcaster broadcaster) {
+        this(broadcaster::subscribe);
+    }
+
+    @Override
+    public void handle(RouteContext routeContext) {
+        Response response = routeContext.getResponse();
+        response.contentType(HttpConstants.ContentType.TEXT_EVENT_STREAM);
+        response.characterEncoding(StandardCharsets.UTF_8.name());
+        response.noCache();
+
+        HttpServletRequest httpServletRequest = routeContext.getRequest().getHttpServletRequest();
+        String lastEventId = routeContext.getRequest().getHeader(HttpConstants.Header.LAST_EVENT_ID);
+        // the writes requested by a sender run on the container threads
+        Executor executor = task -> httpServletRequest.getAsyncContext().start(task);
+        SseEmitter emitter = new SseEmitter(lastEventId, maxQueueSize, overflow, executor);
+
+        routeContext.stream(emitter.publisher(), StreamFormat.RAW);
+
+        if (heartbeatInterval > 0) {
+            ScheduledFuture<?> heartbeat = HeartbeatScheduler.INSTANCE.scheduleAtFixedRate(emitter::heartbeat,
+                heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+            emitter.onClose(() -> heartbeat.cancel(false));
+        }
+
+        listener.accept(emitter);
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    /**
+     * Sends a comment on an idle connection at this interval, so that proxies keep it open
+     * and a client that is gone is detected. A value of {@code 0} disables the heartbeats.
+     *
+     * @param heartbeatInterval the interval in milliseconds
+     */
+    public SseHandler setHeartbeatInterval(long heartbeatInterval) {
+        if (heartbeatInterval < 0) {
+            throw new IllegalArgumentException("The heartbeat interval cannot be negative");
+        }
+
+        this.heartbeatInterval = heartbeatInterval;
+
+        return this;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of events waiting for a slow client, see {@link #setOverflow(SseEmitter.Overflow)}.
+     */
+    public SseHandler setMaxQueueSize(int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException("The maximum queue size must be positive");
+        }
+
+        this.maxQueueSize = maxQueueSize;
+
+        return this;
+    }
+
+    public SseEmitter.Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Sets what happens with an event sent to a client whose queue is full; the default is
+     * {@link SseEmitter.Overflow#DROP}.
+     */
+    public SseHandler setOverflow(SseEmitter.Overflow overflow) {
+        if (overflow == null) {
+            throw new IllegalArgumentException("The overflow cannot be null");
+        }
+
+        this.overflow = overflow;
+
+        return this;
+    }
+
+    /**
+     * One daemon thread for the heartbeats of all the connections.
+     */
+    private static class HeartbeatScheduler {
+
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "pippo-sse-heartbeat");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+
+            return executor;
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A satisfiable byte range of a representation (the positions are inclusive).
+ * See <a href="https://tools.ietf.org/html/rfc7233">RFC 7233</a>.
+ */
+public class ByteRange {
+
+    /**
+     * A {@code Range} header with more ranges is ignored.
+     */
+    public static final int MAX_RANGES = 32;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    public ByteRange(long start, long end) {
+        if ((start < 0) || (end < start)) {
+            throw new IllegalArgumentException("Invalid byte range: " + start + "-" + end);
+        }
+
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * Returns the value of the {@code Content-Range} header for this range.
+     */
+    public String getContentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Parses the value of a {@code Range} header for a representation with the given length.
+     * The ranges are sorted and the overlapping or adjacent ranges are merged.
+     *
+     * @return {@code null} if the header is missing, invalid or it should be ignored (the whole representation is sent),
+     * an empty list if no range is satisfiable (416) or the satisfiable ranges
+     */
+    public static List<ByteRange> parse(String range, long length) {
+        if ((range == null) || !range.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+
+        String[] specs = range.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        boolean empty = true;
+        for (String spec : specs) {
+            spec = spec.trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            empty = false;
+
+            int dash = spec.indexOf('-');
+            if (dash == -1) {
+                return null;
+            }
+
+            long first = parsePosition(spec, 0, dash);
+            long last = parsePosition(spec, dash + 1, spec.length());
+            if (dash == 0) {
+                // suffix range (the last bytes)
+                if (last < 0) {
+                    return null;
+                }
+                if ((last > 0) && (length > 0)) {
+                    ranges.add(new ByteRange(Math.max(0, length - last), length - 1));
+                }
+            } else {
+                if ((first < 0) || ((dash < spec.length() - 1) && (last < first))) {
+                    return null;
+                }
+                if (first < length) {
+                    long end = (dash == spec.length() - 1) ? length - 1 : Math.min(last, length - 1);
+                    ranges.add(new ByteRange(first, end));
+                }
+            }
+        }
+
+        if (empty) {
+            return null;
+        }
+
+        return merge(ranges);
+    }
+
+    private static List<ByteRange> merge(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return Collections.unmodifiableList(ranges);
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.start <= current.end + 1) {
+                current = new ByteRange(current.start, Math.max(current.end, next.end));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * Returns the position, {@link Long#MAX_VALUE} on overflow or -1 if it's not a number.
+     */
+    private static long parsePosition(String spec, int begin, int end) {
+        if (begin == end) {
+            return -1;
+        }
+
+        long position = 0;
+        for (int i = begin; i < end; i++) {
+            char ch = spec.charAt(i);
+            if ((ch < '0') || (ch > '9')) {
+                return -1;
+            }
+            if (position > (Long.MAX_VALUE - (ch - '0')) / 10) {
+                return Long.MAX_VALUE;
+            }
+            position = position * 10 + (ch - '0');
+        }
+
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ByteRange byteRange = (ByteRange) o;
+
+        return start == byteRange.start && end == byteRange.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(start) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+
+}
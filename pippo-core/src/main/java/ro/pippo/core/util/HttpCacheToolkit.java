@@ -19,40 +19,56 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ro.pippo.core.HttpConstants;
 import ro.pippo.core.PippoConstants;
+import ro.pippo.core.PippoRuntimeException;
 import ro.pippo.core.PippoSettings;
 import ro.pippo.core.route.RouteContext;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 
 /**
- * HttpCacheToolkit adapted from Ninja Web Framework
+ * HttpCacheToolkit adapted from Ninja Web Framework.
+ * It handles the cache headers and the conditional requests ({@code If-None-Match}, {@code If-Modified-Since}
+ * and {@code If-Range}). The settings are read once, at the first use.
  */
 public class HttpCacheToolkit {
 
     private static final Logger log = LoggerFactory.getLogger(HttpCacheToolkit.class);
 
+    private static final String WEAK_PREFIX = "W/";
+
     private final PippoSettings pippoSettings;
 
+    private volatile CacheSettings cacheSettings;
+
+    // the last parsed If-Modified-Since value (the browsers send the same value for many resources)
+    private volatile HttpDate lastHttpDate;
+
     public HttpCacheToolkit(PippoSettings pippoSettings) {
         this.pippoSettings = pippoSettings;
     }
 
+    /**
+     * Returns {@code false} if the client has the resource with the given ETag or last modified
+     * (the response can be 304).
+     */
     public boolean isModified(String etag, long lastModified, RouteContext routeContext) {
         final String browserEtag = routeContext.getHeader(HttpConstants.Header.IF_NONE_MATCH);
-        if (browserEtag != null && !StringUtils.isNullOrEmpty(etag)) {
-            return !(browserEtag.equals(etag));
+        if (browserEtag != null && (!StringUtils.isNullOrEmpty(etag) || "*".equals(browserEtag.trim()))) {
+            // If-Modified-Since is ignored if If-None-Match is present
+            return !matches(browserEtag, etag);
         }
 
         final String ifModifiedSince = routeContext.getHeader(HttpConstants.Header.IF_MODIFIED_SINCE);
         if ((lastModified > 0) && !StringUtils.isNullOrEmpty(ifModifiedSince)) {
-            try {
-                Date browserDate = DateUtils.parseHttpDateFormat(ifModifiedSince);
-                if (browserDate.getTime() >= lastModified) {
-                    return false;
-                }
-            } catch (ParseException e) {
-                log.warn("Can't parse HTTP date", e);
+            long browserTime = parseHttpDate(ifModifiedSince);
+            // the HTTP date has a precision of one second
+            if ((browserTime != -1) && (browserTime >= lastModified / 1000 * 1000)) {
+                return false;
             }
         }
 
@@ -60,33 +76,269 @@ public class HttpCacheToolkit {
     }
 
     public void addEtag(RouteContext routeContext, long lastModified) {
-        if (pippoSettings.isProd()) {
-            String maxAge = pippoSettings.getString(PippoConstants.SETTING_HTTP_CACHE_CONTROL, "3600");
-            if (maxAge.equals("0")) {
-                routeContext.setHeader(HttpConstants.Header.CACHE_CONTROL, "no-cache");
-            } else {
-                routeContext.setHeader(HttpConstants.Header.CACHE_CONTROL, "max-age=" + maxAge);
-            }
-        } else {
-            routeContext.setHeader(HttpConstants.Header.CACHE_CONTROL, "no-cache");
-        }
+        addEtag(routeContext, getEtag(lastModified), lastModified);
+    }
+
+    /**
+     * Adds the cache headers for a resource with a known ETag (for example a content hash)
+     * and sets the status to 304 if the client has the same version of the resource.
+     */
+    public void addEtag(RouteContext routeContext, String resourceEtag, long lastModified) {
+        CacheSettings settings = getCacheSettings();
+        routeContext.setHeader(HttpConstants.Header.CACHE_CONTROL, settings.cacheControl);
 
         // Use etag on demand:
         String etag = null;
-
-        boolean useEtag = pippoSettings.getBoolean(PippoConstants.SETTING_HTTP_USE_ETAG, true);
-        if (useEtag) {
-            // ETag right now is only lastModified long.
-            // maybe we change that in the future.
-            etag = "\"" + lastModified + "\"";
+        if (settings.useEtag) {
+            etag = resourceEtag;
             routeContext.setHeader(HttpConstants.Header.ETAG, etag);
         }
 
         if (isModified(etag, lastModified, routeContext)) {
             routeContext.setHeader(HttpConstants.Header.LAST_MODIFIED, DateUtils.formatForHttpHeader(lastModified));
-        } else if (routeContext.isRequestMethod(HttpConstants.Method.GET)) {
+        } else if (routeContext.isRequestMethod(HttpConstants.Method.GET) || routeContext.isRequestMethod(HttpConstants.Method.HEAD)) {
             routeContext.status(HttpConstants.StatusCode.NOT_MODIFIED);
         }
     }
 
+    /**
+     * Sets the validators of a (dynamic) response and, if the client has the same version,
+     * commits the response with the 304 status.
+     * A route handler can call this method before doing any expensive work:
+     * <pre>
+     * Contact contact = contactService.getContact(id);
+     * String etag = httpCacheToolkit.getWeakEtag(contact.getVersion());
+     * if (httpCacheToolkit.checkNotModified(routeContext, etag, contact.getUpdated())) {
+     *     return;
+     * }
+     * routeContext.render("contact");
+     * </pre>
+     *
+     * @param etag the ETag of the response or {@code null}
+     * @param lastModified the last modified time of the response or {@code -1}
+     * @return {@code true} if the response was committed with the 304 status
+     */
+    public boolean checkNotModified(RouteContext routeContext, String etag, long lastModified) {
+        if (etag != null) {
+            routeContext.setHeader(HttpConstants.Header.ETAG, etag);
+        }
+        if (lastModified > 0) {
+            routeContext.setHeader(HttpConstants.Header.LAST_MODIFIED, DateUtils.formatForHttpHeader(lastModified));
+        }
+
+        boolean safeMethod = routeContext.isRequestMethod(HttpConstants.Method.GET)
+            || routeContext.isRequestMethod(HttpConstants.Method.HEAD);
+        if (safeMethod && ((etag != null) || (lastModified > 0)) && !isModified(etag, lastModified, routeContext)) {
+            routeContext.status(HttpConstants.StatusCode.NOT_MODIFIED);
+            routeContext.getResponse().commit();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the ETag of a resource.
+     */
+    public String getEtag(long lastModified) {
+        // ETag right now is only lastModified long.
+        // maybe we change that in the future.
+        return "\"" + lastModified + "\"";
+    }
+
+    /**
+     * Returns a strong ETag computed from the content (SHA-256).
+     */
+    public String getEtag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            // 128 bits are enough
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new PippoRuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns a weak ETag (a semantically equivalent version, not a byte-for-byte one)
+     * for a dynamic response, for example {@code W/"42"} for the version {@code 42} of an entity.
+     */
+    public String getWeakEtag(String version) {
+        if (version.indexOf('"') != -1) {
+            throw new IllegalArgumentException("An ETag cannot contain '\"'");
+        }
+
+        return WEAK_PREFIX + "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the ETag of the content encoded variant of a resource (for example {@code "abc+gzip"} for {@code "abc"}).
+     * The weak ETags are returned unchanged.
+     */
+    public static String getEncodedEtag(String etag, String encoding) {
+        if (etag.startsWith(WEAK_PREFIX) || (etag.length() < 2) || !etag.endsWith("\"")) {
+            return etag;
+        }
+
+        return etag.substring(0, etag.length() - 1) + "+" + encoding + "\"";
+    }
+
+    /**
+     * Returns {@code true} if the value of an {@code If-None-Match} header (a list of ETags or {@code *})
+     * matches the ETag, using the weak comparison.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        String opaqueTag = (etag != null) ? getOpaqueTag(etag) : null;
+
+        int length = ifNoneMatch.length();
+        int i = 0;
+        while (i < length) {
+            char ch = ifNoneMatch.charAt(i);
+            if ((ch == ' ') || (ch == '\t') || (ch == ',')) {
+                i++;
+            } else if (ch == '*') {
+                return true;
+            } else {
+                if (ifNoneMatch.startsWith(WEAK_PREFIX, i)) {
+                    i += WEAK_PREFIX.length();
+                }
+                if ((i >= length) || (ifNoneMatch.charAt(i) != '"')) {
+                    // invalid entity tag
+                    return false;
+                }
+                int end = ifNoneMatch.indexOf('"', i + 1);
+                if (end == -1) {
+                    return false;
+                }
+                if (opaqueTag != null) {
+                    String candidate = ifNoneMatch.substring(i, end + 1);
+                    if (candidate.equals(opaqueTag) || removeEncoding(candidate).equals(opaqueTag)) {
+                        return true;
+                    }
+                }
+                i = end + 1;
+            }
+        }
+
+        return false;
+    }
+
+    public String getRange(RouteContext routeContext, long lastModified) {
+        return getRange(routeContext, getEtag(lastModified), lastModified);
+    }
+
+    /**
+     * Returns the value of the {@code Range} header of a GET request or {@code null}
+     * if there is no such header or the {@code If-Range} condition is not met
+     * (the resource changed and it must be sent entirely).
+     */
+    public String getRange(RouteContext routeContext, String etag, long lastModified) {
+        String range = routeContext.getHeader(HttpConstants.Header.RANGE);
+        if (StringUtils.isNullOrEmpty(range) || !routeContext.isRequestMethod(HttpConstants.Method.GET)) {
+            return null;
+        }
+
+        String ifRange = routeContext.getHeader(HttpConstants.Header.IF_RANGE);
+        if (StringUtils.isNullOrEmpty(ifRange)) {
+            return range;
+        }
+
+        if (ifRange.startsWith("\"")) {
+            // a strong entity tag
+            return (getCacheSettings().useEtag && ifRange.equals(etag)) ? range : null;
+        }
+
+        if (ifRange.startsWith(WEAK_PREFIX)) {
+            // a weak entity tag never matches
+            return null;
+        }
+
+        long time = parseHttpDate(ifRange);
+        // the HTTP date has a precision of one second
+        return ((lastModified > 0) && (time == lastModified / 1000 * 1000)) ? range : null;
+    }
+
+    private CacheSettings getCacheSettings() {
+        CacheSettings settings = cacheSettings;
+        if (settings == null) {
+            settings = new CacheSettings(pippoSettings);
+            cacheSettings = settings;
+        }
+
+        return settings;
+    }
+
+    /**
+     * Returns the time of a HTTP date or -1 if it cannot be parsed.
+     */
+    private long parseHttpDate(String value) {
+        HttpDate httpDate = lastHttpDate;
+        if ((httpDate != null) && httpDate.value.equals(value)) {
+            return httpDate.time;
+        }
+
+        long time;
+        try {
+            Date date = DateUtils.parseHttpDateFormat(value);
+            time = date.getTime();
+        } catch (ParseException e) {
+            log.debug("Can't parse HTTP date '{}'", value);
+            time = -1;
+        }
+        lastHttpDate = new HttpDate(value, time);
+
+        return time;
+    }
+
+    private static String getOpaqueTag(String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+    }
+
+    /**
+     * Removes the content encoding added by {@link #getEncodedEtag(String, String)}.
+     */
+    private static String removeEncoding(String opaqueTag) {
+        int index = opaqueTag.lastIndexOf('+');
+        if (index == -1) {
+            return opaqueTag;
+        }
+
+        String encoding = opaqueTag.substring(index + 1, opaqueTag.length() - 1);
+        if (!"gzip".equals(encoding) && !"br".equals(encoding)) {
+            return opaqueTag;
+        }
+
+        return opaqueTag.substring(0, index) + "\"";
+    }
+
+    private static class CacheSettings {
+
+        private final String cacheControl;
+        private final boolean useEtag;
+
+        private CacheSettings(PippoSettings pippoSettings) {
+            if (pippoSettings.isProd()) {
+                String maxAge = pippoSettings.getString(PippoConstants.SETTING_HTTP_CACHE_CONTROL, "3600");
+                cacheControl = maxAge.equals("0") ? "no-cache" : "max-age=" + maxAge;
+            } else {
+                cacheControl = "no-cache";
+            }
+            useEtag = pippoSettings.getBoolean(PippoConstants.SETTING_HTTP_USE_ETAG, true);
+        }
+
+    }
+
+    private static class HttpDate {
+
+        private final String value;
+        private final long time;
+
+        private HttpDate(String value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+
+    }
+
 }
@@ -18,6 +18,7 @@ package ro.pippo.core.util;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
@@ -28,13 +29,23 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * @author Decebal Suiu
  */
 public class IoUtils {
 
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    // the buffers used to copy a file channel to an output stream
+    private static final BlockingQueue<byte[]> transferBuffers =
+        new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
     private IoUtils() {}
 
     /**
@@ -44,7 +55,7 @@ public class IoUtils {
      * @throws IOException if an I/O error occurs
      */
     public static long copy(InputStream input, OutputStream output) throws IOException {
-        byte[] buffer = new byte[2 * 1024];
+        byte[] buffer = new byte[8 * 1024];
         long total = 0;
         int count;
         while ((count = input.read(buffer)) != -1) {
@@ -55,6 +66,76 @@ public class IoUtils {
         return total;
     }
 
+    /**
+     * Copies the given number of bytes from an InputStream to an OutputStream.
+     *
+     * @throws EOFException if the input stream ends before
+     * @throws IOException if an I/O error occurs
+     */
+    public static void copy(InputStream input, OutputStream output, long length) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(8 * 1024, Math.max(length, 1))];
+        long remaining = length;
+        while (remaining > 0) {
+            int count = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (count == -1) {
+                throw new EOFException("Unexpected end of stream, " + remaining + " bytes missing");
+            }
+            output.write(buffer, 0, count);
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Copies a region of a file channel to an OutputStream using a pooled 64 KB buffer.
+     * The channel position is not changed.
+     *
+     * @throws EOFException if the file ends before
+     * @throws IOException if an I/O error occurs
+     */
+    public static void copy(FileChannel channel, long position, long count, OutputStream output) throws IOException {
+        byte[] buffer = transferBuffers.poll();
+        if (buffer == null) {
+            buffer = new byte[TRANSFER_BUFFER_SIZE];
+        }
+
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long end = position + count;
+            while (position < end) {
+                byteBuffer.clear().limit((int) Math.min(buffer.length, end - position));
+                int read = channel.read(byteBuffer, position);
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of file at position " + position);
+                }
+                output.write(buffer, 0, read);
+                position += read;
+            }
+        } finally {
+            transferBuffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Skips exactly the given number of bytes of an InputStream.
+     *
+     * @throws EOFException if the input stream ends before
+     * @throws IOException if an I/O error occurs
+     */
+    public static void skip(InputStream input, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                // skip() may return 0 before the end of the stream
+                if (input.read() == -1) {
+                    throw new EOFException("Unexpected end of stream, " + remaining + " bytes to skip");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
     public static String toString(InputStream input) throws IOException {
         StringWriter writer = new StringWriter();
         copy(input, writer);
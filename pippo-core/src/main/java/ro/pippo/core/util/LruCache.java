@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe cache with a maximum number of entries; the least recently used entries are evicted first.
+ * The entries are spread over some segments (each one with its own lock and its own LRU order),
+ * so the eviction order is approximate but the size is always bounded.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxSize;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+
+        this.maxSize = maxSize;
+
+        int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // split maxSize between segments
+            int size = maxSize / segmentCount + ((i < maxSize % segmentCount) ? 1 : 0);
+            segments[i] = new Segment<>(size);
+        }
+
+        hitCount = new LongAdder();
+        missCount = new LongAdder();
+    }
+
+    /**
+     * Returns the cached value or {@code null}.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = getSegment(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = getSegment(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = getSegment(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "LruCache{" +
+            "size=" + size() +
+            ", maxSize=" + maxSize +
+            ", hitCount=" + getHitCount() +
+            ", missCount=" + getMissCount() +
+            '}';
+    }
+
+    private Segment<K, V> getSegment(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of prefixes that answers "does this value start with one of the prefixes"
+ * with a binary search instead of a {@code startsWith} call for each prefix.
+ * <p>
+ * The prefixes that start with another prefix of the set are dropped (they cannot change the answer),
+ * so for a value the only candidate is the greatest prefix that is less than or equal to the value.
+ * </p>
+ */
+public final class PrefixMatcher {
+
+    private static final PrefixMatcher EMPTY = new PrefixMatcher(new String[0]);
+
+    private final String[] prefixes;
+
+    private PrefixMatcher(String[] prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    public static PrefixMatcher of(Collection<String> prefixes) {
+        if (prefixes.isEmpty()) {
+            return EMPTY;
+        }
+
+        String[] sorted = prefixes.toArray(new String[0]);
+        Arrays.sort(sorted);
+
+        // keep only the shortest prefixes; "/a" makes "/a/b" useless
+        List<String> minimal = new ArrayList<>(sorted.length);
+        for (String prefix : sorted) {
+            if (minimal.isEmpty() || !prefix.startsWith(minimal.get(minimal.size() - 1))) {
+                minimal.add(prefix);
+            }
+        }
+
+        return new PrefixMatcher(minimal.toArray(new String[0]));
+    }
+
+    /**
+     * Returns {@code true} if the value starts with one of the prefixes.
+     */
+    public boolean matches(String value) {
+        if (prefixes.length == 0) {
+            return false;
+        }
+
+        int index = Arrays.binarySearch(prefixes, value);
+        if (index >= 0) {
+            return true;
+        }
+
+        // the greatest prefix less than the value
+        int floor = -index - 2;
+
+        return (floor >= 0) && value.startsWith(prefixes[floor]);
+    }
+
+    public boolean isEmpty() {
+        return prefixes.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PrefixMatcher" + Arrays.toString(prefixes);
+    }
+
+}
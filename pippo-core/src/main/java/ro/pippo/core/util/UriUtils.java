@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Uri utility functions.
+ */
+public class UriUtils {
+
+    private UriUtils() {}
+
+    /**
+     * Decodes the percent escapes ({@code %XX}) of a raw uri path (as returned by
+     * {@code HttpServletRequest.getRequestURI()}) with the same rules as {@link java.net.URI#getPath()}:
+     * the escaped bytes are decoded as UTF-8 (malformed sequences are replaced with {@code U+FFFD})
+     * and {@code +} is not a space.
+     * The raw path is returned as is (no allocation) if it doesn't contain escapes.
+     *
+     * @param rawPath the raw path
+     * @return the decoded path
+     * @throws IllegalArgumentException if an escape is malformed
+     */
+    public static String decodePath(String rawPath) {
+        int index = rawPath.indexOf('%');
+        if (index == -1) {
+            return rawPath;
+        }
+
+        int length = rawPath.length();
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(rawPath, 0, index);
+        byte[] bytes = null;
+        while (index < length) {
+            char c = rawPath.charAt(index);
+            if (c != '%') {
+                sb.append(c);
+                index++;
+                continue;
+            }
+
+            // decode all consecutive escapes together (a character can be encoded on many bytes)
+            if (bytes == null) {
+                bytes = new byte[(length - index) / 3];
+            }
+            int count = 0;
+            boolean ascii = true;
+            while ((index < length) && (rawPath.charAt(index) == '%')) {
+                bytes[count] = decodeEscape(rawPath, index);
+                ascii &= (bytes[count] >= 0);
+                count++;
+                index += 3;
+            }
+
+            if (ascii) {
+                for (int i = 0; i < count; i++) {
+                    sb.append((char) bytes[i]);
+                }
+            } else {
+                sb.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static byte decodeEscape(String rawPath, int index) {
+        if (index + 2 >= rawPath.length()) {
+            throw new IllegalArgumentException("Malformed escape pair at index " + index + ": " + rawPath);
+        }
+
+        int high = hexValue(rawPath.charAt(index + 1));
+        int low = hexValue(rawPath.charAt(index + 2));
+        if ((high == -1) || (low == -1)) {
+            throw new IllegalArgumentException("Malformed escape pair at index " + index + ": " + rawPath);
+        }
+
+        return (byte) ((high << 4) + low);
+    }
+
+    private static int hexValue(char c) {
+        if ((c >= '0') && (c <= '9')) {
+            return c - '0';
+        } else if ((c >= 'a') && (c <= 'f')) {
+            return c - 'a' + 10;
+        } else if ((c >= 'A') && (c <= 'F')) {
+            return c - 'A' + 10;
+        }
+
+        return -1;
+    }
+
+}
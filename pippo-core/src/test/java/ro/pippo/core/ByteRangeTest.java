@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.util.ByteRange;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ByteRangeTest {
+
+    @Test
+    public void testSingleRange() {
+        assertEquals(Collections.singletonList(new ByteRange(0, 499)), ByteRange.parse("bytes=0-499", 1000));
+        assertEquals(Collections.singletonList(new ByteRange(500, 999)), ByteRange.parse("bytes=500-", 1000));
+        assertEquals(Collections.singletonList(new ByteRange(900, 999)), ByteRange.parse("bytes=-100", 1000));
+        // the last position and the suffix are limited to the length
+        assertEquals(Collections.singletonList(new ByteRange(500, 999)), ByteRange.parse("bytes=500-5000", 1000));
+        assertEquals(Collections.singletonList(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", 1000));
+        assertEquals(Collections.singletonList(new ByteRange(10, 999)), ByteRange.parse("bytes=10-99999999999999999999", 1000));
+    }
+
+    @Test
+    public void testMultipleRanges() {
+        assertEquals(Arrays.asList(new ByteRange(0, 9), new ByteRange(100, 109), new ByteRange(990, 999)),
+            ByteRange.parse("bytes=100-109, -10,0-9", 1000));
+        // overlapping and adjacent ranges are merged
+        assertEquals(Collections.singletonList(new ByteRange(0, 199)), ByteRange.parse("bytes=0-99,50-149,150-199", 1000));
+    }
+
+    @Test
+    public void testNotSatisfiable() {
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=1000-", 1000));
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=-0", 1000));
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=0-", 0));
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=99999999999999999999-", 1000));
+    }
+
+    @Test
+    public void testIgnored() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-10", 1000));
+        assertNull(ByteRange.parse("bytes=", 1000));
+        assertNull(ByteRange.parse("bytes=10", 1000));
+        assertNull(ByteRange.parse("bytes=10-5", 1000));
+        assertNull(ByteRange.parse("bytes=a-5", 1000));
+        assertNull(ByteRange.parse("bytes=-", 1000));
+
+        StringBuilder range = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRange.MAX_RANGES; i++) {
+            range.append(',').append(i * 2).append('-').append(i * 2);
+        }
+        assertNull(ByteRange.parse(range.toString(), 1000));
+    }
+
+    @Test
+    public void testContentRange() {
+        assertEquals("bytes 0-499/1000", new ByteRange(0, 499).getContentRange(1000));
+        assertEquals(500, new ByteRange(0, 499).getLength());
+    }
+
+}
@@ -56,6 +56,17 @@ public class DefaultUriMatcherTest {
         assertEquals(params.get("id"), "3");
     }
 
+    @Test
+    public void testPathParamsWithGroups() {
+        String uriPattern = "/(fr|de)/{id: (a|b)+}/\\Q(x)\\E/{name: [(]?[^/)]+}/{name}";
+        uriMatcher.addUriPattern(uriPattern);
+        Map<String, String> params = uriMatcher.match("/fr/abba/(x)/(y/z", uriPattern);
+        assertNotNull(params);
+        assertEquals(2, params.size());
+        assertEquals("abba", params.get("id"));
+        assertEquals("z", params.get("name"));
+    }
+
     @Test
     public void testNoBinding() {
         Executable executable = () -> uriMatcher.match("/contact/1", "/contact/{id}");
@@ -120,6 +131,19 @@ public class DefaultUriMatcherTest {
         assertThat(path, equalTo("/user/test@test.com/5?query=recent_changes"));
     }
 
+    @Test
+    public void testUriForWithTemplate() throws Exception {
+        UriMatcher.UriPatternBinding binding = uriMatcher.addUriPattern("/{lang}/user/{id: [0-9]+}/{lang}/{tab}");
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("lang", "en");
+        parameters.put("id", "$1");
+        String path = uriMatcher.uriFor(binding.getUriPattern(), parameters);
+
+        // the values are inserted as they are and a path parameter without value keeps its placeholder
+        assertThat(path, equalTo("/en/user/$1/en/{tab}"));
+    }
+
     @Test
     public void testUriForWithEncodedParameters() throws Exception {
         UriMatcher.UriPatternBinding binding = uriMatcher.addUriPattern("/user/{email}");
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.route.RouteContext;
+import ro.pippo.core.util.DateUtils;
+import ro.pippo.core.util.HttpCacheToolkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class HttpCacheToolkitTest {
+
+    private HttpCacheToolkit httpCacheToolkit;
+    private RouteContext routeContext;
+    private Response response;
+
+    @BeforeEach
+    public void setUp() {
+        httpCacheToolkit = new HttpCacheToolkit(new PippoSettings(RuntimeMode.PROD));
+        routeContext = mock(RouteContext.class);
+        response = mock(Response.class);
+        doReturn(response).when(routeContext).getResponse();
+        doReturn(true).when(routeContext).isRequestMethod(HttpConstants.Method.GET);
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(HttpCacheToolkit.matches("\"a\"", "\"a\""));
+        assertTrue(HttpCacheToolkit.matches("\"x\", \"a\"", "\"a\""));
+        assertTrue(HttpCacheToolkit.matches("\"x\",W/\"a\"", "\"a\""));
+        assertTrue(HttpCacheToolkit.matches("\"a\"", "W/\"a\""));
+        assertTrue(HttpCacheToolkit.matches("*", "\"a\""));
+        assertTrue(HttpCacheToolkit.matches("\"a,b\"", "\"a,b\""));
+        assertFalse(HttpCacheToolkit.matches("\"x\", \"y\"", "\"a\""));
+        assertFalse(HttpCacheToolkit.matches("a", "\"a\""));
+        assertFalse(HttpCacheToolkit.matches("\"a", "\"a\""));
+    }
+
+    @Test
+    public void testEncodedEtag() {
+        String etag = HttpCacheToolkit.getEncodedEtag("\"a\"", "gzip");
+        assertEquals("\"a+gzip\"", etag);
+        assertEquals("W/\"a\"", HttpCacheToolkit.getEncodedEtag("W/\"a\"", "gzip"));
+        // the variants are validated by the ETag of the resource
+        assertTrue(HttpCacheToolkit.matches(etag, "\"a\""));
+        assertTrue(HttpCacheToolkit.matches("\"a+br\"", "\"a\""));
+        assertFalse(HttpCacheToolkit.matches("\"a+b\"", "\"a\""));
+    }
+
+    @Test
+    public void testIfModifiedSince() {
+        long lastModified = 1_500_000_000_500L;
+        doReturn(DateUtils.formatForHttpHeader(lastModified)).when(routeContext).getHeader(HttpConstants.Header.IF_MODIFIED_SINCE);
+        assertFalse(httpCacheToolkit.isModified(null, lastModified, routeContext));
+        assertTrue(httpCacheToolkit.isModified(null, lastModified + 1000, routeContext));
+
+        // If-None-Match has priority
+        doReturn("\"x\"").when(routeContext).getHeader(HttpConstants.Header.IF_NONE_MATCH);
+        assertTrue(httpCacheToolkit.isModified("\"a\"", lastModified, routeContext));
+    }
+
+    @Test
+    public void testCheckNotModified() {
+        String etag = httpCacheToolkit.getWeakEtag("42");
+        assertEquals("W/\"42\"", etag);
+
+        assertFalse(httpCacheToolkit.checkNotModified(routeContext, etag, -1));
+        verify(routeContext).setHeader(HttpConstants.Header.ETAG, etag);
+        verify(response, never()).commit();
+
+        doReturn("\"41\", W/\"42\"").when(routeContext).getHeader(HttpConstants.Header.IF_NONE_MATCH);
+        assertTrue(httpCacheToolkit.checkNotModified(routeContext, etag, -1));
+        verify(routeContext).status(HttpConstants.StatusCode.NOT_MODIFIED);
+        verify(response).commit();
+    }
+
+    @Test
+    public void testInvalidWeakEtag() {
+        assertThrows(IllegalArgumentException.class, () -> httpCacheToolkit.getWeakEtag("a\"b"));
+    }
+
+    @Test
+    public void testAddEtag() {
+        httpCacheToolkit.addEtag(routeContext, "\"a\"", 1000);
+        verify(routeContext).setHeader(HttpConstants.Header.CACHE_CONTROL, "max-age=3600");
+        verify(routeContext).setHeader(HttpConstants.Header.ETAG, "\"a\"");
+        verify(routeContext, never()).status(HttpConstants.StatusCode.NOT_MODIFIED);
+
+        doReturn("*").when(routeContext).getHeader(HttpConstants.Header.IF_NONE_MATCH);
+        httpCacheToolkit.addEtag(routeContext, "\"a\"", 1000);
+        verify(routeContext).status(HttpConstants.StatusCode.NOT_MODIFIED);
+    }
+
+}
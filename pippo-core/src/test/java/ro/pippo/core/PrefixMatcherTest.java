@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.util.PrefixMatcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrefixMatcherTest {
+
+    @Test
+    public void testEmpty() {
+        PrefixMatcher matcher = PrefixMatcher.of(Collections.emptyList());
+        assertTrue(matcher.isEmpty());
+        assertFalse(matcher.matches("/"));
+    }
+
+    @Test
+    public void testMatches() {
+        PrefixMatcher matcher = PrefixMatcher.of(Arrays.asList("/favicon.ico", "/static", "/static/img", "/ws", "/a"));
+        assertTrue(matcher.matches("/favicon.ico"));
+        assertTrue(matcher.matches("/static"));
+        assertTrue(matcher.matches("/static/img/logo.png"));
+        assertTrue(matcher.matches("/staticfiles"));
+        assertTrue(matcher.matches("/ws/chat"));
+        assertTrue(matcher.matches("/about"));
+        assertFalse(matcher.matches("/"));
+        assertFalse(matcher.matches("/favicon"));
+        assertFalse(matcher.matches("/stat"));
+        assertFalse(matcher.matches("/w"));
+        assertFalse(matcher.matches("/x"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testSameAsStartsWith() {
+        List<String> prefixes = Arrays.asList("/a", "/ab", "/abc/d", "/b/", "/b/c", "/c", "/ca", "/d/e/f");
+        PrefixMatcher matcher = PrefixMatcher.of(prefixes);
+        String[] values = { "", "/", "/a", "/aa", "/ab", "/abc", "/b", "/b/", "/b/c/d", "/bc", "/c", "/cb", "/d", "/d/e",
+            "/d/e/f", "/d/e/fg", "/e", "/é" };
+        for (String value : values) {
+            boolean expected = prefixes.stream().anyMatch(value::startsWith);
+            assertEquals(expected, matcher.matches(value), value);
+        }
+    }
+
+}
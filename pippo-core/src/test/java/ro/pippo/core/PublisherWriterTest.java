@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PublisherWriterTest {
+
+    private TestOutput output;
+
+    @BeforeEach
+    public void setUp() {
+        output = new TestOutput();
+    }
+
+    @Test
+    public void testJsonArray() {
+        CompletableFuture<Void> completion = subscribe(StreamFormat.JSON_ARRAY, new TestPublisher(1, 2, 3));
+
+        assertTrue(completion.isDone());
+        assertEquals("[1,2,3]", output.toString());
+    }
+
+    @Test
+    public void testEmptyJsonArray() {
+        CompletableFuture<Void> completion = subscribe(StreamFormat.JSON_ARRAY, new TestPublisher());
+
+        assertTrue(completion.isDone());
+        assertEquals("[]", output.toString());
+    }
+
+    @Test
+    public void testNdjson() {
+        subscribe(StreamFormat.NDJSON, new TestPublisher(1, 2, 3));
+
+        assertEquals("1\n2\n3\n", output.toString());
+    }
+
+    @Test
+    public void testRawChunks() {
+        subscribe(StreamFormat.RAW, new TestPublisher("a".getBytes(StandardCharsets.UTF_8), "b", 1));
+
+        assertEquals("ab1", output.toString());
+    }
+
+    @Test
+    public void testItemIsRequestedWhenTheOutputIsReady() throws IOException {
+        output.readyAfterWrite = false;
+        TestPublisher publisher = new TestPublisher(1, 2, 3);
+        CompletableFuture<Void> completion = subscribe(StreamFormat.NDJSON, publisher);
+
+        // the first item is written, the output is busy
+        assertEquals(1, publisher.requested);
+        assertEquals("1\n", output.toString());
+
+        output.writePossible();
+        assertEquals(2, publisher.requested);
+        output.writePossible();
+        assertEquals(3, publisher.requested);
+        assertFalse(completion.isDone());
+
+        output.writePossible();
+        assertTrue(completion.isDone());
+        assertEquals("1\n2\n3\n", output.toString());
+    }
+
+    @Test
+    public void testPublisherErrorFailsTheCompletion() {
+        TestPublisher publisher = new TestPublisher(1, 2, 3);
+        publisher.error = new IllegalStateException("failed");
+        CompletableFuture<Void> completion = subscribe(StreamFormat.NDJSON, publisher);
+
+        assertTrue(completion.isCompletedExceptionally());
+        assertThrows(Exception.class, completion::join);
+    }
+
+    @Test
+    public void testCancelCancelsTheSubscription() throws IOException {
+        output.readyAfterWrite = false;
+        TestPublisher publisher = new TestPublisher(1, 2, 3);
+        CompletableFuture<Void> completion = subscribe(StreamFormat.NDJSON, publisher);
+        completion.cancel(false);
+
+        assertTrue(publisher.cancelled);
+        output.writePossible();
+        assertEquals("1\n", output.toString());
+    }
+
+    private CompletableFuture<Void> subscribe(StreamFormat format, Flow.Publisher<?> publisher) {
+        return new PublisherWriter(output, format, new TextPlainEngine(), StandardCharsets.UTF_8).subscribe(publisher);
+    }
+
+    /**
+     * Emits the items synchronously, on the thread that requests them.
+     */
+    private static class TestPublisher implements Flow.Publisher<Object> {
+
+        private final List<Object> items;
+
+        private int requested;
+        private boolean cancelled;
+        private RuntimeException error;
+
+        TestPublisher(Object... items) {
+            this.items = Arrays.asList(items);
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                private int index;
+
+                @Override
+                public void request(long n) {
+                    for (long i = 0; i < n && !cancelled && index < items.size(); i++) {
+                        requested++;
+                        if (error != null) {
+                            subscriber.onError(error);
+                            return;
+                        }
+                        subscriber.onNext(items.get(index++));
+                        if (index == items.size()) {
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+
+            });
+
+            if (items.isEmpty()) {
+                subscriber.onComplete();
+            }
+        }
+
+    }
+
+    private static class TestOutput extends ServletOutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private WriteListener writeListener;
+        private boolean ready = true;
+        private boolean readyAfterWrite = true;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+            ready = readyAfterWrite;
+        }
+
+        void writePossible() throws IOException {
+            ready = true;
+            writeListener.onWritePossible();
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ro.pippo.core.route.DefaultRouteContext;
+import ro.pippo.core.route.DefaultRouteContextFactory;
+import ro.pippo.core.route.RouteMatch;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the allocations of the per request objects (request, response, route context)
+ * with and without recycling.
+ *
+ * Run it with the GC profiler (see {@code gc.alloc.rate.norm}), from the IDE (it has a main method) or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ro.pippo.core.RecyclingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecyclingBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean recycling;
+
+    private Application application;
+    private RequestResponseFactory requestResponseFactory;
+    private DefaultRouteContextFactory routeContextFactory;
+    private HttpServletRequest httpServletRequest;
+    private HttpServletResponse httpServletResponse;
+    private List<RouteMatch> routeMatches;
+
+    @Setup
+    public void setup() {
+        application = new Application();
+        requestResponseFactory = new RequestResponseFactory(application);
+        requestResponseFactory.setRecycling(recycling);
+        routeContextFactory = new DefaultRouteContextFactory();
+        routeContextFactory.setRecycling(recycling);
+
+        httpServletRequest = stub(HttpServletRequest.class);
+        httpServletResponse = stub(HttpServletResponse.class);
+        routeMatches = Collections.emptyList();
+    }
+
+    @Benchmark
+    public Object requestCycle() {
+        RequestResponse requestResponse = requestResponseFactory.createRequestResponse(httpServletRequest, httpServletResponse);
+        Request request = requestResponse.getRequest();
+        Response response = requestResponse.getResponse();
+        DefaultRouteContext routeContext = routeContextFactory.createRouteContext(application, request, response, routeMatches);
+        routeContext.setLocal("key", "value");
+        response.header("X-Test", "test");
+        Object result = request.getParameters();
+
+        routeContextFactory.release(routeContext);
+        requestResponseFactory.release(requestResponse);
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getName().equals("getParameterNames")) {
+                return Collections.emptyEnumeration();
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType == long.class) {
+                return 0L;
+            }
+
+            return null;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(RecyclingBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.route.DefaultRouteContext;
+import ro.pippo.core.route.DefaultRouteContextFactory;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestResponseFactoryTest {
+
+    private Application application;
+    private RequestResponseFactory factory;
+
+    @BeforeEach
+    public void setUp() {
+        application = new Application();
+        factory = new RequestResponseFactory(application);
+        factory.setRecycling(true);
+    }
+
+    @Test
+    public void testRecyclingIsOffByDefault() {
+        RequestResponseFactory factory = new RequestResponseFactory(application);
+        RequestResponse first = factory.createRequestResponse(mockRequest("a"), mock(HttpServletResponse.class));
+        factory.release(first);
+        RequestResponse second = factory.createRequestResponse(mockRequest("b"), mock(HttpServletResponse.class));
+
+        assertNotSame(first.getRequest(), second.getRequest());
+        assertNotSame(first.getResponse(), second.getResponse());
+    }
+
+    @Test
+    public void testRecyclingIsOffWithVirtualThreads() {
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_APPLICATION_RECYCLING, true);
+        assertTrue(application.isRecycling());
+
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_APPLICATION_VIRTUAL_THREADS, true);
+        assertFalse(application.isRecycling());
+    }
+
+    @Test
+    public void testReleasedInstancesAreReusedWithoutState() {
+        RequestResponse first = factory.createRequestResponse(mockRequest("a"), mock(HttpServletResponse.class));
+        assertEquals("a", first.getRequest().getParameter("name").toString());
+        first.getRequest().internalSetPathParameters(Collections.singletonMap("id", "1"));
+        first.getResponse().bind("key", "value");
+        first.getResponse().header("X-Test", "test");
+        first.getResponse().status(404);
+        factory.release(first);
+
+        HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+        RequestResponse second = factory.createRequestResponse(mockRequest("b"), httpServletResponse);
+        assertSame(first.getRequest(), second.getRequest());
+        assertSame(first.getResponse(), second.getResponse());
+
+        assertEquals("b", second.getRequest().getParameter("name").toString());
+        assertTrue(second.getRequest().getPathParameter("id").isNull());
+        assertTrue(second.getResponse().getLocals().isEmpty());
+        assertNull(second.getResponse().getHeader("X-Test"));
+        assertEquals(0, second.getResponse().getStatus());
+        assertSame(httpServletResponse, second.getResponse().getHttpServletResponse());
+    }
+
+    @Test
+    public void testInstancesInUseAreNotShared() {
+        RequestResponse outer = factory.createRequestResponse(mockRequest("a"), mock(HttpServletResponse.class));
+        RequestResponse inner = factory.createRequestResponse(mockRequest("b"), mock(HttpServletResponse.class));
+
+        assertNotSame(outer.getRequest(), inner.getRequest());
+        assertNotSame(outer.getResponse(), inner.getResponse());
+
+        // releasing the nested request doesn't touch the outer one
+        factory.release(inner);
+        assertEquals("a", outer.getRequest().getParameter("name").toString());
+    }
+
+    @Test
+    public void testAsyncRequestIsNotRecycled() {
+        HttpServletRequest httpServletRequest = mockRequest("a");
+        when(httpServletRequest.isAsyncStarted()).thenReturn(true);
+        RequestResponse first = factory.createRequestResponse(httpServletRequest, mock(HttpServletResponse.class));
+        factory.release(first);
+
+        // the async request still has its state
+        assertEquals("a", first.getRequest().getParameter("name").toString());
+
+        RequestResponse second = factory.createRequestResponse(mockRequest("b"), mock(HttpServletResponse.class));
+        assertNotSame(first.getRequest(), second.getRequest());
+        assertNotSame(first.getResponse(), second.getResponse());
+    }
+
+    @Test
+    public void testRouteContextIsRecycled() {
+        DefaultRouteContextFactory routeContextFactory = new DefaultRouteContextFactory();
+        routeContextFactory.setRecycling(true);
+
+        RequestResponse requestResponse = factory.createRequestResponse(mockRequest("a"), mock(HttpServletResponse.class));
+        Request request = requestResponse.getRequest();
+        Response response = requestResponse.getResponse();
+        DefaultRouteContext first = routeContextFactory.createRouteContext(application, request, response, Collections.emptyList());
+        DefaultRouteContext nested = routeContextFactory.createRouteContext(application, request, response, Collections.emptyList());
+        assertNotSame(first, nested);
+
+        routeContextFactory.release(nested);
+        routeContextFactory.release(first);
+        assertNull(first.getRequest());
+
+        DefaultRouteContext second = routeContextFactory.createRouteContext(application, request, response, Collections.emptyList());
+        assertSame(first, second);
+        assertSame(request, second.getRequest());
+    }
+
+    private HttpServletRequest mockRequest(String name) {
+        HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+        when(httpServletRequest.getParameterNames()).thenReturn(Collections.enumeration(Collections.singletonList("name")));
+        when(httpServletRequest.getParameterValues("name")).thenReturn(new String[] { name });
+
+        return httpServletRequest;
+    }
+
+}
@@ -17,12 +17,27 @@ package ro.pippo.core;
 
 import org.junit.jupiter.api.Test;
 
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -62,6 +77,206 @@ public class RequestTest {
         assertEquals(name, "métier");
     }
 
+    @Test
+    public void parametersAreParsedOnDemandTest() {
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getParameterNames()).thenReturn(Collections.enumeration(Collections.singletonList("name")));
+        when(servletRequest.getParameterValues("name")).thenReturn(new String[] { "john" });
+
+        Request request = new Request(servletRequest, new Application());
+        verify(servletRequest, never()).getParameterNames();
+
+        assertEquals("john", request.getParameter("name").toString());
+    }
+
+    @Test
+    public void indexedParametersTest() {
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getParameterNames()).thenReturn(Collections.enumeration(Arrays.asList("a[1]", "a[0]", "b[x]", "[2]")));
+        when(servletRequest.getParameterValues("a[0]")).thenReturn(new String[] { "zero" });
+        when(servletRequest.getParameterValues("a[1]")).thenReturn(new String[] { "one" });
+        when(servletRequest.getParameterValues("b[x]")).thenReturn(new String[] { "x" });
+        when(servletRequest.getParameterValues("[2]")).thenReturn(new String[] { "two" });
+
+        Request request = new Request(servletRequest, new Application());
+        assertArrayEquals(new String[] { "zero", "one" }, request.getParameter("a").getValues());
+        assertEquals("x", request.getParameter("b[x]").toString());
+        assertEquals("two", request.getParameter("[2]").toString());
+    }
+
+    @Test
+    public void isIndexedParameterNameTest() {
+        assertTrue(Request.isIndexedParameterName("a[0]"));
+        assertTrue(Request.isIndexedParameterName("ab[123]"));
+        assertTrue(Request.isIndexedParameterName("a[1][2]"));
+        assertFalse(Request.isIndexedParameterName("[0]"));
+        assertFalse(Request.isIndexedParameterName("a[]"));
+        assertFalse(Request.isIndexedParameterName("a[x]"));
+        assertFalse(Request.isIndexedParameterName("a[1]b"));
+        assertFalse(Request.isIndexedParameterName("a"));
+    }
+
+    @Test
+    public void pathParametersOverrideQueryParametersTest() {
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getParameterNames()).thenReturn(Collections.enumeration(Arrays.asList("id", "sort")));
+        when(servletRequest.getParameterValues("id")).thenReturn(new String[] { "1" });
+        when(servletRequest.getParameterValues("sort")).thenReturn(new String[] { "name" });
+
+        Request request = new Request(servletRequest, new Application());
+        assertEquals("1", request.getParameter("id").toString());
+
+        request.internalSetPathParameters(Collections.singletonMap("id", "2"));
+        Map<String, ParameterValue> parameters = request.getParameters();
+        assertEquals(2, parameters.size());
+        assertEquals("2", parameters.get("id").toString());
+        assertEquals("name", parameters.get("sort").toString());
+        assertEquals("1", request.getQueryParameter("id").toString());
+        assertEquals("2", request.getPathParameter("id").toString());
+        assertTrue(request.getParameter("missing").isNull());
+    }
+
+    @Test
+    public void pathTest() {
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getRequestURI()).thenReturn("/contact/caf%C3%A9%20bar");
+
+        Request request = new Request(servletRequest, new Application());
+        assertEquals("/contact/café bar", request.getPath());
+        assertEquals("/contact/caf%C3%A9%20bar", request.getUri());
+
+        when(servletRequest.getRequestURI()).thenReturn("");
+        assertEquals("/", new Request(servletRequest, new Application()).getPath());
+    }
+
+    @Test
+    public void bodyAsBytesTest() throws IOException {
+        byte[] content = "{\"name\":\"métier\"}".getBytes(StandardCharsets.UTF_8);
+        HttpServletRequest servletRequest = mockBody(content, content.length);
+
+        Request request = new Request(servletRequest, new Application());
+        assertArrayEquals(content, request.getBodyAsBytes());
+        assertEquals("{\"name\":\"métier\"}", request.getBody());
+        ByteBuffer buffer = request.getBodyAsByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(content.length, buffer.remaining());
+        // the body is read once
+        assertArrayEquals(content, request.getBodyAsStream().readAllBytes());
+        verify(servletRequest, times(1)).getInputStream();
+    }
+
+    @Test
+    public void bodyCharsetTest() throws IOException {
+        byte[] content = "métier".getBytes(StandardCharsets.ISO_8859_1);
+        HttpServletRequest servletRequest = mockBody(content, -1);
+        when(servletRequest.getCharacterEncoding()).thenReturn("ISO-8859-1");
+
+        Request request = new Request(servletRequest, new Application());
+        assertEquals(StandardCharsets.ISO_8859_1, request.getCharset());
+        assertEquals("métier", request.getBody());
+    }
+
+    @Test
+    public void bodyTooLargeIsRejectedEarlyTest() throws IOException {
+        HttpServletRequest servletRequest = mockBody(new byte[100], 100);
+        Application application = new Application();
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 10L);
+
+        Request request = new Request(servletRequest, application);
+        StatusCodeException exception = assertThrows(StatusCodeException.class, request::getBodyAsBytes);
+        assertEquals(HttpConstants.StatusCode.PAYLOAD_TOO_LARGE, exception.getStatusCode());
+        verify(servletRequest, never()).getInputStream();
+    }
+
+    @Test
+    public void bodyTooLargeStreamTest() throws IOException {
+        HttpServletRequest servletRequest = mockBody(new byte[100], -1);
+        Application application = new Application();
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 10L);
+
+        Request request = new Request(servletRequest, application);
+        StatusCodeException exception = assertThrows(StatusCodeException.class, request::getBody);
+        assertEquals(HttpConstants.StatusCode.PAYLOAD_TOO_LARGE, exception.getStatusCode());
+    }
+
+    @Test
+    public void bodyTooLargeRawStreamTest() throws IOException {
+        HttpServletRequest servletRequest = mockBody(new byte[100], -1);
+        Application application = new Application();
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 10L);
+
+        Request request = new Request(servletRequest, application);
+        // an IOException, so that a parser that reads the stream doesn't take it for a parse error
+        RequestBodyTooLargeException exception = assertThrows(RequestBodyTooLargeException.class,
+            () -> request.getBodyAsStream().readAllBytes());
+        assertEquals(10, exception.getMaxSize());
+    }
+
+    @Test
+    public void bodyLengthOverArrayLimitTest() throws IOException {
+        HttpServletRequest servletRequest = mockBody(new byte[100], Integer.MAX_VALUE + 1L);
+        Application application = new Application();
+        // no limit
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 0L);
+
+        Request request = new Request(servletRequest, application);
+        StatusCodeException exception = assertThrows(StatusCodeException.class, request::getBodyAsBytes);
+        assertEquals(HttpConstants.StatusCode.PAYLOAD_TOO_LARGE, exception.getStatusCode());
+        verify(servletRequest, never()).getInputStream();
+    }
+
+    @Test
+    public void bodyShorterThanAnnouncedTest() throws IOException {
+        byte[] content = "métier".getBytes(StandardCharsets.UTF_8);
+        // the buffer is not allocated with the announced length
+        HttpServletRequest servletRequest = mockBody(content, Integer.MAX_VALUE - 8);
+        Application application = new Application();
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 0L);
+
+        Request request = new Request(servletRequest, application);
+        assertArrayEquals(content, request.getBodyAsBytes());
+    }
+
+    @Test
+    public void bodyBiggerThanInitialBufferTest() throws IOException {
+        byte[] content = new byte[200 * 1024 + 1];
+        Arrays.fill(content, (byte) 'a');
+
+        assertArrayEquals(content, new Request(mockBody(content, content.length), new Application()).getBodyAsBytes());
+        assertArrayEquals(content, new Request(mockBody(content, -1), new Application()).getBodyAsBytes());
+    }
+
+    private static HttpServletRequest mockBody(byte[] content, long contentLength) throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(content);
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getMethod()).thenReturn(HttpConstants.Method.POST);
+        when(servletRequest.getContentLengthLong()).thenReturn(contentLength);
+        when(servletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+        });
+
+        return servletRequest;
+    }
+
     public static class User {
 
         private String name;
@@ -16,19 +16,36 @@
 package ro.pippo.core;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author munendrasn
@@ -60,4 +77,244 @@ public class ResponseTest {
         assertNotEquals(500, response.getStatus());
     }
 
+    @Test
+    public void testFileRange(@TempDir Path directory) throws IOException {
+        File file = directory.resolve("data.txt").toFile();
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        response.ok().resource(file, "bytes=2-5");
+
+        assertEquals(HttpConstants.StatusCode.PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpConstants.Header.CONTENT_RANGE));
+        assertEquals("bytes", response.getHeader(HttpConstants.Header.ACCEPT_RANGES));
+        verify(servletResponse).setContentLengthLong(4);
+        assertEquals("2345", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFileWithoutRange(@TempDir Path directory) throws IOException {
+        File file = directory.resolve("data.txt").toFile();
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        response.file(file);
+
+        assertEquals(HttpConstants.StatusCode.OK, response.getStatus());
+        assertTrue(response.getContentType().startsWith("text/plain"));
+        assertNotNull(response.getHeader(HttpConstants.Header.CONTENT_DISPOSITION));
+        verify(servletResponse).setContentLengthLong(10);
+        assertEquals("0123456789", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFileChannelTransfer(@TempDir Path directory) throws IOException {
+        File file = directory.resolve("data.txt").toFile();
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        List<long[]> transfers = new ArrayList<>();
+        Application application = new Application();
+        application.getFileChannelTransfers().add((channel, position, count, output) -> {
+            transfers.add(new long[] { position, count });
+            return false;
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Response response = new Response(mockServletResponse(output), application);
+        response.resource(file, "bytes=-3");
+
+        // not supported, so the file is copied
+        assertEquals(1, transfers.size());
+        assertEquals(7, transfers.get(0)[0]);
+        assertEquals(3, transfers.get(0)[1]);
+        assertEquals("789", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMultipartRanges() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        response.contentType("text/plain");
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        response.resource(new ByteArrayInputStream(content), content.length, "bytes=7-8,0-1");
+
+        assertEquals(HttpConstants.StatusCode.PARTIAL_CONTENT, response.getStatus());
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String expected = "\r\n--" + boundary + "\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "Content-Range: bytes 0-1/10\r\n\r\n"
+            + "01"
+            + "\r\n--" + boundary + "\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "Content-Range: bytes 7-8/10\r\n\r\n"
+            + "78"
+            + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+        verify(servletResponse).setContentLengthLong(expected.length());
+    }
+
+    @Test
+    public void testRangeNotSatisfiable() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        response.resource(new ByteArrayInputStream(content), content.length, "bytes=10-");
+
+        assertEquals(HttpConstants.StatusCode.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpConstants.Header.CONTENT_RANGE));
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    public void testRangeIgnoredForErrorStatus() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        response.notFound().resource(new ByteArrayInputStream(content), content.length, "bytes=0-1");
+
+        assertEquals(HttpConstants.StatusCode.NOT_FOUND, response.getStatus());
+        assertEquals("0123456789", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSendSmallContentHasContentLength() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        String content = "Hello \u00e9".repeat(500);
+        response.send(content);
+
+        byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+        verify(servletResponse).setContentLength(expected.length);
+        assertEquals(content, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSendLargeContentIsStreamed() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Response response = new Response(servletResponse, new Application());
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("line \u00e9 ").append(i).append('\n');
+        }
+        response.send(content);
+
+        verify(servletResponse, never()).setContentLength(anyInt());
+        assertEquals(content.toString(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSendObjectIsWrittenByTheEngine() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Application application = new Application();
+        application.getContentTypeEngines().setContentTypeEngine(new TestEngine(false));
+        Response response = new Response(servletResponse, application);
+        response.contentType(TestEngine.CONTENT_TYPE).send(List.of("a", "b"));
+
+        assertEquals("[a, b]", output.toString(StandardCharsets.UTF_8));
+        verify(servletResponse).setContentLength(6);
+    }
+
+    @Test
+    public void testSendObjectFailureDoesNotCommit() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Application application = new Application();
+        application.getContentTypeEngines().setContentTypeEngine(new TestEngine(true));
+        Response response = new Response(servletResponse, application);
+
+        assertThrows(PippoRuntimeException.class, () -> response.contentType(TestEngine.CONTENT_TYPE).send(List.of("a")));
+        verify(servletResponse, never()).getOutputStream();
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    public void testSendObjectFailureAfterStreamingCommits() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HttpServletResponse servletResponse = mockServletResponse(output);
+        Application application = new Application();
+        application.getContentTypeEngines().setContentTypeEngine(new TestEngine(true));
+        Response response = new Response(servletResponse, application);
+        String content = "a".repeat(application.getResponseBufferSize() + 1);
+
+        assertThrows(PippoRuntimeException.class, () -> response.contentType(TestEngine.CONTENT_TYPE).send(List.of(content)));
+        // the body was streamed, so the response is committed and no error page can follow
+        assertTrue(output.size() > 0);
+        verify(servletResponse).flushBuffer();
+    }
+
+    private static HttpServletResponse mockServletResponse(ByteArrayOutputStream output) throws IOException {
+        HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+        when(servletResponse.getCharacterEncoding()).thenReturn(StandardCharsets.UTF_8.name());
+        when(servletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                output.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+        });
+
+        return servletResponse;
+    }
+
+    private static class TestEngine implements ContentTypeEngine {
+
+        static final String CONTENT_TYPE = "application/x-test";
+
+        private final boolean fail;
+
+        TestEngine(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void init(Application application) {
+        }
+
+        @Override
+        public String getContentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public String toString(Object object) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T fromString(String content, Class<T> classOfT) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(Object object, OutputStream output) throws IOException {
+            output.write(object.toString().getBytes(StandardCharsets.UTF_8));
+            if (fail) {
+                throw new PippoRuntimeException("Failed to serialize '{}'", object);
+            }
+        }
+
+    }
+
 }
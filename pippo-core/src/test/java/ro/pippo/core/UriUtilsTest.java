@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core;
+
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.util.UriUtils;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UriUtilsTest {
+
+    private static final String[] ENCODED_PATHS = {
+        "",
+        "/",
+        "/contact",
+        "/contact/3",
+        "/a%20b",
+        "/a+b",
+        "/a%2Bb",
+        "/a%2fb",
+        "/a%2Fb/c",
+        "/%25",
+        "/%2525",
+        "/caf%C3%A9",
+        "/caf%c3%a9",
+        "/%E2%82%AC/price",
+        "/%F0%9F%98%80",
+        "/%C3",
+        "/%C3%28",
+        "/%FF%FE",
+        "/%80abc",
+        "/x%E2%82",
+        "/%41%42%43",
+        "/a;jsessionid=123",
+        "/a%3Bb",
+        "/%3F%23",
+        "//double//slash",
+        "/café",
+        "/%7Euser/~other",
+        "/%00",
+    };
+
+    private static final String[] MALFORMED_PATHS = {
+        "/%",
+        "/%2",
+        "/a%zz",
+        "/a%2g",
+        "/%%41",
+        "/%１１",
+    };
+
+    @Test
+    public void testDecodePathAsUri() {
+        for (String encodedPath : ENCODED_PATHS) {
+            String expected = URI.create("http://localhost" + encodedPath).getPath();
+            assertEquals(expected, UriUtils.decodePath(encodedPath), encodedPath);
+        }
+    }
+
+    @Test
+    public void testDecodePathWithoutEscapes() {
+        String path = "/contact/3";
+        assertSame(path, UriUtils.decodePath(path));
+    }
+
+    @Test
+    public void testDecodeMalformedPath() {
+        for (String malformedPath : MALFORMED_PATHS) {
+            assertThrows(IllegalArgumentException.class, () -> UriUtils.decodePath(malformedPath), malformedPath);
+            assertThrows(IllegalArgumentException.class, () -> URI.create("http://localhost" + malformedPath), malformedPath);
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.entity;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.Application;
+import ro.pippo.core.ContentTypeEngine;
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.PippoConstants;
+import ro.pippo.core.Request;
+import ro.pippo.core.StatusCodeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultEntityRequestEngineTest {
+
+    private Application application;
+
+    @BeforeEach
+    public void setUp() {
+        application = new Application();
+        application.getContentTypeEngines().setContentTypeEngine(new TestEngine());
+    }
+
+    @Test
+    public void testCreateEntityFromUtf8Body() throws IOException {
+        Request request = mockRequest("café", StandardCharsets.UTF_8);
+
+        assertEquals("café", request.createEntityFromBody(String.class));
+        // the body is still available
+        assertEquals("café", request.getBody());
+    }
+
+    @Test
+    public void testCreateEntityFromLatin1Body() throws IOException {
+        String content = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><name>café</name>";
+        Request request = mockRequest(content, StandardCharsets.ISO_8859_1);
+
+        // the engine gets the decoded content, so the declared encoding is not applied again
+        assertEquals("reader:" + content, request.createEntityFromBody(String.class));
+        assertEquals(content, request.getBody());
+    }
+
+    @Test
+    public void testCreateEntityFromBlankBody() throws IOException {
+        assertNull(mockRequest("\r\n", StandardCharsets.UTF_8).createEntityFromBody(String.class));
+        assertNull(mockRequest(" \t", StandardCharsets.ISO_8859_1).createEntityFromBody(String.class));
+        assertNull(mockRequest("", StandardCharsets.UTF_8).createEntityFromBody(String.class));
+    }
+
+    @Test
+    public void testCreateEntityFromTooLargeBody() throws IOException {
+        application.getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_MAX_BODY_SIZE, 10L);
+        Request request = mockRequest("a".repeat(100), StandardCharsets.UTF_8);
+
+        StatusCodeException exception = assertThrows(StatusCodeException.class, () -> request.createEntityFromBody(String.class));
+        assertEquals(HttpConstants.StatusCode.PAYLOAD_TOO_LARGE, exception.getStatusCode());
+    }
+
+    private Request mockRequest(String content, Charset charset) throws IOException {
+        return new Request(mockBody(content.getBytes(charset), charset), application);
+    }
+
+    static HttpServletRequest mockBody(byte[] content, Charset charset) throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(content);
+        HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        when(servletRequest.getMethod()).thenReturn(HttpConstants.Method.POST);
+        when(servletRequest.getHeader(HttpConstants.Header.CONTENT_TYPE)).thenReturn(TestEngine.CONTENT_TYPE);
+        when(servletRequest.getCharacterEncoding()).thenReturn(charset.name());
+        when(servletRequest.getContentLengthLong()).thenReturn(-1L);
+        when(servletRequest.getInputStream()).thenReturn(new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+        });
+
+        return servletRequest;
+    }
+
+    /**
+     * Returns the content as it is, prefixed with {@code reader:} when it's read from a reader.
+     */
+    static class TestEngine implements ContentTypeEngine {
+
+        static final String CONTENT_TYPE = "application/x-test";
+
+        @Override
+        public void init(Application application) {
+        }
+
+        @Override
+        public String getContentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public String toString(Object object) {
+            return object.toString();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T fromString(String content, Class<T> classOfT) {
+            return (T) content;
+        }
+
+        @Override
+        public <T> T read(Reader reader, Class<T> classOfT) throws IOException {
+            return fromString("reader:" + ContentTypeEngine.super.read(reader, String.class), classOfT);
+        }
+
+    }
+
+}
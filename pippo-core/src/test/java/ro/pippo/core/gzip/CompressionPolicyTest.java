@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionPolicyTest {
+
+    @Test
+    public void testAcceptEncodingQuality() {
+        assertEquals(0, AcceptEncoding.getQuality(null, "gzip"));
+        assertEquals(0, AcceptEncoding.getQuality("", "gzip"));
+        assertEquals(1, AcceptEncoding.getQuality("gzip", "gzip"));
+        assertEquals(1, AcceptEncoding.getQuality("deflate, GZIP", "gzip"));
+        assertEquals(1, AcceptEncoding.getQuality("x-gzip", "gzip"));
+        assertEquals(0.5f, AcceptEncoding.getQuality("br;q=1.0, gzip;q=0.5", "gzip"));
+        assertEquals(0.5f, AcceptEncoding.getQuality("br, gzip ; q=0.5", "gzip"));
+        assertEquals(0, AcceptEncoding.getQuality("gzip;q=0", "gzip"));
+        assertEquals(0, AcceptEncoding.getQuality("gzip;q=abc", "gzip"));
+        assertEquals(0, AcceptEncoding.getQuality("deflate, identity", "gzip"));
+        assertEquals(1, AcceptEncoding.getQuality("*", "gzip"));
+        assertEquals(0.1f, AcceptEncoding.getQuality("br, *;q=0.1", "gzip"));
+        assertEquals(0, AcceptEncoding.getQuality("*, gzip;q=0", "gzip"));
+        // gzip is not the substring of another coding
+        assertEquals(0, AcceptEncoding.getQuality("nogzip", "gzip"));
+    }
+
+    @Test
+    public void testNegotiate() {
+        CompressionPolicy policy = new CompressionPolicy();
+        ContentEncoder brotli = new TestEncoder("br");
+        policy.addEncoder(brotli);
+        ContentEncoder gzip = policy.getEncoders().get(0);
+
+        assertSame(gzip, policy.negotiate("gzip, br"));
+        assertSame(brotli, policy.negotiate("gzip;q=0.5, br"));
+        assertSame(brotli, policy.negotiate("br"));
+        assertSame(gzip, policy.negotiate("*"));
+        assertNull(policy.negotiate("identity"));
+        assertNull(policy.negotiate("gzip;q=0"));
+        assertNull(policy.negotiate(null));
+    }
+
+    @Test
+    public void testCompressibleMimeTypes() {
+        CompressionPolicy policy = new CompressionPolicy();
+        assertTrue(policy.isCompressible("text/html; charset=UTF-8"));
+        assertTrue(policy.isCompressible("text/css"));
+        assertTrue(policy.isCompressible("APPLICATION/JSON"));
+        assertTrue(policy.isCompressible("image/svg+xml"));
+        assertTrue(policy.isCompressible(null));
+        assertFalse(policy.isCompressible("image/png"));
+        assertFalse(policy.isCompressible("image/jpeg"));
+        assertFalse(policy.isCompressible("application/zip"));
+        assertFalse(policy.isCompressible("application/octet-stream"));
+
+        policy.setMimeTypes(Arrays.asList("application/*", "image/png"));
+        assertTrue(policy.isCompressible("application/zip"));
+        assertTrue(policy.isCompressible("image/png"));
+        assertFalse(policy.isCompressible("text/html"));
+    }
+
+    @Test
+    public void testGZipEncoderIsReused() throws IOException {
+        GZipContentEncoder encoder = new GZipContentEncoder(9);
+        for (int i = 0; i < 3; i++) {
+            byte[] content = ("Hello World " + i).getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            OutputStream encoded = encoder.encode(output, false);
+            encoded.write(content);
+            encoded.close();
+            // closing twice is harmless
+            encoded.close();
+            assertThrows(IOException.class, () -> encoded.write(1));
+
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+                assertArrayEquals(content, input.readAllBytes());
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new GZipContentEncoder(10));
+    }
+
+    private static class TestEncoder implements ContentEncoder {
+
+        private final String name;
+
+        TestEncoder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public OutputStream encode(OutputStream output, boolean syncFlush) {
+            return output;
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.gzip;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GZipResponseStreamTest {
+
+    private HttpServletResponse response;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        output = new ByteArrayOutputStream();
+        response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                output.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+        });
+    }
+
+    @Test
+    public void testSmallResponseHasContentLength() throws IOException {
+        byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        GZipResponseStream stream = createStream(1024);
+        stream.write(content);
+        stream.flush();
+        assertEquals(0, output.size());
+        stream.close();
+
+        assertFalse(stream.isStreaming());
+        verify(response).setContentLength(output.size());
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).addHeader("Vary", "Accept-Encoding");
+        assertArrayEquals(content, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testResponseSmallerThanMinSizeIsNotCompressed() throws IOException {
+        byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        GZipResponseStream stream = new GZipResponseStream(response, 1024, new CompressionPolicy().setMinSize(100),
+            new GZipContentEncoder());
+        stream.write(content);
+        stream.close();
+
+        verify(response).setContentLength(content.length);
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(content, output.toByteArray());
+    }
+
+    @Test
+    public void testNotCompressibleResponseIsStreamedAsIs() throws IOException {
+        when(response.getContentType()).thenReturn("image/png");
+        byte[] content = new byte[10 * 1024];
+        new Random(1).nextBytes(content);
+
+        GZipResponseStream stream = createStream(1024);
+        stream.write(content);
+        stream.close();
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(content, output.toByteArray());
+    }
+
+    @Test
+    public void testNotCompressedResponseKeepsContentLength() throws IOException {
+        when(response.getHeader("Content-Encoding")).thenReturn("br");
+        byte[] content = new byte[10 * 1024];
+        new Random(1).nextBytes(content);
+
+        CompressionPolicy policy = new CompressionPolicy().setMinSize(0).setBufferSize(1024);
+        GZipResponseWrapper wrapper = new GZipResponseWrapper(response, policy, policy.getEncoders().get(0));
+        wrapper.setContentLength(content.length);
+        wrapper.getOutputStream().write(content);
+        wrapper.finish();
+
+        verify(response).setContentLengthLong(content.length);
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        assertArrayEquals(content, output.toByteArray());
+    }
+
+    @Test
+    public void testLargeResponseIsStreamed() throws IOException {
+        byte[] content = new byte[100 * 1024];
+        new Random(1).nextBytes(content);
+
+        GZipResponseStream stream = createStream(1024);
+        for (int i = 0; i < content.length; i += 100) {
+            stream.write(content, i, Math.min(100, content.length - i));
+        }
+        assertTrue(stream.isStreaming());
+        // the compressed bytes already reached the servlet output stream
+        assertTrue(output.size() > 0);
+        stream.close();
+
+        verify(response, never()).setContentLength(anyInt());
+        verify(response).setHeader("Content-Encoding", "gzip");
+        assertArrayEquals(content, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testFlushBufferStartsStreaming() throws IOException {
+        CompressionPolicy policy = new CompressionPolicy().setMinSize(0).setBufferSize(1024);
+        GZipResponseWrapper wrapper = new GZipResponseWrapper(response, policy, policy.getEncoders().get(0));
+        PrintWriter writer = wrapper.getWriter();
+        writer.print("first");
+        wrapper.flushBuffer();
+        int flushedSize = output.size();
+        assertTrue(flushedSize > 0);
+
+        writer.print(" second");
+        wrapper.finish();
+        assertTrue(output.size() > flushedSize);
+
+        verify(response, never()).setContentLength(anyInt());
+        assertEquals("first second", new String(gunzip(output.toByteArray()), StandardCharsets.UTF_8));
+
+        // flushing after close does nothing
+        wrapper.flushBuffer();
+    }
+
+    @Test
+    public void testWrapperIgnoresContentLength() {
+        GZipResponseWrapper wrapper = new GZipResponseWrapper(response);
+        wrapper.setContentLength(10);
+        wrapper.setHeader("Content-Length", "10");
+        wrapper.setIntHeader("content-length", 10);
+
+        verify(response, never()).setContentLength(10);
+        verify(response, never()).setHeader("Content-Length", "10");
+        verify(response, never()).setIntHeader("content-length", 10);
+    }
+
+    private GZipResponseStream createStream(int bufferSize) throws IOException {
+        return new GZipResponseStream(response, bufferSize, new CompressionPolicy().setMinSize(0), new GZipContentEncoder());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readAllBytes();
+        }
+    }
+
+}
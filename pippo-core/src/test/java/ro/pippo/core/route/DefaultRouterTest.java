@@ -25,6 +25,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -42,11 +44,11 @@ public class DefaultRouterTest {
 
     private static final RouteHandler emptyHandler = routeContext -> {};
 
-    private DefaultRouter router;
+    protected DefaultRouter router;
 
     @BeforeEach
     public void before() {
-        router = new DefaultRouter();
+        router = createRouter();
     }
 
     @AfterEach
@@ -54,6 +56,10 @@ public class DefaultRouterTest {
         router = null;
     }
 
+    protected DefaultRouter createRouter() {
+        return new DefaultRouter();
+    }
+
     @Test
     public void testNullUriPatternRoute() throws Exception {
         Route route = Route.GET(null, emptyHandler);
@@ -118,6 +124,108 @@ public class DefaultRouterTest {
         assertEquals(0, routeMatches.size());
     }
 
+    @Test
+    public void testFindStaticAndPatternRoutesInOrder() throws Exception {
+        router.addRoute(Route.GET("/login", emptyHandler).named("first"));
+        router.addRoute(Route.ANY("/.*", emptyHandler).named("second"));
+        router.addRoute(Route.ANY("/login", emptyHandler).named("third"));
+        router.addRoute(Route.GET("/{page}", emptyHandler).named("fourth"));
+        router.addRoute(Route.POST("/login", emptyHandler).named("fifth"));
+
+        List<RouteMatch> routeMatches = router.findRoutes(HttpConstants.Method.GET, "/login");
+        assertEquals(4, routeMatches.size());
+        assertEquals("first", routeMatches.get(0).getRoute().getName());
+        assertEquals("second", routeMatches.get(1).getRoute().getName());
+        assertEquals("third", routeMatches.get(2).getRoute().getName());
+        assertEquals("fourth", routeMatches.get(3).getRoute().getName());
+        assertTrue(routeMatches.get(0).getPathParameters().isEmpty());
+        assertEquals("login", routeMatches.get(3).getPathParameters().get("page"));
+
+        routeMatches = router.findRoutes(HttpConstants.Method.POST, "/login");
+        assertEquals(3, routeMatches.size());
+        assertEquals("fifth", routeMatches.get(2).getRoute().getName());
+
+        routeMatches = router.findRoutes(HttpConstants.Method.DELETE, "/login");
+        assertEquals(2, routeMatches.size());
+        assertEquals("second", routeMatches.get(0).getRoute().getName());
+        assertEquals("third", routeMatches.get(1).getRoute().getName());
+
+        // '.' is a regex construct, so the uri pattern is not literal
+        router.addRoute(Route.GET("/favicon.ico", emptyHandler));
+        assertEquals(3, router.findRoutes(HttpConstants.Method.GET, "/favicon-ico").size());
+    }
+
+    @Test
+    public void testIgnorePaths() {
+        assertFalse(router.isIgnoredPath("/favicon.ico"));
+
+        router.ignorePaths("favicon.ico", "/static");
+        assertTrue(router.isIgnoredPath("/favicon.ico"));
+        assertTrue(router.isIgnoredPath("/static/css/app.css"));
+        assertFalse(router.isIgnoredPath("/contact"));
+        assertEquals(2, router.getIgnorePaths().size());
+        assertThrows(UnsupportedOperationException.class, () -> router.getIgnorePaths().add("/contact"));
+    }
+
+    @Test
+    public void testRouteMatchCache() throws Exception {
+        router.setRouteMatchCacheSize(2);
+        router.addRoute(Route.GET("/contact/{id}", emptyHandler));
+
+        assertEquals("3", router.findRoutes(HttpConstants.Method.GET, "/contact/3").get(0).getPathParameters().get("id"));
+        assertEquals("3", router.findRoutes(HttpConstants.Method.GET, "/contact/3").get(0).getPathParameters().get("id"));
+        assertEquals(1, router.getRouteMatchCache().getHitCount());
+        assertEquals(1, router.getRouteMatchCache().getMissCount());
+
+        // the cache is bounded
+        router.findRoutes(HttpConstants.Method.GET, "/contact/4");
+        router.findRoutes(HttpConstants.Method.GET, "/contact/5");
+        router.findRoutes(HttpConstants.Method.POST, "/contact/5");
+        assertTrue(router.getRouteMatchCache().size() <= 2);
+
+        // the cache is invalidated when the routes change
+        router.addRoute(Route.ANY("/contact/.*", emptyHandler));
+        assertEquals(0, router.getRouteMatchCache().size());
+        assertEquals(2, router.findRoutes(HttpConstants.Method.GET, "/contact/5").size());
+        assertEquals(1, router.findRoutes(HttpConstants.Method.POST, "/contact/5").size());
+    }
+
+    @Test
+    public void testAddAndRemoveRoutesAtRuntime() throws Exception {
+        router.addRoute(Route.GET("/contact", emptyHandler));
+        router.compileRoutes();
+        assertEquals(1, router.findRoutes(HttpConstants.Method.GET, "/contact").size());
+
+        int routeCount = 200;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < routeCount; i++) {
+                    router.addRoute(Route.GET("/contact/" + i, emptyHandler));
+                    router.addRoute(Route.GET("/user/{id}/" + i, emptyHandler));
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            assertEquals(1, router.findRoutes(HttpConstants.Method.GET, "/contact").size());
+            assertTrue(router.findRoutes(HttpConstants.Method.GET, "/user/3/5").size() <= 1);
+        }
+        writer.join();
+        assertNull(failure.get());
+
+        // the routes are compiled right away after the first compilation
+        assertEquals(2 * routeCount + 1, router.getRoutes(HttpConstants.Method.GET).size());
+        assertEquals(1, router.findRoutes(HttpConstants.Method.GET, "/contact/" + (routeCount - 1)).size());
+
+        // remove a compiled route
+        router.removeRoute(Route.GET("/contact/0", emptyHandler));
+        assertEquals(0, router.findRoutes(HttpConstants.Method.GET, "/contact/0").size());
+        assertEquals(2 * routeCount, router.getRoutes().size());
+    }
+
     @Test
     public void testPathParamsRoute() throws Exception {
         Route route = Route.GET("/contact/{id}", emptyHandler);
@@ -442,7 +550,7 @@ public class DefaultRouterTest {
         assertEquals(0, router.findRoutes(HttpConstants.Method.GET, "/customers/12ab").size());
 
         // regex with escaped construct in a route with variable parts
-        router = new DefaultRouter();
+        router = createRouter();
         router.addRoute(Route.GET("/customers/{id: \\d+}", emptyHandler));
 
         assertEquals(1, router.findRoutes(HttpConstants.Method.GET, "/customers/1234").size());
@@ -671,6 +779,36 @@ public class DefaultRouterTest {
         assertEquals(1, matches.size());
     }
 
+    @Test
+    public void testAddGroupAfterCompile() {
+        AtomicInteger compileCount = new AtomicInteger();
+        DefaultRouter router = new DefaultRouter() {
+
+            @Override
+            public synchronized void compileRoutes() {
+                compileCount.incrementAndGet();
+                super.compileRoutes();
+            }
+
+        };
+        router.addRoute(Route.GET("/", emptyHandler));
+        router.compileRoutes();
+
+        RouteGroup group = new RouteGroup("/users");
+        group.GET("{id}", emptyHandler);
+        group.PUT("{id}", emptyHandler);
+        RouteGroup child = new RouteGroup(group, "{id}");
+        child.POST("like", emptyHandler);
+
+        router.addRouteGroup(group);
+
+        // all routes of the group are published at once
+        assertEquals(2, compileCount.get());
+        assertEquals(1, router.findRoutes(HttpConstants.Method.PUT, "/users/1").size());
+        assertEquals(1, router.findRoutes(HttpConstants.Method.POST, "/users/1/like").size());
+        assertEquals(2, compileCount.get());
+    }
+
     @Test
     public void testNestGroupWithCRUD() {
         RouteGroup admin = new RouteGroup("/admin");
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.Application;
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.Request;
+import ro.pippo.core.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RouteDispatcherTest {
+
+    private Application application;
+    private DefaultRouter router;
+    private List<String> calls;
+
+    @BeforeEach
+    public void setUp() {
+        calls = new ArrayList<>();
+
+        router = new DefaultRouter();
+        router.setRouteMatchCacheSize(16);
+
+        application = new Application();
+        application.setRouter(router);
+        application.ANY("/.*", routeContext -> {
+            calls.add("filter");
+            routeContext.next();
+        });
+        application.GET("/contact/{id}", routeContext -> calls.add("contact " + routeContext.getParameter("id")));
+        application.ANY("/.*", routeContext -> calls.add("finally")).runAsFinally();
+    }
+
+    @Test
+    public void testDispatchWithRouteMatchCache() throws Exception {
+        RouteDispatcher routeDispatcher = new RouteDispatcher(application);
+        routeDispatcher.init();
+
+        dispatch(routeDispatcher, "/contact/3");
+        dispatch(routeDispatcher, "/contact/3");
+        dispatch(routeDispatcher, "/contact/4");
+
+        // the cached route matches are only read by the route context, never consumed
+        List<String> expected = new ArrayList<>();
+        for (String id : new String[] { "3", "3", "4" }) {
+            expected.add("filter");
+            expected.add("contact " + id);
+            expected.add("finally");
+        }
+        assertEquals(expected, calls);
+        assertEquals(1, router.getRouteMatchCache().getHitCount());
+        assertEquals(2, router.getRouteMatchCache().getMissCount());
+        assertEquals(3, router.findRoutes(HttpConstants.Method.GET, "/contact/3").size());
+    }
+
+    private void dispatch(RouteDispatcher routeDispatcher, String path) throws Exception {
+        HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+        when(httpServletRequest.getMethod()).thenReturn(HttpConstants.Method.GET);
+        when(httpServletRequest.getRequestURI()).thenReturn(path);
+        when(httpServletRequest.getRequestURL()).thenReturn(new StringBuffer("http://localhost" + path));
+        when(httpServletRequest.getParameterNames()).thenReturn(Collections.emptyEnumeration());
+
+        HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+        // the handlers write nothing, so skip the auto-commit
+        when(httpServletResponse.isCommitted()).thenReturn(true);
+
+        Request request = new Request(httpServletRequest, application);
+        Response response = new Response(httpServletResponse, application);
+        routeDispatcher.dispatch(request, response);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ro.pippo.core.HttpConstants;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link Router#findRoutes(String, String)} when the number of routes grows.
+ * The requested route is the last one added (the worst case for a linear scan).
+ *
+ * Run it from the IDE (it has a main method) or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ro.pippo.core.route.RouterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    private static final RouteHandler emptyHandler = routeContext -> {};
+
+    @Param({ "default", "trie" })
+    public String routerType;
+
+    @Param({ "10", "100", "1000" })
+    public int routeCount;
+
+    private Router router;
+    private String staticUri;
+    private String parameterUri;
+
+    @Setup
+    public void setup() {
+        router = "trie".equals(routerType) ? new TrieRouter() : new DefaultRouter();
+        for (int i = 0; i < routeCount; i++) {
+            router.addRoute(Route.GET("/api/resource" + i, emptyHandler));
+            router.addRoute(Route.GET("/api/resource" + i + "/{id}", emptyHandler));
+            router.addRoute(Route.POST("/api/resource" + i + "/{id: [0-9]+}/items", emptyHandler));
+        }
+        router.compileRoutes();
+
+        staticUri = "/api/resource" + (routeCount - 1);
+        parameterUri = "/api/resource" + (routeCount - 1) + "/42";
+    }
+
+    @Benchmark
+    public List<RouteMatch> staticRoute() {
+        return router.findRoutes(HttpConstants.Method.GET, staticUri);
+    }
+
+    @Benchmark
+    public List<RouteMatch> parameterRoute() {
+        return router.findRoutes(HttpConstants.Method.GET, parameterUri);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(RouterBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+}
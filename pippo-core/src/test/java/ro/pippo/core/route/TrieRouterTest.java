@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import org.junit.jupiter.api.Test;
+import ro.pippo.core.HttpConstants;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs all the {@link DefaultRouterTest} tests against {@link TrieRouter} and checks
+ * that both routers return the same matches for a set of tricky uri patterns.
+ */
+public class TrieRouterTest extends DefaultRouterTest {
+
+    private static final RouteHandler emptyHandler = routeContext -> {};
+
+    private static final String[] URI_PATTERNS = {
+        "/",
+        "/contact",
+        "/contact/",
+        "/contact/{id}",
+        "/contact/{id: [0-9]+}",
+        "/contact/{id: [!-z]+}",
+        "/contact/{id: \\d+}/{field: [a-z]*}",
+        "/contact/{name}/dashboard",
+        "/contact/*",
+        "/contact/.*",
+        "/contact/\\d+",
+        "/contact/user-{id}",
+        "/contact/{path: .*}",
+        "/contact/{path: .+}/edit",
+        "/contact/{id: :digit:+}",
+        "/favicon.ico",
+        "/a/b/x|/c",
+        "/(fr|de)/about",
+        "/{lang}/about",
+        "/{id}/{id}",
+        ".*",
+    };
+
+    private static final String[] REQUEST_URIS = {
+        "/",
+        "",
+        "/contact",
+        "/contact/",
+        "/contact//",
+        "/contact/3",
+        "/contact/abc",
+        "/contact/3/",
+        "/contact/3/phone",
+        "/contact/3/PHONE",
+        "/contact/a/b",
+        "/contact/john/dashboard",
+        "/contact/a/b/edit",
+        "/contact/user-5",
+        "/contact/a/b/c/d",
+        "/favicon.ico",
+        "/faviconXico",
+        "/a/b/x",
+        "/c",
+        "/fr/about",
+        "/en/about",
+        "/x/y",
+        "contact",
+    };
+
+    @Override
+    protected DefaultRouter createRouter() {
+        return new TrieRouter();
+    }
+
+    @Test
+    public void testSameMatchesAsDefaultRouter() {
+        DefaultRouter defaultRouter = new DefaultRouter();
+        TrieRouter trieRouter = new TrieRouter();
+        for (String uriPattern : URI_PATTERNS) {
+            defaultRouter.addRoute(Route.GET(uriPattern, emptyHandler));
+            trieRouter.addRoute(Route.GET(uriPattern, emptyHandler));
+            defaultRouter.addRoute(Route.ANY(uriPattern, emptyHandler));
+            trieRouter.addRoute(Route.ANY(uriPattern, emptyHandler));
+        }
+
+        for (String requestMethod : new String[] { HttpConstants.Method.GET, HttpConstants.Method.POST }) {
+            for (String requestUri : REQUEST_URIS) {
+                List<RouteMatch> expected = defaultRouter.findRoutes(requestMethod, requestUri);
+                List<RouteMatch> actual = trieRouter.findRoutes(requestMethod, requestUri);
+                String message = requestMethod + " " + requestUri;
+                assertEquals(expected.size(), actual.size(), message);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getRoute(), actual.get(i).getRoute(), message);
+                    assertEquals(expected.get(i).getPathParameters(), actual.get(i).getPathParameters(), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOrderIsPreserved() {
+        router.addRoute(Route.GET("/.*", emptyHandler).named("first"));
+        router.addRoute(Route.GET("/contact/{id}", emptyHandler).named("second"));
+        router.addRoute(Route.GET("/contact/3", emptyHandler).named("third"));
+        router.addRoute(Route.GET("/contact/{id: [0-9]+}", emptyHandler).named("fourth"));
+
+        List<RouteMatch> matches = router.findRoutes(HttpConstants.Method.GET, "/contact/3");
+        assertEquals(4, matches.size());
+        assertEquals("first", matches.get(0).getRoute().getName());
+        assertEquals("second", matches.get(1).getRoute().getName());
+        assertEquals("third", matches.get(2).getRoute().getName());
+        assertEquals("fourth", matches.get(3).getRoute().getName());
+    }
+
+}
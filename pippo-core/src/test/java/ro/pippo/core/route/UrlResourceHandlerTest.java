@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.route;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ro.pippo.core.Application;
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.PippoSettings;
+import ro.pippo.core.Response;
+import ro.pippo.core.RuntimeMode;
+import ro.pippo.core.util.MimeTypes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UrlResourceHandlerTest {
+
+    private static final String SCRIPT = "function hello() { return 'Hello World'; }\n".repeat(100);
+
+    @TempDir
+    Path directory;
+
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        output = new ByteArrayOutputStream();
+        Files.write(directory.resolve("app.js"), SCRIPT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testServeGZipSidecar() throws IOException {
+        byte[] gzip = gzip(SCRIPT);
+        Files.write(directory.resolve("app.js.gz"), gzip);
+
+        Response response = handle(RuntimeMode.DEV, "gzip, deflate", "app.js");
+
+        assertEquals("gzip", response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals(HttpConstants.Header.ACCEPT_ENCODING, response.getHeader(HttpConstants.Header.VARY));
+        assertArrayEquals(gzip, output.toByteArray());
+    }
+
+    @Test
+    public void testPreferBrotliSidecar() throws IOException {
+        byte[] brotli = "fake brotli".getBytes(StandardCharsets.UTF_8);
+        Files.write(directory.resolve("app.js.gz"), gzip(SCRIPT));
+        Files.write(directory.resolve("app.js.br"), brotli);
+
+        Response response = handle(RuntimeMode.DEV, "gzip, br", "app.js");
+
+        assertEquals("br", response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertArrayEquals(brotli, output.toByteArray());
+
+        output.reset();
+        response = handle(RuntimeMode.DEV, "gzip, br;q=0.5", "app.js");
+        assertEquals("gzip", response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testNotAcceptedEncoding() throws IOException {
+        Files.write(directory.resolve("app.js.gz"), gzip(SCRIPT));
+
+        Response response = handle(RuntimeMode.DEV, "identity", "app.js");
+
+        assertNull(response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals(HttpConstants.Header.ACCEPT_ENCODING, response.getHeader(HttpConstants.Header.VARY));
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGenerateGZipInProd() throws IOException {
+        Response response = handle(RuntimeMode.PROD, "gzip", "app.js");
+
+        assertEquals("gzip", response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals(SCRIPT, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testNoGenerateGZipInDev() throws IOException {
+        Response response = handle(RuntimeMode.DEV, "gzip", "app.js");
+
+        assertNull(response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNotCompressible() throws IOException {
+        Files.write(directory.resolve("image.png"), new byte[] { 1, 2, 3 });
+        Files.write(directory.resolve("image.png.gz"), gzip("123"));
+
+        Response response = handle(RuntimeMode.PROD, "gzip", "image.png");
+
+        assertNull(response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpConstants.Header.VARY));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, output.toByteArray());
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        Files.write(directory.resolve("app.js.gz"), gzip(SCRIPT));
+
+        FileResourceHandler handler = new FileResourceHandler("/", directory.toFile());
+        handler.setPrecompressed(false);
+        Response response = handle(handler, RuntimeMode.PROD, "gzip", "app.js");
+
+        assertNull(response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        Files.write(directory.resolve("app.js.gz"), gzip(SCRIPT));
+        long lastModified = directory.resolve("app.js").toFile().lastModified();
+
+        Response response = handle(new FileResourceHandler("/", directory.toFile()), RuntimeMode.DEV, "gzip",
+            "app.js", "bytes=0-7", "\"" + lastModified + "\"");
+
+        assertEquals(HttpConstants.StatusCode.PARTIAL_CONTENT, response.getStatus());
+        assertNull(response.getHeader(HttpConstants.Header.CONTENT_ENCODING));
+        assertEquals("bytes 0-7/" + SCRIPT.length(), response.getHeader(HttpConstants.Header.CONTENT_RANGE));
+        assertEquals(SCRIPT.substring(0, 8), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRangeWithChangedResource() throws IOException {
+        Response response = handle(new FileResourceHandler("/", directory.toFile()), RuntimeMode.DEV, "identity",
+            "app.js", "bytes=0-7", "\"1\"");
+
+        assertEquals(HttpConstants.StatusCode.OK, response.getStatus());
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRangeForJarResourceWithoutMimeType() throws IOException {
+        Path jar = directory.resolve("resources.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+            output.putNextEntry(new JarEntry("public/data.unknown"));
+            output.write("0123456789".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        URL url = new URL("jar:" + jar.toUri() + "!/public/data.unknown");
+        FileResourceHandler handler = new FileResourceHandler("/", directory.toFile()) {
+
+            @Override
+            public URL getResourceUrl(String resourcePath) {
+                return url;
+            }
+
+        };
+
+        // no default content type, so the resource is sent as a download
+        Application application = new Application(new PippoSettings(RuntimeMode.DEV)) {
+
+            private final MimeTypes mimeTypes = new MimeTypes(getPippoSettings()) {
+
+                @Override
+                public String getContentType(String filename) {
+                    return getContentType(filename, null);
+                }
+
+            };
+
+            @Override
+            public MimeTypes getMimeTypes() {
+                return mimeTypes;
+            }
+
+        };
+        Response response = handle(application, handler, "identity", "data.unknown", "bytes=2-5", null);
+
+        assertEquals(HttpConstants.StatusCode.PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpConstants.Header.CONTENT_RANGE));
+        assertEquals("attachment; filename=\"data.unknown\"", response.getHeader(HttpConstants.Header.CONTENT_DISPOSITION));
+        assertEquals("2345", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCachedResource() throws IOException {
+        AtomicInteger lookups = new AtomicInteger();
+        FileResourceHandler handler = new FileResourceHandler("/", directory.toFile()) {
+
+            @Override
+            public URL getResourceUrl(String resourcePath) {
+                lookups.incrementAndGet();
+                return super.getResourceUrl(resourcePath);
+            }
+
+        };
+        handler.setCacheMaxSize(1024 * 1024);
+
+        Response response = handle(handler, RuntimeMode.PROD, "identity", "app.js");
+        String etag = response.getHeader(HttpConstants.Header.ETAG);
+        assertEquals(new Application().getHttpCacheToolkit().getEtag(SCRIPT.getBytes(StandardCharsets.UTF_8)), etag);
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+
+        // the resource is served from memory, even if it's deleted
+        Files.delete(directory.resolve("app.js"));
+        output.reset();
+        response = handle(handler, RuntimeMode.PROD, "identity", "app.js");
+        assertEquals(1, lookups.get());
+        assertEquals(etag, response.getHeader(HttpConstants.Header.ETAG));
+        assertTrue(response.getContentType().startsWith("application/javascript"));
+        assertEquals(SCRIPT, output.toString(StandardCharsets.UTF_8));
+
+        handler.clearCache();
+        output.reset();
+        handle(handler, RuntimeMode.PROD, "identity", "app.js");
+        assertEquals(2, lookups.get());
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    public void testResourceCacheNotUsedInDev() throws IOException {
+        FileResourceHandler handler = new FileResourceHandler("/", directory.toFile());
+        handler.setCacheMaxSize(1024 * 1024);
+
+        handle(handler, RuntimeMode.DEV, "identity", "app.js");
+        Files.write(directory.resolve("app.js"), "changed".getBytes(StandardCharsets.UTF_8));
+        output.reset();
+        handle(handler, RuntimeMode.DEV, "identity", "app.js");
+
+        assertEquals("changed", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testResourceCacheEviction() throws IOException {
+        StaticResourceCache cache = new StaticResourceCache(100);
+        URL url = directory.toUri().toURL();
+        cache.put("a", new StaticResourceCache.StaticResource(url, new byte[40], "\"a\"", 0, null));
+        cache.put("b", new StaticResourceCache.StaticResource(url, new byte[40], "\"b\"", 0, null));
+        // "a" is the most recently used
+        assertNotNull(cache.get("a"));
+        cache.put("c", new StaticResourceCache.StaticResource(url, new byte[40], "\"c\"", 0, null));
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80, cache.getSize());
+
+        // bigger than the cache
+        cache.put("d", new StaticResourceCache.StaticResource(url, new byte[101], "\"d\"", 0, null));
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.getCount());
+    }
+
+    private Response handle(RuntimeMode runtimeMode, String acceptEncoding, String resourcePath) throws IOException {
+        return handle(new FileResourceHandler("/", directory.toFile()), runtimeMode, acceptEncoding, resourcePath);
+    }
+
+    private Response handle(UrlResourceHandler handler, RuntimeMode runtimeMode, String acceptEncoding, String resourcePath) throws IOException {
+        return handle(handler, runtimeMode, acceptEncoding, resourcePath, null, null);
+    }
+
+    private Response handle(UrlResourceHandler handler, RuntimeMode runtimeMode, String acceptEncoding, String resourcePath,
+                            String range, String ifRange) throws IOException {
+        return handle(new Application(new PippoSettings(runtimeMode)), handler, acceptEncoding, resourcePath, range, ifRange);
+    }
+
+    private Response handle(Application application, UrlResourceHandler handler, String acceptEncoding, String resourcePath,
+                            String range, String ifRange) throws IOException {
+        HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+        when(servletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                output.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+        });
+        Response response = new Response(servletResponse, application);
+
+        RouteContext routeContext = mock(RouteContext.class);
+        doReturn(application).when(routeContext).getApplication();
+        doReturn(response).when(routeContext).getResponse();
+        doReturn(acceptEncoding).when(routeContext).getHeader(HttpConstants.Header.ACCEPT_ENCODING);
+        doReturn(range).when(routeContext).getHeader(HttpConstants.Header.RANGE);
+        doReturn(ifRange).when(routeContext).getHeader(HttpConstants.Header.IF_RANGE);
+        doReturn(true).when(routeContext).isRequestMethod(HttpConstants.Method.GET);
+        doAnswer(invocation -> {
+            response.header(invocation.getArgument(0), invocation.getArgument(1, String.class));
+            return null;
+        }).when(routeContext).setHeader(anyString(), anyString());
+
+        handler.handleResource(resourcePath, routeContext);
+
+        return response;
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.core.sse;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SseBroadcasterTest {
+
+    @Test
+    public void testEventFormat() {
+        SseEvent event = SseEvent.data("first\nsecond").name("update").id("7").retry(1000);
+
+        assertEquals("id: 7\nevent: update\nretry: 1000\ndata: first\ndata: second\n\n", toString(event));
+        assertThrows(IllegalArgumentException.class, () -> event.id("1\n2"));
+    }
+
+    @Test
+    public void testBroadcast() {
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        TestSubscriber first = subscribe(broadcaster, null);
+        TestSubscriber second = subscribe(broadcaster, null);
+
+        broadcaster.broadcast("a");
+        broadcaster.broadcast("b");
+
+        assertEquals("id: 1\ndata: a\n\nid: 2\ndata: b\n\n", first.toString());
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void testResumeAfterLastEventId() {
+        SseBroadcaster broadcaster = new SseBroadcaster(2);
+        broadcaster.broadcast("a");
+        broadcaster.broadcast("b");
+        broadcaster.broadcast("c");
+
+        assertEquals("id: 3\ndata: c\n\n", subscribe(broadcaster, "2").toString());
+        assertEquals("", subscribe(broadcaster, "3").toString());
+        // the id is no longer in the history, the whole history is sent
+        assertEquals("id: 2\ndata: b\n\nid: 3\ndata: c\n\n", subscribe(broadcaster, "1").toString());
+    }
+
+    @Test
+    public void testSlowClientDropsEvents() {
+        SseEmitter emitter = new SseEmitter(null, 2, SseEmitter.Overflow.DROP, Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        emitter.publisher().subscribe(subscriber);
+
+        assertTrue(emitter.send("a"));
+        assertTrue(emitter.send("b"));
+        assertFalse(emitter.send("c"));
+        assertEquals(1, emitter.getDroppedCount());
+
+        subscriber.request(10);
+        assertEquals("data: a\n\ndata: b\n\n", subscriber.toString());
+    }
+
+    @Test
+    public void testSlowClientCoalescesEvents() {
+        SseEmitter emitter = new SseEmitter(null, 2, SseEmitter.Overflow.COALESCE, Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        emitter.publisher().subscribe(subscriber);
+
+        emitter.send(SseEvent.data("1").name("price"));
+        emitter.send(SseEvent.data("x").name("status"));
+        emitter.send(SseEvent.data("2").name("price"));
+
+        subscriber.request(10);
+        assertEquals("event: status\ndata: x\n\nevent: price\ndata: 2\n\n", subscriber.toString());
+    }
+
+    @Test
+    public void testCloseUnsubscribes() {
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        SseEmitter emitter = new SseEmitter(null, 10, SseEmitter.Overflow.DROP, Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        emitter.publisher().subscribe(subscriber);
+        broadcaster.subscribe(emitter);
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        emitter.close();
+        assertTrue(emitter.isClosed());
+        assertTrue(subscriber.completed);
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertFalse(emitter.send("a"));
+    }
+
+    @Test
+    public void testHeartbeatOnIdleConnection() {
+        SseEmitter emitter = new SseEmitter(null, 10, SseEmitter.Overflow.DROP, Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        emitter.publisher().subscribe(subscriber);
+
+        emitter.send("a");
+        // an event was sent since the previous heartbeat
+        emitter.heartbeat();
+        emitter.heartbeat();
+
+        assertEquals("data: a\n\n:\n\n", subscriber.toString());
+    }
+
+    private static TestSubscriber subscribe(SseBroadcaster broadcaster, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(lastEventId, 10, SseEmitter.Overflow.DROP, Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        emitter.publisher().subscribe(subscriber);
+        broadcaster.subscribe(emitter);
+
+        return subscriber;
+    }
+
+    private static String toString(SseEvent event) {
+        return new String(event.toBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<byte[]> {
+
+        private final long initialDemand;
+        private final List<byte[]> chunks = new ArrayList<>();
+
+        private Flow.Subscription subscription;
+        private boolean completed;
+
+        TestSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(byte[] item) {
+            chunks.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            chunks.forEach(chunk -> builder.append(new String(chunk, StandardCharsets.UTF_8)));
+
+            return builder.toString();
+        }
+
+    }
+
+}
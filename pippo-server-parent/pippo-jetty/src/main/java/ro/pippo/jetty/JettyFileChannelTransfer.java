@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.jetty;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.server.HttpOutput;
+import org.kohsuke.MetaInfServices;
+import ro.pippo.core.FileChannelTransfer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes the file regions bigger than 64 KB with positional reads into a direct buffer
+ * of the Jetty buffer pool, that Jetty sends to the socket without copying it to the heap.
+ * The file is not memory mapped, because a mapped region is only released when its buffer
+ * is garbage collected.
+ */
+@MetaInfServices(FileChannelTransfer.class)
+public class JettyFileChannelTransfer implements FileChannelTransfer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public boolean transfer(FileChannel channel, long position, long count, OutputStream output) throws IOException {
+        if (!(output instanceof HttpOutput) || (count < BUFFER_SIZE)) {
+            return false;
+        }
+
+        HttpOutput httpOutput = (HttpOutput) output;
+        ByteBufferPool bufferPool = httpOutput.getHttpChannel().getByteBufferPool();
+        ByteBuffer buffer = bufferPool.acquire(BUFFER_SIZE, true);
+        try {
+            long end = position + count;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of file at position " + position);
+                }
+                buffer.flip();
+                // blocking write, the buffer can be reused when it returns
+                httpOutput.write(buffer);
+                position += read;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+
+        return true;
+    }
+
+}
@@ -44,6 +44,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -57,6 +58,7 @@ public class JettyServer extends AbstractWebServer<JettySettings> {
     private static final Logger log = LoggerFactory.getLogger(JettyServer.class);
 
     private Server server;
+    private ExecutorService virtualThreadExecutor;
 
     @Override
     public void start() {
@@ -95,16 +97,26 @@ public class JettyServer extends AbstractWebServer<JettySettings> {
                 throw new PippoRuntimeException(e, "Interrupted while waiting for Jetty Server to stop.");
             } catch (Exception e) {
                 throw new PippoRuntimeException(e, "Cannot stop Jetty Server");
+            } finally {
+                shutdownVirtualThreadExecutor();
             }
         }
     }
 
+    private void shutdownVirtualThreadExecutor() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+            virtualThreadExecutor = null;
+        }
+    }
+
     @Override
     protected JettySettings createDefaultSettings() {
         return new JettySettings(getApplication().getPippoSettings());
     }
 
     protected Server createServer() {
+        QueuedThreadPool threadPool = null;
         if (getSettings().getMaxThreads() > 0) {
             int maxThreads = getSettings().getMaxThreads();
             int minThreads = getSettings().getMinThreads();
@@ -116,10 +128,19 @@ public class JettyServer extends AbstractWebServer<JettySettings> {
                 idleTimeout = JettySettings.DEFAULT_IDLE_TIMEOUT;
             }
 
-            return new Server(new QueuedThreadPool(maxThreads, minThreads, idleTimeout));
+            threadPool = new QueuedThreadPool(maxThreads, minThreads, idleTimeout);
+        }
+
+        virtualThreadExecutor = createVirtualThreadExecutor();
+        if (virtualThreadExecutor != null) {
+            if (threadPool == null) {
+                threadPool = new QueuedThreadPool();
+            }
+            // the pool threads keep the I/O, the requests are handled on virtual threads
+            threadPool.setVirtualThreadsExecutor(virtualThreadExecutor);
         }
 
-        return new Server();
+        return (threadPool != null) ? new Server(threadPool) : new Server();
     }
 
     /**
@@ -235,6 +256,8 @@ public class JettyServer extends AbstractWebServer<JettySettings> {
         EnumSet<DispatcherType> dispatches = EnumSet.of(DispatcherType.REQUEST, DispatcherType.ERROR);
 
         FilterHolder pippoFilterHolder = new FilterHolder(getPippoFilter());
+        // allow asynchronous route handlers
+        pippoFilterHolder.setAsyncSupported(true);
         handler.addFilter(pippoFilterHolder, pippoFilterPath, dispatches);
         log.debug("Using pippo filter for path '{}'", pippoFilterPath);
     }
@@ -23,24 +23,74 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import ro.pippo.core.Application;
+import ro.pippo.core.HttpConstants;
+import ro.pippo.core.PippoConstants;
+import ro.pippo.core.StatusCodeException;
+import ro.pippo.core.StreamFormat;
+import ro.pippo.core.sse.SseBroadcaster;
+import ro.pippo.core.sse.SseEvent;
+import ro.pippo.core.sse.SseHandler;
 import ro.pippo.core.websocket.WebSocketContext;
 import ro.pippo.core.websocket.WebSocketHandler;
 import ro.pippo.test.PippoTest;
 import ro.pippo.test.PippoWebSocketExtension;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+
+import static ro.pippo.core.route.AsyncRouteHandler.async;
 
 public class JettyServerTest extends PippoTest {
 
+    // bigger than the transfer buffer, so it's sent in several writes
+    private static final File LARGE_FILE = createLargeFile(200 * 1024);
+
     @RegisterExtension
     public static PippoWebSocketExtension pippoExtension = new PippoWebSocketExtension(new Application() {{
 
+        getPippoSettings().overrideSetting(PippoConstants.SETTING_REQUEST_ASYNC_TIMEOUT, 500L);
+
         GET("/foo", context -> context.send("foo"));
 
+        GET("/file", context -> context.getResponse().resource(LARGE_FILE, context.getHeader(HttpConstants.Header.RANGE)));
+
+        GET("/async", async(context -> CompletableFuture.supplyAsync(() -> "async " + Thread.currentThread().getName())));
+
+        GET("/async/error", async(context -> CompletableFuture.supplyAsync(() -> {
+            throw new StatusCodeException(HttpConstants.StatusCode.CONFLICT, "conflict");
+        })));
+
+        GET("/async/timeout", async(context -> new CompletableFuture<>()));
+
+        GET("/stream", context -> {
+            SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+            context.text().stream(publisher, StreamFormat.RAW);
+            CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    publisher.submit(i + "\n");
+                }
+                publisher.close();
+            });
+        });
+
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        broadcaster.broadcast("a");
+        broadcaster.broadcast("b");
+        broadcaster.broadcast("c");
+
+        GET("/sse", new SseHandler(emitter -> {
+            broadcaster.subscribe(emitter);
+            emitter.send(SseEvent.data("last").name("end"));
+            emitter.close();
+        }));
+
         addWebSocket("/ws/echo", new WebSocketHandler() {
             @Override
             public void onMessage(WebSocketContext context, String message) {
@@ -72,6 +122,78 @@ public class JettyServerTest extends PippoTest {
         ;
     }
 
+    @Test
+    public void testFileRange() {
+        byte[] body = given()
+            .header(HttpConstants.Header.RANGE, "bytes=1000-150999")
+        .when()
+            .get("/file")
+        .then()
+            .statusCode(206)
+            .header(HttpConstants.Header.CONTENT_RANGE, "bytes 1000-150999/" + LARGE_FILE.length())
+            .extract().asByteArray();
+
+        Assertions.assertEquals(150_000, body.length);
+        for (int i = 0; i < body.length; i++) {
+            Assertions.assertEquals((byte) (1000 + i), body[i]);
+        }
+    }
+
+    @Test
+    public void testAsyncGet() {
+        when()
+            .get("/async")
+        .then()
+            .statusCode(200)
+            .body(Matchers.startsWith("async "))
+        ;
+    }
+
+    @Test
+    public void testAsyncError() {
+        when()
+            .get("/async/error")
+        .then()
+            .statusCode(409)
+        ;
+    }
+
+    @Test
+    public void testAsyncTimeout() {
+        when()
+            .get("/async/timeout")
+        .then()
+            .statusCode(503)
+        ;
+    }
+
+    @Test
+    public void testStream() {
+        String body = when()
+            .get("/stream")
+        .then()
+            .statusCode(200)
+            .contentType(Matchers.startsWith(HttpConstants.ContentType.TEXT_PLAIN))
+            .extract().asString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(10_000, lines.length);
+        Assertions.assertEquals("9999", lines[lines.length - 1]);
+    }
+
+    @Test
+    public void testSse() {
+        given()
+            .header(HttpConstants.Header.LAST_EVENT_ID, "2")
+        .when()
+            .get("/sse")
+        .then()
+            .statusCode(200)
+            .contentType(Matchers.startsWith(HttpConstants.ContentType.TEXT_EVENT_STREAM))
+            .body(Matchers.equalTo("id: 3\ndata: c\n\nevent: end\ndata: last\n\n"))
+        ;
+    }
+
     @Test
     public void testWsText() throws IOException, ExecutionException, InterruptedException {
         BlockingQueue<String> incoming = new LinkedBlockingQueue<>();
@@ -90,6 +212,22 @@ public class JettyServerTest extends PippoTest {
         }
     }
 
+    private static File createLargeFile(int size) {
+        try {
+            File file = File.createTempFile("pippo-jetty", ".bin");
+            file.deleteOnExit();
+            byte[] content = new byte[size];
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) i;
+            }
+            Files.write(file.toPath(), content);
+
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @WebSocket
     @SuppressWarnings("InnerClassMayBeStatic")
     public class WsEchoEndpoint {
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.jetty;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import ro.pippo.core.Application;
+import ro.pippo.core.PippoConstants;
+import ro.pippo.core.util.VirtualThreadUtils;
+import ro.pippo.test.PippoExtension;
+import ro.pippo.test.PippoTest;
+
+/**
+ * Runs the route handlers on the virtual threads of the dispatcher ({@code application.virtualThreads}).
+ */
+public class JettyVirtualThreadsTest extends PippoTest {
+
+    @RegisterExtension
+    public static PippoExtension pippoExtension = new PippoExtension(new Application() {{
+
+        getPippoSettings().overrideSetting(PippoConstants.SETTING_APPLICATION_VIRTUAL_THREADS, true);
+
+        GET("/thread", context -> context.send("virtual " + VirtualThreadUtils.isVirtual(Thread.currentThread())));
+
+    }});
+
+    @Test
+    public void testHandlerRunsOnVirtualThread() {
+        Assumptions.assumeTrue(VirtualThreadUtils.isSupported(), "Virtual threads require Java 21 or later");
+
+        when()
+            .get("/thread")
+        .then()
+            .statusCode(200)
+            .body(Matchers.equalTo("virtual true"))
+        ;
+    }
+
+}
@@ -31,6 +31,7 @@ import ro.pippo.core.WebServer;
 import ro.pippo.core.util.StringUtils;
 
 import java.io.File;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Daniel Jipa
@@ -41,6 +42,7 @@ public class TomcatServer extends AbstractWebServer<TomcatSettings> {
     private static final Logger log = LoggerFactory.getLogger(TomcatServer.class);
 
     private Tomcat tomcat;
+    private ExecutorService virtualThreadExecutor;
 
     @Override
     public void start() {
@@ -57,6 +59,12 @@ public class TomcatServer extends AbstractWebServer<TomcatSettings> {
             enableSSLConnector(tomcat);
         }
 
+        // run the requests on virtual threads instead of the connector pool
+        virtualThreadExecutor = createVirtualThreadExecutor();
+        if (virtualThreadExecutor != null) {
+            tomcat.getConnector().getProtocolHandler().setExecutor(virtualThreadExecutor);
+        }
+
         File docBase = new File(System.getProperty("java.io.tmpdir"));
         Context context = tomcat.addContext(getSettings().getContextPath(), docBase.getAbsolutePath());
         context.setAllowCasualMultipartParsing(true);
@@ -69,6 +77,8 @@ public class TomcatServer extends AbstractWebServer<TomcatSettings> {
         wrapper.setName(name);
         wrapper.setLoadOnStartup(1);
         wrapper.setServlet(pippoServlet);
+        // allow asynchronous route handlers
+        wrapper.setAsyncSupported(true);
         wrapper.setMultipartConfigElement(createMultipartConfigElement());
         wrapper.addMapping(pippoFilterPath);
         context.addChild(wrapper);
@@ -104,10 +114,19 @@ public class TomcatServer extends AbstractWebServer<TomcatSettings> {
                 tomcat.stop();
             } catch (Exception e) {
                 throw new PippoRuntimeException(e, "Cannot stop Tomcat Server");
+            } finally {
+                shutdownVirtualThreadExecutor();
             }
         }
     }
 
+    private void shutdownVirtualThreadExecutor() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+            virtualThreadExecutor = null;
+        }
+    }
+
     @Override
     protected TomcatSettings createDefaultSettings() {
         return new TomcatSettings(getApplication().getPippoSettings());
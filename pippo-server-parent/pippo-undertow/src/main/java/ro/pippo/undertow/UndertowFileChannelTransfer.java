@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ro.pippo.undertow;
+
+import io.undertow.servlet.spec.ServletOutputStreamImpl;
+import org.kohsuke.MetaInfServices;
+import ro.pippo.core.FileChannelTransfer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sends the file with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * to the Undertow response channel (sendfile).
+ * Undertow transfers the file until its end, so only the regions that end with the file are supported.
+ */
+@MetaInfServices(FileChannelTransfer.class)
+public class UndertowFileChannelTransfer implements FileChannelTransfer {
+
+    @Override
+    public boolean transfer(FileChannel channel, long position, long count, OutputStream output) throws IOException {
+        if (!(output instanceof ServletOutputStreamImpl) || (position + count != channel.size())) {
+            return false;
+        }
+
+        channel.position(position);
+        ((ServletOutputStreamImpl) output).transferFrom(channel);
+
+        return true;
+    }
+
+}
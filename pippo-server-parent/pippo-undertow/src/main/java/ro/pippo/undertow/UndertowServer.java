@@ -51,6 +51,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An implementation of WebServer based on Undertow.
@@ -66,6 +67,7 @@ public class UndertowServer extends AbstractWebServer<UndertowSettings> {
 
     private Undertow server;
     private DeploymentManager pippoDeploymentManager;
+    private ExecutorService virtualThreadExecutor;
 
     @Override
     public void start() {
@@ -98,10 +100,19 @@ public class UndertowServer extends AbstractWebServer<UndertowSettings> {
                 pippoDeploymentManager.undeploy();
             } catch (Exception e) {
                 throw new PippoRuntimeException(e, "Cannot stop Undertow Server");
+            } finally {
+                shutdownVirtualThreadExecutor();
             }
         }
     }
 
+    private void shutdownVirtualThreadExecutor() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+            virtualThreadExecutor = null;
+        }
+    }
+
     @Override
     protected UndertowSettings createDefaultSettings() {
         return new UndertowSettings(getApplication().getPippoSettings());
@@ -176,6 +187,12 @@ public class UndertowServer extends AbstractWebServer<UndertowSettings> {
         info.setContextPath(getSettings().getContextPath());
         info.setIgnoreFlush(true);
 
+        // run the servlet requests on virtual threads instead of the worker threads
+        virtualThreadExecutor = createVirtualThreadExecutor();
+        if (virtualThreadExecutor != null) {
+            info.setExecutor(virtualThreadExecutor);
+        }
+
         // inject application as context attribute
         info.addServletContextAttribute(PIPPO_APPLICATION, getApplication());
 
@@ -190,6 +207,8 @@ public class UndertowServer extends AbstractWebServer<UndertowSettings> {
 
         ServletInfo defaultServlet = new ServletInfo("DefaultServlet", DefaultServlet.class);
         defaultServlet.addMapping("/");
+        // the asynchronous processing must be supported by the whole chain
+        defaultServlet.setAsyncSupported(true);
 
         MultipartConfigElement multipartConfig = createMultipartConfigElement();
         defaultServlet.setMultipartConfig(multipartConfig);
@@ -206,7 +225,10 @@ public class UndertowServer extends AbstractWebServer<UndertowSettings> {
             pippoFilterPath = "/*"; // default value
         }
 
-        info.addFilter(new FilterInfo("PippoFilter", PippoFilter.class, new ImmediateInstanceFactory<>(getPippoFilter())));
+        FilterInfo filterInfo = new FilterInfo("PippoFilter", PippoFilter.class, new ImmediateInstanceFactory<>(getPippoFilter()));
+        // allow asynchronous route handlers
+        filterInfo.setAsyncSupported(true);
+        info.addFilter(filterInfo);
         info.addFilterUrlMapping("PippoFilter", pippoFilterPath, DispatcherType.REQUEST);
         log.debug("Using pippo filter for path '{}'", pippoFilterPath);
     }
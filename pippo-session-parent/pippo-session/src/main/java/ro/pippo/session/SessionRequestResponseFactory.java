@@ -40,8 +40,8 @@ public class SessionRequestResponseFactory extends RequestResponseFactory {
     @Override
     public RequestResponse createRequestResponse(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
         SessionHttpServletRequest sessionHttpServletRequest = new SessionHttpServletRequest(httpServletRequest, sessionManager);
-        Request request = new Request(sessionHttpServletRequest, application);
-        Response response = new Response(httpServletResponse, application);
+        Request request = createRequest(sessionHttpServletRequest);
+        Response response = createResponse(httpServletResponse);
         response.getFinalizeListeners().add(r -> sessionHttpServletRequest.commitSession(httpServletResponse));
 
         return new RequestResponse(request, response);
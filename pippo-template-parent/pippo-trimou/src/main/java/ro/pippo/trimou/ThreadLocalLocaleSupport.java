@@ -22,6 +22,12 @@ import org.trimou.engine.locale.LocaleSupport;
 
 /**
  * Sets a thread local variable to reference the request locale.
+ * <p>
+ * The locale is set and removed around each render (see {@link TrimouTemplateEngine}), so it is
+ * safe when the requests run on virtual threads ({@code application.virtualThreads}); each virtual
+ * thread allocates its own thread local map entry, that is dropped with the thread at the end
+ * of the request. Trimou asks the locale without any render context, so there is no request scoped
+ * alternative.
  *
  * @author James Moger
  */